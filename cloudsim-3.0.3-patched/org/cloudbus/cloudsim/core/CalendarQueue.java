@@ -0,0 +1,377 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Future event queue that is implemented as calendar queue (R. Brown, 1988). Insert and removal of the first event
+ * take amortized constant time.
+ * <p>
+ * Events are hashed by their time into buckets of a fixed width ("days"); each bucket holds a sorted, doubly linked
+ * list of events. The queue resizes itself and adapts the bucket width to the event density when the number of
+ * events grows above twice or drops below half of the number of buckets. Events that are added in insertion order
+ * (the usual case for events at the same time) are appended to the tail of their bucket in constant time.
+ * <p>
+ * {@link #iterator()}, {@link #remove(SimEvent)} and {@link #removeAll(Collection)} are meant for the rare
+ * cancellation of events and take linear time.
+ *
+ * @see FutureQueue
+ */
+public class CalendarQueue implements FutureEventQueue {
+
+	/** The minimal number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The max number of events that is used to estimate the bucket width on resize. */
+	private static final int WIDTH_SAMPLES = 25;
+
+	/**
+	 * Orders events by time and serial. Unlike {@link SimEvent#compareTo(SimEvent)} it is consistent for events with
+	 * equal serials (see {@link #addEventFirst(SimEvent)}), which keeps {@link Arrays#sort(Object[], Comparator)} stable.
+	 */
+	private static final Comparator<SimEvent> QUEUE_ORDER = new Comparator<SimEvent>() {
+
+		@Override
+		public int compare(SimEvent a, SimEvent b) {
+			int result = Double.compare(a.eventTime(), b.eventTime());
+			return result != 0 ? result : Long.compare(a.getSerial(), b.getSerial());
+		}
+	};
+
+	/** First and last node of every bucket. */
+	private Node[] heads, tails;
+
+	/** The width of a single bucket in simulation time. */
+	private double width;
+
+	/** Index of the "day" (time / width) where the search for the next event starts. */
+	private long currentDay;
+
+	/** The size. */
+	private int size;
+
+	/** The serial. */
+	private long serial = 0;
+
+	/**
+	 * Creates a calendar queue with initial bucket width 1.0. The width adapts to the event density.
+	 */
+	public CalendarQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates a calendar queue with the given initial bucket width.
+	 *
+	 * @param initialWidth width of a bucket in simulation time. Should be close to the mean time between two events
+	 */
+	public CalendarQueue(double initialWidth) {
+		if (initialWidth <= 0) {
+			throw new IllegalArgumentException("The bucket width has to be positive, but is: " + initialWidth);
+		}
+		width = initialWidth;
+		heads = new Node[MIN_BUCKETS];
+		tails = new Node[MIN_BUCKETS];
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(new Node(newEvent));
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(0);
+		insert(new Node(newEvent));
+	}
+
+	@Override
+	public SimEvent peek() {
+		int bucket = findFirstBucket();
+		return bucket < 0 ? null : heads[bucket].event;
+	}
+
+	@Override
+	public List<SimEvent> pollAllAtFirstTime() {
+		List<SimEvent> result = new ArrayList<SimEvent>();
+		int bucket = findFirstBucket();
+		if (bucket < 0) {
+			return result;
+		}
+
+		//all events with the same time are in the same bucket and follow each other
+		double time = heads[bucket].event.eventTime();
+		while (heads[bucket] != null && heads[bucket].event.eventTime() == time) {
+			result.add(heads[bucket].event);
+			unlink(bucket, heads[bucket]);
+		}
+		size -= result.size();
+
+		if (size < heads.length / 2 && heads.length > MIN_BUCKETS) {
+			resize(heads.length / 2);
+		}
+		return result;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		SimEvent[] events = toArray();
+		Arrays.sort(events, QUEUE_ORDER);
+		final Iterator<SimEvent> snapshot = Arrays.asList(events).iterator();
+		return new Iterator<SimEvent>() {
+
+			private SimEvent current;
+
+			@Override
+			public boolean hasNext() {
+				return snapshot.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				current = snapshot.next();
+				return current;
+			}
+
+			@Override
+			public void remove() {
+				if (current == null) {
+					throw new IllegalStateException();
+				}
+				CalendarQueue.this.remove(current);
+				current = null;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int bucket = bucketOf(event.eventTime());
+		for (Node n = heads[bucket]; n != null; n = n.next) {
+			if (n.event == event) {
+				unlink(bucket, n);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean changed = false;
+		for (SimEvent e : events) {
+			changed |= remove(e);
+		}
+		return changed;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(heads, null);
+		Arrays.fill(tails, null);
+		size = 0;
+		currentDay = 0;
+	}
+
+	/**
+	 * Inserts the node into its bucket and grows the calendar if required.
+	 *
+	 * @param node the node
+	 */
+	private void insert(Node node) {
+		link(node);
+		size++;
+
+		if (size > heads.length * 2) {
+			resize(heads.length * 2);
+		}
+	}
+
+	/**
+	 * Inserts the node at its position in the sorted bucket. The bucket is searched from its tail, since new events
+	 * usually belong behind all events that are already in the queue.
+	 *
+	 * @param node the node
+	 */
+	private void link(Node node) {
+		long day = dayOf(node.event.eventTime());
+		if (day < currentDay) {
+			currentDay = day;
+		}
+
+		int bucket = (int) (day % heads.length);
+		Node before = tails[bucket];
+		while (before != null && QUEUE_ORDER.compare(before.event, node.event) > 0) {
+			before = before.prev;
+		}
+
+		node.prev = before;
+		if (before == null) {
+			node.next = heads[bucket];
+			heads[bucket] = node;
+		} else {
+			node.next = before.next;
+			before.next = node;
+		}
+		if (node.next == null) {
+			tails[bucket] = node;
+		} else {
+			node.next.prev = node;
+		}
+	}
+
+	/**
+	 * Removes the node from the given bucket. Does not change the size.
+	 *
+	 * @param bucket the bucket of the node
+	 * @param node the node
+	 */
+	private void unlink(int bucket, Node node) {
+		if (node.prev == null) {
+			heads[bucket] = node.next;
+		} else {
+			node.prev.next = node.next;
+		}
+		if (node.next == null) {
+			tails[bucket] = node.prev;
+		} else {
+			node.next.prev = node.prev;
+		}
+		node.prev = node.next = null;
+	}
+
+	/**
+	 * Finds the bucket whose head is the first event of the queue. Moves {@link #currentDay} forward to the day of
+	 * this event.
+	 *
+	 * @return index of the bucket or -1 if the queue is empty
+	 */
+	private int findFirstBucket() {
+		if (size == 0) {
+			return -1;
+		}
+
+		//walk through one year of days
+		for (int i = 0; i < heads.length; i++) {
+			int bucket = (int) (currentDay % heads.length);
+			Node head = heads[bucket];
+			if (head != null && dayOf(head.event.eventTime()) <= currentDay) {
+				return bucket;
+			}
+			currentDay++;
+		}
+
+		//no event within one year, search the minimum directly
+		int first = -1;
+		for (int bucket = 0; bucket < heads.length; bucket++) {
+			if (heads[bucket] != null && (first < 0 || QUEUE_ORDER.compare(heads[bucket].event, heads[first].event) < 0)) {
+				first = bucket;
+			}
+		}
+		currentDay = dayOf(heads[first].event.eventTime());
+		return first;
+	}
+
+	/**
+	 * Changes the number of buckets and estimates a new bucket width from the events at the head of the queue.
+	 *
+	 * @param numBuckets new number of buckets
+	 */
+	private void resize(int numBuckets) {
+		SimEvent[] events = toArray();
+		Arrays.sort(events, QUEUE_ORDER);
+
+		double newWidth = estimateWidth(events);
+		if (newWidth > 0) {
+			width = newWidth;
+		}
+
+		heads = new Node[numBuckets];
+		tails = new Node[numBuckets];
+		currentDay = events.length > 0 ? dayOf(events[0].eventTime()) : 0;
+		for (SimEvent e : events) {
+			link(new Node(e));
+		}
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average time between the first events of the queue. Gaps that are
+	 * larger than twice the average are ignored.
+	 *
+	 * @param sorted events in queue order
+	 * @return the new width or 0 if all sampled events occur at the same time
+	 */
+	private static double estimateWidth(SimEvent[] sorted) {
+		int samples = Math.min(sorted.length, WIDTH_SAMPLES);
+		if (samples < 2) {
+			return 0;
+		}
+
+		double average = (sorted[samples - 1].eventTime() - sorted[0].eventTime()) / (samples - 1);
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < samples; i++) {
+			double gap = sorted[i].eventTime() - sorted[i - 1].eventTime();
+			if (gap <= average * 2) {
+				sum += gap;
+				count++;
+			}
+		}
+		return count == 0 ? 0 : 3 * sum / count;
+	}
+
+	/**
+	 * Returns all events of the queue in no particular order.
+	 *
+	 * @return the events
+	 */
+	private SimEvent[] toArray() {
+		SimEvent[] events = new SimEvent[size];
+		int i = 0;
+		for (Node head : heads) {
+			for (Node n = head; n != null; n = n.next) {
+				events[i++] = n.event;
+			}
+		}
+		return events;
+	}
+
+	private long dayOf(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	private int bucketOf(double time) {
+		return (int) (dayOf(time) % heads.length);
+	}
+
+	/** A node of the doubly linked list of a bucket. */
+	private static final class Node {
+
+		private final SimEvent event;
+
+		private Node prev, next;
+
+		private Node(SimEvent event) {
+			this.event = event;
+		}
+	}
+}
@@ -16,6 +16,11 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -165,6 +170,30 @@ public class CloudSim {
 	    init(numUser, cal, traceFlag);
 	    minTimeBetweenEvents = periodBetweenEvents;
 	}
+
+	/**
+	 * Initialises CloudSim parameters with a custom future event queue. This method should be called before creating
+	 * any entities.
+	 * 
+	 * @param numUser the number of User Entities created.
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureQueue the (empty) future event queue, for example a {@link CalendarQueue} for simulations with
+	 *            many events
+	 * @see #init(int, Calendar, boolean)
+	 * @pre numUser >= 0
+	 * @pre futureQueue != null
+	 * @post $none
+	 */
+	public static void init(int numUser, Calendar cal, boolean traceFlag, FutureEventQueue futureQueue) {
+		if (futureQueue == null || futureQueue.size() > 0) {
+			throw new IllegalArgumentException("The future event queue has to be empty and not null");
+		}
+
+		nextFuture = futureQueue;
+		init(numUser, cal, traceFlag);
+	}
 	
 	
 	
@@ -311,7 +340,16 @@ public class CloudSim {
 	private static List<SimEntity> entities;
 
 	/** The future event queue. */
-	protected static FutureQueue future;
+	protected static FutureEventQueue future;
+
+	/** The pool that runs the entities of a clock tick in parallel, or null for sequential execution. */
+	private static ForkJoinPool parallelPool;
+
+	/** Collects the events that are scheduled by the entity of the current thread during a parallel dispatch. */
+	private static final ThreadLocal<List<ScheduledEvent>> scheduledEvents = new ThreadLocal<List<ScheduledEvent>>();
+
+	/** The future event queue that will be used by the next call of {@link #initialize()}. */
+	private static FutureEventQueue nextFuture;
 
 	/** The deferred event queue. */
 	protected static DeferredQueue deferred;
@@ -322,6 +360,9 @@ public class CloudSim {
 	/** Flag for checking if the simulation is running. */
 	private static boolean running;
 
+	/** The number of events processed since the initialization. Only written by the simulation thread. */
+	private static long processedEvents;
+
 	/** The entities by name. */
 	private static Map<String, SimEntity> entitiesByName;
 
@@ -346,10 +387,12 @@ public class CloudSim {
 		Log.printLine("Initialising...");
 		entities = new ArrayList<SimEntity>();
 		entitiesByName = new LinkedHashMap<String, SimEntity>();
-		future = new FutureQueue();
+		future = nextFuture != null ? nextFuture : new FutureQueue();
+		nextFuture = null;
 		deferred = new DeferredQueue();
-		waitPredicates = new HashMap<Integer, Predicate>();
+		waitPredicates = new ConcurrentHashMap<Integer, Predicate>();
 		clock = 0;
+		processedEvents = 0;
 		running = false;
 	}
 
@@ -372,6 +415,41 @@ public class CloudSim {
 		return clock;
 	}
 
+	/**
+	 * Get the number of events that have been processed since the simulation has been initialized.
+	 * <p>
+	 * Can be called from other threads while the simulation is running, the value might be slightly outdated then.
+	 * 
+	 * @return the number of processed events
+	 */
+	public static long getNumProcessedEvents() {
+		return processedEvents;
+	}
+
+	/**
+	 * Get the number of events in the future event queue.
+	 * <p>
+	 * Can be called from other threads while the simulation is running, the value is approximate then.
+	 * 
+	 * @return the number of future events, 0 if the simulation has not been initialized
+	 */
+	public static int getFutureQueueSize() {
+		FutureEventQueue queue = future;
+		return queue == null ? 0 : queue.size();
+	}
+
+	/**
+	 * Get the number of events in the deferred event queue.
+	 * <p>
+	 * Can be called from other threads while the simulation is running, the value is approximate then.
+	 * 
+	 * @return the number of deferred events, 0 if the simulation has not been initialized
+	 */
+	public static int getDeferredQueueSize() {
+		DeferredQueue queue = deferred;
+		return queue == null ? 0 : queue.size();
+	}
+
 	/**
 	 * Get the current number of entities in the simulation.
 	 * 
@@ -471,6 +549,10 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	public static void addEntity(SimEntity e) {
+		if (scheduledEvents.get() != null) {
+			throw new IllegalStateException("Entities can't be added during a parallel dispatch.");
+		}
+
 		SimEvent evt;
 		if (running) {
 			// Post an event to make this entity
@@ -512,38 +594,25 @@ public class CloudSim {
 		
 		int entities_size = entities.size();
 
-		for (int i = 0; i < entities_size; i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.RUNNABLE) {
-				ent.run();
+		if (parallelPool != null) {
+			runEntitiesInParallel(entities_size);
+		} else {
+			for (int i = 0; i < entities_size; i++) {
+				ent = entities.get(i);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					ent.run();
+				}
 			}
 		}
 				
 		// If there are more future events then deal with them
 		if (future.size() > 0) {
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> fit = future.iterator();
 			queue_empty = false;
-			SimEvent first = fit.next();
-			processEvent(first);
-			future.remove(first);
-
-			fit = future.iterator();
-
-			// Check if next events are at same time...
-			boolean trymore = fit.hasNext();
-			while (trymore) {
-				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
-					processEvent(next);
-					toRemove.add(next);
-					trymore = fit.hasNext();
-				} else {
-					trymore = false;
-				}
-			}
 
-			future.removeAll(toRemove);
+			// Process the first event and all other events at the same time
+			for (SimEvent next : future.pollAllAtFirstTime()) {
+				processEvent(next);
+			}
 
 		} else {
 			queue_empty = true;
@@ -554,6 +623,145 @@ public class CloudSim {
 		return queue_empty;
 	}
 
+	/**
+	 * Runs all runnable entities of a clock tick, the parallel safe ones concurrently on the parallel pool.
+	 * <p>
+	 * Entities that are not parallel safe run first, one after another in the order of their ids. Then all parallel
+	 * safe entities that are runnable at this point run concurrently. Events that the entities schedule are collected
+	 * per entity and added to the future event queue in the order of the entity ids afterwards. This is the same
+	 * order in which the sequential loop would have added them, so the results do not depend on the thread
+	 * scheduling.
+	 * 
+	 * @param entities_size number of entities that exist at the beginning of the clock tick
+	 * @see SimEntity#isParallelSafe()
+	 */
+	private static void runEntitiesInParallel(int entities_size) {
+		EntityRun[] runs = new EntityRun[entities_size];
+		for (int i = 0; i < entities_size; i++) {
+			SimEntity ent = entities.get(i);
+			if (ent.getState() == SimEntity.RUNNABLE && !ent.isParallelSafe()) {
+				runs[i] = new EntityRun(ent);
+				runs[i].call();
+			}
+		}
+
+		List<EntityRun> parallelRuns = new ArrayList<EntityRun>();
+		for (int i = 0; i < entities_size; i++) {
+			SimEntity ent = entities.get(i);
+			if (ent.getState() == SimEntity.RUNNABLE && ent.isParallelSafe()) {
+				runs[i] = new EntityRun(ent);
+				parallelRuns.add(runs[i]);
+			}
+		}
+
+		if (parallelRuns.size() == 1) {
+			parallelRuns.get(0).call();
+		} else if (parallelRuns.size() > 1) {
+			for (Future<List<ScheduledEvent>> result : parallelPool.invokeAll(parallelRuns)) {
+				try {
+					result.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted during parallel dispatch.", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		}
+
+		for (EntityRun run : runs) {
+			if (run == null) {
+				continue;
+			}
+			for (ScheduledEvent scheduled : run.scheduled) {
+				if (scheduled.first) {
+					future.addEventFirst(scheduled.event);
+				} else {
+					future.addEvent(scheduled.event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an event to the future event queue, or to the buffer of the current entity during a parallel dispatch.
+	 * 
+	 * @param e the event
+	 * @param first true if the event has to be added to the head of the queue
+	 */
+	private static void schedule(SimEvent e, boolean first) {
+		List<ScheduledEvent> buffer = scheduledEvents.get();
+		if (buffer != null) {
+			buffer.add(new ScheduledEvent(e, first));
+		} else if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+	}
+
+	/**
+	 * Enables or disables the parallel execution of entities. If enabled, all parallel safe entities that are runnable
+	 * in the same clock tick run concurrently on a fork-join pool. Entities must not be added while they run. The
+	 * results are reproducible and identical to the sequential execution, as long as no entity that is not parallel
+	 * safe changes the state of a parallel safe entity with a lower id.
+	 * 
+	 * @param parallelism number of threads. 1 disables the parallel execution (default)
+	 * @pre parallelism >= 1
+	 */
+	public static void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism has to be positive, but is: " + parallelism);
+		}
+
+		if (parallelPool != null) {
+			parallelPool.shutdown();
+		}
+		parallelPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+	}
+
+	/** Runs an entity and collects the events that it schedules. */
+	private static class EntityRun implements Callable<List<ScheduledEvent>> {
+
+		private final SimEntity entity;
+
+		private final List<ScheduledEvent> scheduled = new ArrayList<ScheduledEvent>();
+
+		EntityRun(SimEntity entity) {
+			this.entity = entity;
+		}
+
+		@Override
+		public List<ScheduledEvent> call() {
+			scheduledEvents.set(scheduled);
+			try {
+				entity.run();
+			} finally {
+				scheduledEvents.remove();
+			}
+			return scheduled;
+		}
+	}
+
+	/** An event that has been scheduled during a parallel dispatch. */
+	private static class ScheduledEvent {
+
+		private final SimEvent event;
+
+		private final boolean first;
+
+		ScheduledEvent(SimEvent event, boolean first) {
+			this.event = event;
+			this.first = first;
+		}
+	}
+
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
@@ -569,7 +777,7 @@ public class CloudSim {
 	 */
 	public static void hold(int src, long delay) {
 		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
+		schedule(e, false);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
 
@@ -581,7 +789,7 @@ public class CloudSim {
 	 */
 	public static void pause(int src, double delay) {
 		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
+		schedule(e, false);
 		entities.get(src).setState(SimEntity.HOLDING);
 	}
 
@@ -600,7 +808,7 @@ public class CloudSim {
 		}
 
 		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEvent(e);
+		schedule(e, false);
 	}
 
 	/**
@@ -618,7 +826,7 @@ public class CloudSim {
 		}
 
 		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEventFirst(e);
+		schedule(e, true);
 	}
 
 	/**
@@ -645,16 +853,7 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
-		int count = 0;
-		SimEvent event;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if ((event.getDestination() == d) && (p.match(event))) {
-				count++;
-			}
-		}
-		return count;
+		return deferred.count(d, p);
 	}
 
 	/**
@@ -665,16 +864,7 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent select(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				iterator.remove();
-				break;
-			}
-		}
-		return ev;
+		return deferred.removeFirst(src, p);
 	}
 
 	/**
@@ -685,15 +875,7 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				break;
-			}
-		}
-		return ev;
+		return deferred.findFirst(src, p);
 	}
 
 	/**
@@ -755,6 +937,7 @@ public class CloudSim {
 			throw new IllegalArgumentException("Past event detected.");
 		}
 		clock = e.eventTime();
+		processedEvents++;
 
 		// Ok now process it
 		switch (e.getType()) {
@@ -891,8 +1074,8 @@ public class CloudSim {
 			}
 
 			if (pauseAt != -1
-					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.iterator().next()
-							.eventTime()) || future.size() == 0 && pauseAt <= clock)) {
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek().eventTime())
+							|| future.size() == 0 && pauseAt <= clock)) {
 				pauseSimulation();
 				clock = pauseAt;
 			}
@@ -8,14 +8,28 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
+ * This class implements the deferred event queue used by {@link Simulation}. Every destination entity has its own
+ * mailbox, a linked list of events that is ordered by event time (events with the same time are kept in order of
+ * arrival). Each mailbox additionally indexes its events by tag.
+ * <p>
+ * Counting and selecting events of an entity never touches events of other entities, so different entities may
+ * select their events concurrently (see {@link CloudSim#setParallelism(int)}). Queries with
+ * {@link PredicateAny} take constant time, queries with {@link PredicateType} use the tag index; all other predicates
+ * are matched against the mailbox of the entity.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
@@ -24,11 +38,11 @@ import java.util.ListIterator;
  */
 public class DeferredQueue {
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The mailboxes, indexed by the id of the destination entity. */
+	private Mailbox[] mailboxes = new Mailbox[16];
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** Counts the added events. Breaks ties between events of the same time in different tag chains. */
+	private long arrivals;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
@@ -37,36 +51,102 @@ public class DeferredQueue {
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
+		int destination = newEvent.getDestination();
+		if (destination < 0) {
+			throw new IllegalArgumentException("Attempt to defer an event without destination.");
+		}
+		if (destination >= mailboxes.length) {
+			mailboxes = Arrays.copyOf(mailboxes, Math.max(mailboxes.length * 2, destination + 1));
+		}
+		if (mailboxes[destination] == null) {
+			mailboxes[destination] = new Mailbox();
 		}
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
+		mailboxes[destination].add(new Node(newEvent, arrivals++));
+	}
+
+	/**
+	 * Counts the events of a destination that match a predicate.
+	 * 
+	 * @param destination id of the destination entity
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	public int count(int destination, Predicate p) {
+		Mailbox mailbox = getMailbox(destination);
+		if (mailbox == null || p instanceof PredicateNone) {
+			return 0;
+		}
+		if (p instanceof PredicateAny) {
+			return mailbox.size;
+		}
+		if (p instanceof PredicateType) {
+			int count = 0;
+			int[] tags = ((PredicateType) p).getTags();
+			for (int i = 0; i < tags.length; i++) {
+				if (!containsBefore(tags, i)) {
+					TagChain chain = mailbox.tags.get(tags[i]);
+					count += chain == null ? 0 : chain.size;
+				}
 			}
+			return count;
 		}
 
-		list.add(newEvent);
+		int count = 0;
+		for (Node n = mailbox.head; n != null; n = n.next) {
+			if (p.match(n.event)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the first event of a destination that matches a predicate, without removing it.
+	 * 
+	 * @param destination id of the destination entity
+	 * @param p the predicate
+	 * @return the event or <tt>null</tt> if no event matches
+	 */
+	public SimEvent findFirst(int destination, Predicate p) {
+		Node node = findFirstNode(getMailbox(destination), p);
+		return node == null ? null : node.event;
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
+	 * Removes the first event of a destination that matches a predicate.
+	 * 
+	 * @param destination id of the destination entity
+	 * @param p the predicate
+	 * @return the removed event or <tt>null</tt> if no event matches
+	 */
+	public SimEvent removeFirst(int destination, Predicate p) {
+		Mailbox mailbox = getMailbox(destination);
+		Node node = findFirstNode(mailbox, p);
+		if (node == null) {
+			return null;
+		}
+
+		mailbox.remove(node);
+		return node.event;
+	}
+
+	/**
+	 * Returns an iterator to the events in the queue. The events are grouped by their destination and ordered by time
+	 * within each group. The iterator does not support removal.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		List<SimEvent> events = new ArrayList<SimEvent>(size());
+		for (Mailbox mailbox : mailboxes) {
+			if (mailbox != null) {
+				for (Node n = mailbox.head; n != null; n = n.next) {
+					events.add(n.event);
+				}
+			}
+		}
+		return Collections.unmodifiableList(events).iterator();
 	}
 
 	/**
@@ -75,14 +155,185 @@ public class DeferredQueue {
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		int size = 0;
+		for (Mailbox mailbox : mailboxes) {
+			if (mailbox != null) {
+				size += mailbox.size;
+			}
+		}
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		Arrays.fill(mailboxes, null);
+	}
+
+	private Mailbox getMailbox(int destination) {
+		if (destination < 0 || destination >= mailboxes.length) {
+			return null;
+		}
+		return mailboxes[destination];
+	}
+
+	private static Node findFirstNode(Mailbox mailbox, Predicate p) {
+		if (mailbox == null || p instanceof PredicateNone) {
+			return null;
+		}
+		if (p instanceof PredicateAny) {
+			return mailbox.head;
+		}
+		if (p instanceof PredicateType) {
+			// the first event is the earliest head of all tag chains
+			Node first = null;
+			for (int tag : ((PredicateType) p).getTags()) {
+				TagChain chain = mailbox.tags.get(tag);
+				if (chain != null && (first == null || chain.head.isBefore(first))) {
+					first = chain.head;
+				}
+			}
+			return first;
+		}
+
+		for (Node n = mailbox.head; n != null; n = n.next) {
+			if (p.match(n.event)) {
+				return n;
+			}
+		}
+		return null;
+	}
+
+	private static boolean containsBefore(int[] values, int index) {
+		for (int i = 0; i < index; i++) {
+			if (values[i] == values[index]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** A deferred event, linked into the mailbox and into the tag chain of its destination. */
+	private static final class Node {
+
+		private final SimEvent event;
+
+		private final long arrival;
+
+		private Node prev, next, prevWithTag, nextWithTag;
+
+		private Node(SimEvent event, long arrival) {
+			this.event = event;
+			this.arrival = arrival;
+		}
+
+		/**
+		 * Compares the position of two nodes of the same mailbox.
+		 * 
+		 * @param other the other node
+		 * @return true if this node comes first
+		 */
+		private boolean isBefore(Node other) {
+			return event.eventTime() < other.event.eventTime()
+					|| (event.eventTime() == other.event.eventTime() && arrival < other.arrival);
+		}
+	}
+
+	/** All events of one tag inside a mailbox. */
+	private static final class TagChain {
+
+		private Node head, tail;
+
+		private int size;
+	}
+
+	/** All events of one destination. */
+	private static final class Mailbox {
+
+		private Node head, tail;
+
+		private int size;
+
+		private final Map<Integer, TagChain> tags = new HashMap<Integer, TagChain>();
+
+		/**
+		 * Inserts the node behind all events with the same or an earlier time. Searches backwards, since events
+		 * usually arrive in temporal order.
+		 */
+		private void add(Node node) {
+			double eventTime = node.event.eventTime();
+
+			Node before = tail;
+			while (before != null && before.event.eventTime() > eventTime) {
+				before = before.prev;
+			}
+			node.prev = before;
+			node.next = before == null ? head : before.next;
+			if (node.prev == null) {
+				head = node;
+			} else {
+				node.prev.next = node;
+			}
+			if (node.next == null) {
+				tail = node;
+			} else {
+				node.next.prev = node;
+			}
+			size++;
+
+			TagChain chain = tags.get(node.event.getTag());
+			if (chain == null) {
+				chain = new TagChain();
+				tags.put(node.event.getTag(), chain);
+			}
+			Node beforeWithTag = chain.tail;
+			while (beforeWithTag != null && beforeWithTag.event.eventTime() > eventTime) {
+				beforeWithTag = beforeWithTag.prevWithTag;
+			}
+			node.prevWithTag = beforeWithTag;
+			node.nextWithTag = beforeWithTag == null ? chain.head : beforeWithTag.nextWithTag;
+			if (node.prevWithTag == null) {
+				chain.head = node;
+			} else {
+				node.prevWithTag.nextWithTag = node;
+			}
+			if (node.nextWithTag == null) {
+				chain.tail = node;
+			} else {
+				node.nextWithTag.prevWithTag = node;
+			}
+			chain.size++;
+		}
+
+		private void remove(Node node) {
+			if (node.prev == null) {
+				head = node.next;
+			} else {
+				node.prev.next = node.next;
+			}
+			if (node.next == null) {
+				tail = node.prev;
+			} else {
+				node.next.prev = node.prev;
+			}
+			size--;
+
+			TagChain chain = tags.get(node.event.getTag());
+			if (node.prevWithTag == null) {
+				chain.head = node.nextWithTag;
+			} else {
+				node.prevWithTag.nextWithTag = node.nextWithTag;
+			}
+			if (node.nextWithTag == null) {
+				chain.tail = node.prevWithTag;
+			} else {
+				node.nextWithTag.prevWithTag = node.prevWithTag;
+			}
+			if (--chain.size == 0) {
+				tags.remove(node.event.getTag());
+			}
+		}
 	}
 
-}
\ No newline at end of file
+}
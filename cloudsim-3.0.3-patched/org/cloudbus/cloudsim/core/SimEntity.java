@@ -399,6 +399,17 @@ public abstract class SimEntity implements Cloneable {
 	 */
 	public abstract void shutdownEntity();
 
+	/**
+	 * Indicates whether this entity may run concurrently to other entities, if the parallel execution is enabled
+	 * (see {@link CloudSim#setParallelism(int)}). Entities that return true must not access the mutable state of
+	 * other entities while they process their events.
+	 * 
+	 * @return false, unless overridden
+	 */
+	public boolean isParallelSafe() {
+		return false;
+	}
+
 	public void run() {
 		SimEvent ev = evbuf != null ? evbuf : getNextEvent();
 
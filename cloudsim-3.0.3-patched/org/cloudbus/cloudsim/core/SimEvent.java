@@ -86,6 +86,15 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	/**
+	 * Returns the serial that the future event queue assigned to this event.
+	 *
+	 * @return the serial
+	 */
+	long getSerial() {
+		return serial;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
@@ -9,17 +9,20 @@
  */
 package edu.kit.cloudSimStorage;
 
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
 import edu.kit.cloudSimStorage.cloudBroker.StorageBroker;
 import edu.kit.cloudSimStorage.cloudBroker.StorageMetaBroker;
+import edu.kit.cloudSimStorage.cloudScenarioModels.CloudModel;
 import edu.kit.cloudSimStorage.helper.StorageCloudFactory;
 import edu.kit.cloudSimStorage.cloudOperations.cloudInternalOperationState.CloudRequestState;
-import edu.kit.cloudSimStorage.cloudOperations.cloudInternalOperationState.GetObjectRequestState;
-import edu.kit.cloudSimStorage.cloudOperations.response.GetObjectResponse;
 import edu.kit.cloudSimStorage.helper.*;
 import edu.kit.cloudSimStorage.monitoring.*;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
 import edu.kit.cloudSimStorage.monitoring.report.*;
+import edu.kit.cloudSimStorage.policies.ReadScheduler;
+import edu.kit.cloudSimStorage.policies.WritePipeline;
 
+import org.cloudbus.cloudsim.core.CalendarQueue;
 import org.cloudbus.cloudsim.core.CloudSim;
 
 import org.apache.commons.cli.*;
@@ -31,6 +34,13 @@ import java.util.logging.Level;
 
 /** @author Tobias Sturm, 6/7/13 1:26 PM */
 public class Main {
+	private static boolean generateDump, generateGraphs, generateCSV, generateBinary, preventLogging, useCalendarQueue, streamTraces;
+	private static int maxSamples = 0;
+	private static int reportThreads = 1;
+	private static int liveStatsInterval = 0;
+	private static ReadScheduler.Policy readPolicy = ReadScheduler.Policy.LOWEST_UTILIZATION;
+	private static WritePipeline writePipeline = null;
+
 	public static void main(String[] args) throws Exception {
 		Options options = new Options();
         options.addOption("i", "input-directory", true, "input directory");
@@ -44,10 +54,24 @@ public class Main {
 				.withDescription("enable csv outputs at end of simulation")
 				.create("csv")
 		);
+		options.addOption(OptionBuilder
+				.withDescription("enable binary trace outputs at end of simulation")
+				.create("binary")
+		);
 		options.addOption(OptionBuilder
 				.withDescription("enable graph outputs at end of simulation")
 				.create("graphs")
 		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("maximum number of samples per sequence in csv and graph outputs (downsampled), at least 3")
+				.create("maxsamples")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("number of threads that generate the outputs at end of simulation")
+				.create("reportthreads")
+		);
 		options.addOption(OptionBuilder
 				.withDescription("enable log outputs at end of simulation")
 				.create("logs")
@@ -56,6 +80,48 @@ public class Main {
 				.withDescription("number of sequences")
 				.create("n")
 		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("number of threads that process events of clouds and brokers in parallel")
+				.create("threads")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("batch file, one simulation per line: <name> <cloud names|*> <sequences: *|n|from-to>")
+				.create("batch")
+		);
+		options.addOption(OptionBuilder
+				.withDescription("use a calendar queue as future event queue (faster for many concurrent requests)")
+				.create("calendarqueue")
+		);
+		options.addOption(OptionBuilder
+				.withDescription("count events online per second instead of keeping every event (less memory for long runs)")
+				.create("onlinetrackers")
+		);
+		options.addOption(OptionBuilder
+				.withDescription("write request.stats.csv while simulating and don't keep finished requests in memory")
+				.create("streamtraces")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("<window>:<resolution> keep raw samples for the last <window> seconds, roll older samples up into buckets of <resolution> seconds")
+				.create("retention")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("write a snapshot of the running simulation to live.stats.csv every n seconds")
+				.create("livestats")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("policy that chooses the replica of a read: lowest_utilization (default), power_of_two_choices or least_outstanding_requests")
+				.create("readpolicy")
+		);
+		options.addOption(OptionBuilder
+				.hasArg()
+				.withDescription("<fan_out|chain>[:<write quorum>[:<hop latency in ms>]] stream replicas from the primary and acknowledge writes at the quorum")
+				.create("writepipeline")
+		);
 
 
 		CommandLineParser parser = new BasicParser();
@@ -79,10 +145,71 @@ public class Main {
 			}
 			catch(NumberFormatException nfe){ }
 		}
-		boolean generateDump = cmd.hasOption("clouddump");
-		boolean generateGraphs = cmd.hasOption("graphs");;
-		boolean generateCSV = cmd.hasOption("csv");;
-		boolean preventLogging = cmd.hasOption("logs");;
+		generateDump = cmd.hasOption("clouddump");
+		generateGraphs = cmd.hasOption("graphs");
+		generateCSV = cmd.hasOption("csv");
+		generateBinary = cmd.hasOption("binary");
+		preventLogging = cmd.hasOption("logs");
+		useCalendarQueue = cmd.hasOption("calendarqueue");
+		streamTraces = cmd.hasOption("streamtraces");
+		if(cmd.hasOption("reportthreads"))
+		{
+			try
+			{
+				reportThreads = Math.max(1, Integer.parseInt(cmd.getOptionValue("reportthreads")));
+			}
+			catch(NumberFormatException nfe){ }
+		}
+		if(cmd.hasOption("livestats"))
+		{
+			try
+			{
+				liveStatsInterval = Integer.parseInt(cmd.getOptionValue("livestats"));
+			}
+			catch(NumberFormatException nfe){ }
+		}
+		if(cmd.hasOption("readpolicy"))
+		{
+			try
+			{
+				readPolicy = ReadScheduler.Policy.valueOf(cmd.getOptionValue("readpolicy").toUpperCase());
+			}
+			catch(IllegalArgumentException e){
+				System.err.println("Unknown read policy '" + cmd.getOptionValue("readpolicy") + "', use " + readPolicy);
+			}
+		}
+		if(cmd.hasOption("writepipeline"))
+		{
+			try
+			{
+				writePipeline = WritePipeline.parse(cmd.getOptionValue("writepipeline"));
+			}
+			catch(IllegalArgumentException e){
+				System.err.println("Invalid write pipeline '" + cmd.getOptionValue("writepipeline") + "', use the classic write model");
+			}
+		}
+		if(cmd.hasOption("maxsamples"))
+		{
+			try
+			{
+				int value = Integer.parseInt(cmd.getOptionValue("maxsamples"));
+				if(value != 0 && value < 3)
+					throw new IllegalArgumentException("at least 3 samples have to be kept");
+				maxSamples = value;
+			}
+			catch(IllegalArgumentException e){
+				System.err.println("Invalid maximum number of samples '" + cmd.getOptionValue("maxsamples") + "', keep all samples");
+			}
+		}
+		int threads = 1;
+		if(cmd.hasOption("threads"))
+		{
+			try
+			{
+				threads = Integer.parseInt(cmd.getOptionValue("threads"));
+			}
+			catch(NumberFormatException nfe){ }
+		}
 
 		System.out.printf("take '%s' as input%n", inputDir.getPath());
 		System.out.printf("take '%s' as output%n", outputDir.getPath());
@@ -91,8 +218,87 @@ public class Main {
 		else
 			System.out.printf("take all sequences%n");
 
+		CloudSim.setParallelism(Math.max(1, threads));
+		EventTracker.setAggregateOnline(cmd.hasOption("onlinetrackers"));
+		if(cmd.hasOption("retention"))
+		{
+			try
+			{
+				String[] retention = cmd.getOptionValue("retention").split(":");
+				Monitoring.setDefaultRetention(new RetentionPolicy(Long.parseLong(retention[0]) * 1000, Long.parseLong(retention[1]) * 1000));
+			}
+			catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e){
+				System.err.println("Invalid retention '" + cmd.getOptionValue("retention") + "', keep all samples");
+			}
+		}
+
+		//parse input only once, every simulation creates its own clouds from the models
+		List<CloudModel> models = new ArrayList<>();
+		for(File f : getFilesThatEndWithSorted(SharedConstants.CLOUD_FILE_EXTENTION, inputDir)) {
+			FileInputStream stream = new FileInputStream(f);
+			models.add(StorageCloudFactory.deserializeCloudModel(stream));
+			stream.close();
+		}
+
+		List<UsageSequence> sequences = new ArrayList<>();
+		for(File f : getFilesThatEndWithSorted(SharedConstants.SEQUENCE_FILE_EXTENTION, inputDir)) {
+			//take only first n sequences. won't interrupt if set to -1 (=all sequences)
+			if(nSequences == 0)
+				break;
+			nSequences --;
+
+			FileInputStream stream = new FileInputStream(f);
+			sequences.add(UsageSequence.deserialize(stream));
+			stream.close();
+		}
+
+		if(!cmd.hasOption("batch")) {
+			simulate(models, sequences, outputDir);
+			return;
+		}
+
+		//check all runs before the first one starts
+		List<String[]> runs = new ArrayList<>();
+		for(String[] run : readBatchFile(new File(cmd.getOptionValue("batch")))) {
+			try {
+				selectClouds(models, run[1]);
+				selectSequences(sequences, run[2]);
+				runs.add(run);
+			}
+			catch(IllegalArgumentException e){
+				System.err.println("Invalid batch run '" + run[0] + "': " + e.getMessage() + ", skip it");
+			}
+		}
+
+		for(String[] run : runs) {
+			File runOutputDir = new File(outputDir, run[0]);
+			if(!runOutputDir.exists() && !runOutputDir.mkdirs()) {
+				System.err.println("Could not create output directory '" + runOutputDir.getPath() + "'");
+				continue;
+			}
+			System.out.printf("batch run '%s' with clouds '%s' and sequences '%s'%n", run[0], run[1], run[2]);
+			simulate(selectClouds(models, run[1]), selectSequences(sequences, run[2]), runOutputDir);
+		}
+	}
+
+	/**
+	 * Runs a single simulation and writes all outputs.
+	 *
+	 * CloudSim keeps its state in static fields, so simulations can only run one after another within one JVM.
+	 *
+	 * @param models the clouds to simulate. Each simulation creates new {@link StorageCloud} instances from them
+	 * @param sequences the usage sequences to replay. They are not changed by the simulation
+	 * @param outputDir directory for all outputs and logs of this simulation
+	 */
+	private static void simulate(List<CloudModel> models, List<UsageSequence> sequences, File outputDir) throws Exception {
+		//every simulation generates the same IDs, also within a batch
+		CdmiId.reset();
+
 		// Initialize the CloudSim library
-		CloudSim.init(2, Calendar.getInstance(), false);
+		if(useCalendarQueue)
+			CloudSim.init(2, Calendar.getInstance(), false, new CalendarQueue());
+		else
+			CloudSim.init(2, Calendar.getInstance(), false);
 
 		// Initialize logging
 		LogDeflector deflector = new LogDeflector(outputDir);
@@ -102,17 +308,35 @@ public class Main {
 			deflector.setLevel(Level.OFF);
 		CSVGenerator csvGenerator = new CSVGenerator();
 		GraphGenerator gGen = new GraphGenerator();
+		BinaryTraceGenerator binaryGenerator = new BinaryTraceGenerator();
+		csvGenerator.setMaxSamples(maxSamples);
+		gGen.setMaxSamples(maxSamples);
+		SampleCache sampleCache = new SampleCache();
+		for(ReportGenerator generator : new ReportGenerator[] {csvGenerator, gGen, binaryGenerator}) {
+			generator.setSampleCache(sampleCache);
+			generator.setParallelism(reportThreads);
+		}
 
-		//read cloud definitions
+		//create clouds
 		List<StorageCloud> clouds = new ArrayList<>();
-		for(File f : getFilesThatEndWithSorted(SharedConstants.CLOUD_FILE_EXTENTION, inputDir)) {
-			StorageCloud cloud = StorageCloudFactory.createCloud(StorageCloudFactory.deserializeCloudModel(new FileInputStream(f)));
+		for(CloudModel model : models) {
+			StorageCloud cloud = StorageCloudFactory.createCloud(model);
+			cloud.setReadScheduler(new ReadScheduler(readPolicy, clouds.size()));
+			cloud.setWritePipeline(writePipeline);
 
 			clouds.add(cloud);
 			if(!preventLogging)
 				deflector.add(cloud);
 			gGen.addCloud(cloud);
 			csvGenerator.addCloud(cloud);
+			binaryGenerator.addCloud(cloud);
+		}
+
+		RequestTraceWriter traceWriter = null;
+		if(streamTraces) {
+			traceWriter = new RequestTraceWriter(new File(outputDir, "request.stats.csv"));
+			for(StorageCloud c : clouds)
+				c.traceRequestsTo(traceWriter, false);
 		}
 
 		//initialize usage sequences and metabroker
@@ -121,29 +345,39 @@ public class Main {
 			meta.addCloud(c.getId());
 		}
 
-		List<UsageSequence> sequences = new ArrayList<>();
-		for(File f : getFilesThatEndWithSorted(SharedConstants.SEQUENCE_FILE_EXTENTION, inputDir)) {
-			//take only first n sequences. won't interrupt if set to -1 (=all sequences)
-			if(nSequences == 0)
-				break;
-			nSequences --;
-
-			FileInputStream stream = new FileInputStream(f);
-			UsageSequence seq = UsageSequence.deserialize(stream);
-			stream.close();
-
+		for(UsageSequence seq : sequences) {
 			//add logging facilities
 			if(!preventLogging)
 				deflector.add(seq);
 			csvGenerator.addSequence(seq);
 			gGen.addSequence(seq);
-			sequences.add(seq);
 
 			meta.addNewUsageSequence(seq);
 		}
 
+		LiveStatsWriter liveStats = null;
+		if(liveStatsInterval > 0) {
+			liveStats = new LiveStatsWriter(new File(outputDir, "live.stats.csv"), liveStatsInterval * 1000l);
+			for(StorageCloud c : clouds)
+				liveStats.addCloud(c);
+			for(StorageBroker b : meta.getBrokers())
+				liveStats.addBroker(b);
+			liveStats.start();
+		}
+
 		//start simulation
-		CloudSim.startSimulation();
+		try {
+			CloudSim.startSimulation();
+		} finally {
+			try {
+				if(liveStats != null)
+					liveStats.close();
+			} finally {
+				//the streamed request statistics are complete once the simulation stopped
+				if(traceWriter != null)
+					traceWriter.close();
+			}
+		}
 
 		//create outputs
 		if(generateDump) {
@@ -158,33 +392,35 @@ public class Main {
 			gGen.generate(outputDir);
 		if(generateCSV)
 			csvGenerator.generate(outputDir);
+		if(generateBinary)
+			binaryGenerator.generate(outputDir);
 
 
 		//dump request statistics
-		FileWriter writer = new FileWriter(outputDir.getPath() + "/" + "request.stats.csv");
-		writer.write("started\tverb\tsize\tduration\tdelay\n");
-
-		for(StorageCloud c : clouds) {
-			for(OperationTimeTraceSample req : c.getOperationTimeTraces()) {
-				writer.write(String.valueOf(req.getOmmittedTimestamp()));
-				writer.write("\t");
-			    writer.write(req.getDescriptor());
-				writer.write("\t");
-				if(((CloudRequestState)req) instanceof GetObjectRequestState)
-					if(((GetObjectResponse)(((GetObjectRequestState)req).generateResponse())).getObject() != null)
-					writer.write(String.valueOf(((GetObjectResponse)(((GetObjectRequestState)req).generateResponse())).getObject().getPhysicalSize()));
-					else
-						writer.write("0");
-				else
-					writer.write(String.valueOf(((CloudRequestState)req).getRequest().getSize()));
-				writer.write("\t");
-				writer.write(String.valueOf(req.getDuration()));
-				writer.write("\t");
-				writer.write(String.valueOf(req.getDelay()));
-				writer.write("\n");
+		if(traceWriter == null) {
+			FileWriter writer = new FileWriter(outputDir.getPath() + "/" + "request.stats.csv");
+			writer.write(RequestTraceWriter.HEADER);
+
+			for(StorageCloud c : clouds) {
+				for(OperationTimeTraceSample req : c.getOperationTimeTraces()) {
+					writer.write(String.valueOf(req.getOmmittedTimestamp()));
+					writer.write("\t");
+					writer.write(req.getDescriptor());
+					writer.write("\t");
+					writer.write(String.valueOf(((CloudRequestState)req).getTransferredSize()));
+					writer.write("\t");
+					writer.write(String.valueOf(req.getDuration()));
+					writer.write("\t");
+					writer.write(String.valueOf(req.getDelay()));
+					writer.write("\t");
+					writer.write(c.getName());
+					writer.write("\t");
+					writer.write(String.valueOf(((CloudRequestState)req).getRequest().getUser()));
+					writer.write("\n");
+				}
 			}
+			writer.close();
 		}
-		writer.close();
 
 		List<TupleSequence<Double>> ackRequests = new ArrayList<>();
 		List<TupleSequence<Double>> failedRequests = new ArrayList<>();
@@ -198,9 +434,9 @@ public class Main {
 
 		//dump SLA violations
 		List<TupleSequence<Double>> unaligned = new ArrayList<>();
-		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sum(ackRequests), 5));
-		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sum(failedRequests), 5));
-		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sum(succRequests), 5));
+		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sumOfLevels(ackRequests), 5));
+		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sumOfLevels(failedRequests), 5));
+		unaligned.add(ReportGenerator.removeDoublicateValues(SequenceOperations.sumOfLevels(succRequests), 5));
 		unaligned.add(ReportGenerator.removeDoublicateValues(meta.getSamples(TraceableResource.NUM_EVENTS_TOTAL)));
 		List<String> labels = new ArrayList<>();
 		labels.add("acked request");
@@ -213,7 +449,7 @@ public class Main {
 		List<TupleSequence<Double>> cloudEarnings = new ArrayList<>();
 		labels = new ArrayList<>();
 		for(StorageCloud cloud : clouds) {
-			cloudEarnings.add(ReportGenerator.removeDoublicateValues(ReportGenerator.roundTo(cloud.getSamples(TraceableResource.TOTAL_EARNINGS), 2), 0.01));
+			cloudEarnings.add(new ReportPipeline().roundTo(2).removeDuplicates(0.01).apply(sampleCache.get(cloud).getSamples(TraceableResource.TOTAL_EARNINGS)));
 			labels.add(cloud.getName());
 		}
 		CSVGenerator.writeTrackSequence(outputDir, "earnings", labels, cloudEarnings);
@@ -223,10 +459,108 @@ public class Main {
 		labels = new ArrayList<>();
 		for(StorageCloud cloud : clouds) {
 			labels.add(cloud.getName());
-			cloudStorage.add(ReportGenerator.roundTo(ReportGenerator.changeFileMagnitude(ReportGenerator.removeDoublicateValues(cloud.getSamples(StorageCloud.USED_STORAGE_PHYSICAL_ABS), FileSizeHelper.toBytes(1, FileSizeHelper.Magnitude.GIGA_BYTE)), FileSizeHelper.Magnitude.GIGA_BYTE), 2));
+			cloudStorage.add(new ReportPipeline()
+					.removeDuplicates(FileSizeHelper.toBytes(1, FileSizeHelper.Magnitude.GIGA_BYTE))
+					.toFileMagnitude(FileSizeHelper.Magnitude.GIGA_BYTE)
+					.roundTo(2)
+					.apply(sampleCache.get(cloud).getSamples(StorageCloud.USED_STORAGE_PHYSICAL_ABS)));
 		}
 		CSVGenerator.writeTrackSequence(outputDir, "storage.stats", labels, cloudStorage);
 
+		deflector.close();
+	}
+
+	/**
+	 * Reads a batch file. Every line describes one simulation with three whitespace separated fields:
+	 * <ol>
+	 *     <li>name of the run, used as sub directory of the output directory</li>
+	 *     <li>comma separated names of the clouds, or '*' for all clouds</li>
+	 *     <li>the sequences: '*' for all, a number n for the first n sequences or a range 'from-to' (0-based, inclusive)</li>
+	 * </ol>
+	 * Empty lines and lines that start with '#' are ignored, lines without three fields are reported and skipped.
+	 *
+	 * @param batchFile the file
+	 * @return one array with the three fields per run
+	 */
+	static List<String[]> readBatchFile(File batchFile) throws IOException {
+		List<String[]> runs = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new FileReader(batchFile));
+		try {
+			String line;
+			while((line = reader.readLine()) != null) {
+				line = line.trim();
+				if(line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] fields = line.split("\\s+");
+				if(fields.length != 3) {
+					System.err.println("Invalid batch file line '" + line + "', needs 3 fields (name, clouds, sequences), skip it");
+					continue;
+				}
+				runs.add(fields);
+			}
+		} finally {
+			reader.close();
+		}
+		return runs;
+	}
+
+	/**
+	 * Selects the clouds of a batch run.
+	 *
+	 * @param models all clouds
+	 * @param names  comma separated names of the clouds, or '*' for all clouds
+	 * @return the selected clouds
+	 * @throws IllegalArgumentException if a cloud is unknown
+	 */
+	static List<CloudModel> selectClouds(List<CloudModel> models, String names) {
+		if(names.equals("*"))
+			return models;
+
+		List<CloudModel> result = new ArrayList<>();
+		for(String name : names.split(",")) {
+			boolean found = false;
+			for(CloudModel model : models) {
+				if(model.name.equals(name)) {
+					result.add(model);
+					found = true;
+				}
+			}
+			if(!found)
+				throw new IllegalArgumentException("unknown cloud '" + name + "'");
+		}
+		return result;
+	}
+
+	/**
+	 * Selects the sequences of a batch run.
+	 *
+	 * @param sequences all sequences
+	 * @param selection '*' for all, a number n for the first n sequences or a range 'from-to' (0-based, inclusive)
+	 * @return the selected sequences
+	 * @throws IllegalArgumentException if the selection is malformed or exceeds the sequences
+	 */
+	static List<UsageSequence> selectSequences(List<UsageSequence> sequences, String selection) {
+		if(selection.equals("*"))
+			return sequences;
+
+		int from = 0, to;
+		try {
+			int dash = selection.indexOf('-');
+			if(dash >= 0) {
+				from = Integer.parseInt(selection.substring(0, dash));
+				to = Integer.parseInt(selection.substring(dash + 1));
+			} else {
+				to = Integer.parseInt(selection) - 1;
+			}
+		}
+		catch(NumberFormatException nfe){
+			throw new IllegalArgumentException("malformed sequences '" + selection + "'");
+		}
+		if(from > to)
+			throw new IllegalArgumentException("sequences '" + selection + "' select nothing");
+		if(from < 0 || to >= sequences.size())
+			throw new IllegalArgumentException("sequences '" + selection + "' are not within the " + sequences.size() + " sequences");
+		return sequences.subList(from, to + 1);
 	}
 
 	private static void printTrackHistory(String caption, TupleSequence<Double> history, boolean scale) {
@@ -16,7 +16,9 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import edu.kit.cloudSimStorage.monitoring.TupleSequence;
 import edu.kit.cloudSimStorage.monitoring.*;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
-import edu.kit.cloudSimStorage.policies.ChooseStorageBlobWithLowestUtilization;
+import edu.kit.cloudSimStorage.policies.PlacementRing;
+import edu.kit.cloudSimStorage.policies.ReadScheduler;
+import edu.kit.cloudSimStorage.policies.WritePipeline;
 import edu.kit.cloudSimStorage.storageModel.ObjectStorageBlob;
 import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
 import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
@@ -26,7 +28,9 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static edu.kit.cloudSimStorage.helper.FileSizeHelper.toHumanReadable;
@@ -44,13 +48,25 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 	protected HashMap<String, CloudRequestState> runningOperations;
 	protected EventTracker<OperationTimeTraceSample> requestTracker;
+	protected RequestTraceWriter requestTraceWriter;
+	protected boolean keepRequestTraces = true;
 
 	protected String rootUrl;
 	protected HashMap<Integer, CdmiRootContainer> userToRootContainerMapping;
 	protected HashMap<Integer, IUsageHistory> userDebts;
 	protected HashMap<String, ObjectStorageServer> servers;
+	/** ring of all installed servers, new containers are placed on it */
+	protected PlacementRing placementRing = new PlacementRing();
+	protected ReadScheduler readScheduler = new ReadScheduler();
+	/** null to complete writes with the classic model, see {@link #setWritePipeline(WritePipeline)} */
+	protected WritePipeline writePipeline;
 	protected IUsageHistory pricingPolicy;
 
+	/** derives the samples of the cloud from servers, users and requests, see {@link #getSamples(String)} */
+	private final MetricGraph metrics = new MetricGraph();
+	/** stamped whenever a server or a user is added */
+	private long topologyVersion = VersionClock.next();
+
 	protected TimeawareResourceLimitation cloudIOLimits;
 	private int timeAwareGarbageCounter;
 
@@ -73,7 +89,8 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 		userDebts = new HashMap<>();
 		this.pricingPolicy = pricingPolicy;
 		this.cloudIOLimits = cloudIO;
-		requestTracker = new EventTracker<>("all cloud request", "all cloud request to " + name);
+		requestTracker = new EventTracker<>("all cloud request", "all cloud request to " + name, true);
+		defineMetrics();
 	}
 
 	/**
@@ -90,6 +107,8 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		logger.fine("Installing server " + server);
 		servers.put(server.getId(), server);
+		placementRing = placementRing.withServer(server);
+		topologyVersion = VersionClock.next();
 		return true;
 	}
 
@@ -100,6 +119,16 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 		//TODO create cdmi_capabilities object
 	}
 
+	/**
+	 * Clouds do not share state with other entities and can process their events in parallel.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isParallelSafe() {
+		return true;
+	}
+
 	@Override
 	public void shutdownEntity() {
 		//TODO do more!
@@ -212,6 +241,7 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		userToRootContainerMapping.put(id, root);
 		userDebts.put(id, pricingPolicy.clone(id));
+		topologyVersion = VersionClock.next();
 	}
 
 	/**
@@ -248,14 +278,14 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 	private void letOperationFail(CloudRequestState entry, String reason) {
 		logger.info("Operation '" + entry.getOperationID() + "' fails, because: " + reason);
 		entry.endsNow();
-		requestTracker.addEvent(entry.getOmmittedTimestamp(), entry);
+		traceRequest(entry);
 		scheduleNow(getId(), CloudRequest.FAIL, entry.getOperationID());
 	}
 
 	private void letOperationSucceed(CloudRequestState entry) {
 		logger.info("operation " + entry.getOperationID() + " succeeds");
 		entry.endsNow();
-		requestTracker.addEvent(entry.getOmmittedTimestamp(), entry);
+		traceRequest(entry);
 		scheduleNow(getId(), CloudRequest.SUCC, entry.getOperationID());
 	}
 
@@ -263,10 +293,21 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 		logger.info("operation " + entry.getOperationID() + " succeeds with a delay of " + delay + "ms and a duration of " + duration + " ms");
 		entry.setDuration(duration);
 		entry.setDelay(delay);
-		requestTracker.addEvent(entry.getOmmittedTimestamp(), entry);
+		traceRequest(entry);
 		schedule(getId(), delay + duration, CloudRequest.SUCC, entry.getOperationID());
 	}
 
+	private void traceRequest(CloudRequestState entry) {
+		requestTracker.addEvent(entry.getOmmittedTimestamp(), entry);
+		if(requestTraceWriter == null)
+			return;
+		try {
+			requestTraceWriter.trace(entry.getOmmittedTimestamp(), entry.getDescriptor(), entry.getTransferredSize(), entry.getDuration(), entry.getDelay(), getName(), entry.getRequest().getUser());
+		} catch (IOException e) {
+			throw new IllegalStateException("could not write trace of operation " + entry.getOperationID(), e);
+		}
+	}
+
 	private void sendAckToSender(CloudRequestState entry) {
 		logger.info("operation " + entry.getOperationID() + " is acked");
 		entry.startsNow();
@@ -292,14 +333,14 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		CdmiRootContainer root = userToRootContainerMapping.get(request.getUser());
 		if(root.getMetadata().contains(CdmiMetadata.MAX_CHILD_COUNT)) {
-			if(root.getChildren().size() >= Integer.parseInt(root.getMetadata().get(CdmiMetadata.MAX_CHILD_COUNT))) {
+			if(root.getChildren().size() >= root.getMetadata().getLong(CdmiMetadata.MAX_CHILD_COUNT)) {
 				letOperationFail(scheduleEntry, "Maximum number of containers reached");
 				return;
 			}
 		}
 
 		if(root.getMetadata().contains(CdmiMetadata.MAX_CONTAINER_SIZE)) {
-			if(root.getSize() >= Integer.parseInt(root.getMetadata().get(CdmiMetadata.MAX_CONTAINER_SIZE))) {
+			if(root.getSize() >= root.getMetadata().getLong(CdmiMetadata.MAX_CONTAINER_SIZE)) {
 				letOperationFail(scheduleEntry, "Maximum used storage of container 'root' reached");
 				return;
 			}
@@ -312,18 +353,17 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		//create metadata: 1) inherit from root, then overwrite with request
 		CdmiMetadata metadata = new CdmiMetadata();
-		metadata.mergeWith(root.getMetadata(), Arrays.asList(CdmiMetadata.doNotInheritFromRootContainerToContainer));
+		metadata.inheritFrom(root.getMetadata(), CdmiMetadata.doNotInheritFromRootContainerToContainer);
 		metadata.mergeWith(request.getMetadata());
-		logger.fine("assigned the metadata " + metadata.toString(true));
+		if (logger.isLoggable(Level.FINE))
+			logger.fine("assigned the metadata " + metadata.toString(true));
 
 		//create container
 		CdmiObjectContainer newContainer = new CdmiObjectContainer(root, request.getContainerName(), metadata);
 		logger.fine("assigned the CDMI ID '" + newContainer.getEntityId() + "'");
 
 		//assign servers to container and hang container into root
-		for (ObjectStorageServer server : getServerRingForNewContainer(newContainer)) {
-			newContainer.addAssociatedServer(server);
-		}
+		newContainer.setPlacementRing(getServerRingForNewContainer(newContainer));
 		root.putChild(newContainer);
 
 		scheduleEntry.setContainer(newContainer);
@@ -350,21 +390,21 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		CdmiObjectContainer container = root.getChild(root.getChildId(request.getContainerName()));
 		if(container.getMetadata().contains(CdmiMetadata.MAX_CHILD_COUNT)) {
-			if(container.getChildren().size() >= Integer.parseInt(container.getMetadata().get(CdmiMetadata.MAX_CHILD_COUNT))) {
+			if(container.getChildren().size() >= container.getMetadata().getLong(CdmiMetadata.MAX_CHILD_COUNT)) {
 				letOperationFail(scheduleEntry, "Maximum number of objects in container '" + container.getEntityName() + "' reached");
 				return;
 			}
 		}
 
 		if(container.getMetadata().contains(CdmiMetadata.MAX_CONTAINER_SIZE)) {
-			if(container.getSize() >= Long.parseLong(container.getMetadata().get(CdmiMetadata.MAX_CONTAINER_SIZE))) {
+			if(container.getSize() >= container.getMetadata().getLong(CdmiMetadata.MAX_CONTAINER_SIZE)) {
 				letOperationFail(scheduleEntry, "Maximum used storage of container '" + container.getEntityName() + "' reached");
 				return;
 			}
 		}
 
 		if(container.getMetadata().contains(CdmiMetadata.MAX_OBJECT_SIZE)) {
-			if(Long.parseLong(request.getMetadata().get(CdmiMetadata.SIZE)) >= Long.parseLong(container.getMetadata().get(CdmiMetadata.MAX_OBJECT_SIZE))) {
+			if(request.getMetadata().getLong(CdmiMetadata.SIZE) >= container.getMetadata().getLong(CdmiMetadata.MAX_OBJECT_SIZE)) {
 				letOperationFail(scheduleEntry, "object too big for container limit is " + container.getMetadata().get(CdmiMetadata.MAX_OBJECT_SIZE) + ", but object is "+ request.getMetadata().get(CdmiMetadata.SIZE) + ".");
 				return;
 			}
@@ -381,13 +421,16 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 			//create the metadata for the object by merging the parent's metadata and overwrite with request's metadata
 			//TODO check capabilities if metadata can be changed. If not -> throw away
 			CdmiMetadata metadata = new CdmiMetadata();
-			metadata.mergeWith(root.getMetadata(), Arrays.asList(CdmiMetadata.doNotInheritFromRootContainerToObject));
-			metadata.mergeWith(container.getMetadata(), Arrays.asList(CdmiMetadata.doNotInheritFromObjectContainer));
+			metadata.inheritFrom(root.getMetadata(), CdmiMetadata.doNotInheritFromRootContainerToObject);
+			metadata.inheritFrom(container.getMetadata(), CdmiMetadata.doNotInheritFromObjectContainer);
 			metadata.mergeWith(request.getMetadata());
 			metadata.set(CdmiMetadata.CREATED_AT, String.valueOf(CloudSim.getSimulationCalendar().getTime().getTime()));
 			metadata.set(CdmiMetadata.LAST_WRITE_ACCESS, String.valueOf(CloudSim.getSimulationCalendar().getTime().getTime()));
 			metadata.set(CdmiMetadata.SIZE, String.valueOf(request.getSize()));
-			logger.fine("assigned metadata " + metadata.toString(true));
+			if (request.getPartSize() > 0 && request.getPartSize() < request.getSize())
+				metadata.set(CdmiMetadata.PART_SIZE, String.valueOf(request.getPartSize()));
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("assigned metadata " + metadata.toString(true));
 
 			dataObject = new CdmiDataObject(request.getSize(), metadata, rootUrl, request.getObjectName());
 			logger.fine("assigned CDMI ID " + dataObject.getEntityId());
@@ -398,25 +441,36 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 			}
 
 			sendAckToSender(scheduleEntry);
-			int succPuts = 0;
-			int targetPuts = Integer.parseInt(container.getMetadata().get(CdmiMetadata.NUM_REPLICA));
+			int targetPuts = container.getMetadata().getInt(CdmiMetadata.NUM_REPLICA);
 
+			//store every part (the object itself, if it is not a multipart upload) as blob on its own locations
 			scheduleEntry.setObject(dataObject);
-			List<StorageBlobLocation> possibleLocations = container.getPossibleBlobToStorageAllocations(dataObject);
-			for (StorageBlobLocation location : possibleLocations) {
-				if (location.getServer().probeDisk(location.getDriveName(), dataObject.getPhysicalSize())) {
-					logger.fine("store blob on " + location);
-					location.getServer().saveBlob(dataObject, location.getDriveName());
-					succPuts++;
-					scheduleEntry.addUsedLocation(location);
-					if (succPuts == targetPuts)
-						break;
-				} else
-					logger.fine("could not store blob on " + location);
+			MultipartLayout layout = MultipartLayout.of(dataObject);
+			List<CdmiDataObject> parts = layout.isMultipart() ? layout.split(dataObject) : Arrays.asList(dataObject);
+			List<List<StorageBlobLocation>> partLocations = new ArrayList<>();
+			for (CdmiDataObject part : parts) {
+				int succPuts = 0;
+				List<StorageBlobLocation> usedLocations = new ArrayList<>();
+				List<StorageBlobLocation> possibleLocations = container.getPossibleBlobToStorageAllocations(part);
+				for (StorageBlobLocation location : possibleLocations) {
+					if (location.getServer().probeDisk(location.getDriveName(), part.getPhysicalSize())) {
+						logger.fine("store blob on " + location);
+						location.getServer().saveBlob(part, location.getDriveName());
+						succPuts++;
+						scheduleEntry.addUsedLocation(location);
+						usedLocations.add(location);
+						if (succPuts == targetPuts)
+							break;
+					} else
+						logger.fine("could not store blob on " + location);
 
+				}
+				partLocations.add(usedLocations);
+				if (succPuts != targetPuts)
+					break;
 			}
 
-			if (succPuts != targetPuts) {
+			if (scheduleEntry.getUsedLocations().size() != targetPuts * parts.size()) {
 				for (StorageBlobLocation location : scheduleEntry.getUsedLocations()) {
 					logger.fine("rollback on " + location);
 					location.getServer().deleteBlob(location);
@@ -427,42 +481,55 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 				container.putChild(dataObject);
 				container.assignPhysicalLocations(dataObject.getEntityId(), scheduleEntry.getUsedLocations());
 
-				//calculate delays
-				int minDelay = (int) (Integer.MAX_VALUE / 2.0 - 1), minDuration = (int) (Integer.MAX_VALUE / 2.0 - 1);
-				int maxDelay = 0, maxDuration = 0;
-
-				for (StorageBlobLocation l : scheduleEntry.getUsedLocations()) {
-					ObjectStorageBlob writeBlob = new ObjectStorageBlob(l, dataObject);
-					int delay = l.getServer().calculateDelay(l.getDriveName());
-					int duration = l.getServer().calculateWriteDuration(writeBlob, delay);
-					assert delay >= 0;
-					assert duration >= 0;
-
-					logger.fine("transfer to " + l.toString() + " will take " + delay + " + " + duration + "ms");
-
-					if (delay + duration < minDelay + minDuration) {
-						minDelay = delay;
-						minDuration = duration;
-					}
-					if (delay + duration > maxDelay + maxDuration) {
-						maxDelay = delay;
-						maxDuration = duration;
+				//calculate delays. The parts are written in parallel, the replicas of one part as well
+				int fastest = 0, slowest = 0; //max. over all parts of the fastest resp. slowest replica of the part
+				List<int[]> partDelays = new ArrayList<>(), partDurations = new ArrayList<>();
+				for (int p = 0; p < parts.size(); p++) {
+					List<StorageBlobLocation> locations = partLocations.get(p);
+					int[] delays = new int[locations.size()], durations = new int[delays.length];
+					int partFastest = Integer.MAX_VALUE, partSlowest = 0;
+
+					for (int i = 0; i < delays.length; i++) {
+						StorageBlobLocation l = locations.get(i);
+						ObjectStorageBlob writeBlob = new ObjectStorageBlob(l, parts.get(p));
+						int delay = l.getServer().calculateDelay(l.getDriveName());
+						int duration = l.getServer().calculateWriteDuration(writeBlob, delay);
+						assert delay >= 0;
+						assert duration >= 0;
+						delays[i] = delay;
+						durations[i] = duration;
+
+						logger.fine("transfer to " + l.toString() + " will take " + delay + " + " + duration + "ms");
+
+						partFastest = Math.min(partFastest, delay + duration);
+						partSlowest = Math.max(partSlowest, delay + duration);
 					}
+					fastest = Math.max(fastest, partFastest);
+					slowest = Math.max(slowest, partSlowest);
+					partDelays.add(delays);
+					partDurations.add(durations);
 				}
 
 				int transferDuration = 0;
 				int transferDelay = calculateNextFreeTransferSlot(0);
 				assert transferDelay >= 0;
-				if (minDelay + minDuration == 0) {
+				if (fastest == 0) {
 					transferDuration = calculateTransferDelay(getId(), requestor, transferDelay, dataObject.getPhysicalSize());
 				} else {
-					transferDuration = calculateTransferDelay(getId(), requestor, transferDelay, dataObject.getPhysicalSize(), (int) (dataObject.getPhysicalSize() / (minDelay + minDuration)));
+					transferDuration = calculateTransferDelay(getId(), requestor, transferDelay, dataObject.getPhysicalSize(), (int) (dataObject.getPhysicalSize() / fastest));
 				}
 				assert transferDuration >= 0;
 				logger.fine("transfer to the cloud will take " + transferDelay + " + " + transferDuration + "ms");
 
-				int totalDuration = Math.min(transferDuration, maxDuration + maxDelay);
-				letOperationSucceed(scheduleEntry, transferDelay, totalDuration);
+				if (writePipeline != null) {
+					int acknowledged = 0;
+					for (int p = 0; p < parts.size(); p++)
+						acknowledged = Math.max(acknowledged, writePipeline.getAcknowledgeTime(transferDelay, transferDuration, partDelays.get(p), partDurations.get(p)));
+					letOperationSucceed(scheduleEntry, transferDelay, acknowledged - transferDelay);
+				} else {
+					int totalDuration = Math.min(transferDuration, slowest);
+					letOperationSucceed(scheduleEntry, transferDelay, totalDuration);
+				}
 
 				//accounting
 				userDebts.get(scheduleEntry.getRequest().getUser()).UploadTraffic(dataObject.getSize());
@@ -475,10 +542,12 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 			dataObject = container.getChild(container.getChildId(request.getObjectName()));
 
 			//TODO check capabilities if metadata can be changed. If not -> throw away
+			//updates are stored in one part
 			CdmiMetadata newMetadata = new CdmiMetadata();
-			newMetadata.mergeWith(dataObject.getMetadata());
+			newMetadata.mergeWith(dataObject.getMetadata(), Arrays.asList(CdmiMetadata.PART_SIZE));
 			newMetadata.mergeWith(request.getMetadata());
-			logger.fine("assigning metadata" + newMetadata.toString(true));
+			if (logger.isLoggable(Level.FINE))
+				logger.fine("assigning metadata" + newMetadata.toString(true));
 
 			//create temporal object
 			CdmiDataObject alteredObject = new CdmiDataObject(request.getSize(), newMetadata, dataObject.getRootURI(), dataObject.getEntityName());
@@ -490,7 +559,7 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 			sendAckToSender(scheduleEntry);
 			int succPuts = 0;
-			int targetPuts = Integer.parseInt(container.getMetadata().get(CdmiMetadata.NUM_REPLICA)); //TODO read from object metadata ?
+			int targetPuts = container.getMetadata().getInt(CdmiMetadata.NUM_REPLICA); //TODO read from object metadata ?
 
 			List<StorageBlobLocation> oldLocations = container.getLocatinsFor(dataObject.getEntityId());
 			List<StorageBlobLocation> possibleLocations = container.getPossibleBlobToStorageAllocations(dataObject);
@@ -508,10 +577,8 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 					succPuts++;
 					scheduleEntry.addUsedLocation(location);
 					if (succPuts == targetPuts) {
-						for (StorageBlobLocation oldLocation : oldLocations) {
-							logger.fine("delete old blob from location " + location);
-							location.getServer().deleteBlob(oldLocation);
-						}
+						logger.fine("delete old blobs from locations " + oldLocations);
+						deleteBlobs(oldLocations);
 						break;
 					}
 				}
@@ -532,11 +599,15 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 				//calculate delays
 				int maxDelay = 0, maxDuration = 0;
 				int minDelay = (int) (Integer.MAX_VALUE / 2.0 - 1), minDuration = (int) (Integer.MAX_VALUE / 2.0 - 1);
+				int[] delays = new int[scheduleEntry.getUsedLocations().size()], durations = new int[delays.length];
 
-				for (StorageBlobLocation l : scheduleEntry.getUsedLocations()) {
+				for (int i = 0; i < delays.length; i++) {
+					StorageBlobLocation l = scheduleEntry.getUsedLocations().get(i);
 					ObjectStorageBlob writeBlob = new ObjectStorageBlob(l, dataObject);
 					int delay = l.getServer().calculateDelay(l.getDriveName());
 					int duration = l.getServer().calculateWriteDuration(writeBlob, delay);
+					delays[i] = delay;
+					durations[i] = duration;
 
 					logger.fine("transfer to " + l.toString() + " will take " + delay + " + " + duration + "ms");
 
@@ -561,7 +632,11 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 				}
 				logger.fine("transfer to the cloud will take " + transferDelay + " + " + transferDuration + "ms");
 
-				letOperationSucceed(scheduleEntry, maxDelay, maxDuration);
+				if (writePipeline != null) {
+					int acknowledged = writePipeline.getAcknowledgeTime(transferDelay, transferDuration, delays, durations);
+					letOperationSucceed(scheduleEntry, transferDelay, acknowledged - transferDelay);
+				} else
+					letOperationSucceed(scheduleEntry, maxDelay, maxDuration);
 
 				//accounting
 				userDebts.get(scheduleEntry.getRequest().getUser()).UploadTraffic(alteredObject.getSize());
@@ -711,25 +786,72 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 
 		sendAckToSender(scheduleEntry);
 
-		//choose blob to read from
-		List<StorageBlobLocation> locations = container.getLocatinsFor(object.getEntityId());
-		Collections.sort(locations, new ChooseStorageBlobWithLowestUtilization());
-		StorageBlobLocation readLocation = locations.get(0);
-		ObjectStorageBlob readBlob = new ObjectStorageBlob(readLocation, object);
-		logger.fine(locations.size() + " blobs to choose from. Chose " + readLocation);
+		//requested range
+		MultipartLayout layout = MultipartLayout.of(object);
+		long rangeStart = request.getRangeStart();
+		long rangeLength = request.getRangeLength() == 0 ? object.getSize() - rangeStart : Math.min(request.getRangeLength(), object.getSize() - rangeStart);
+		if (request.isRanged() && (rangeStart >= object.getSize() || rangeLength <= 0)) {
+			letOperationFail(scheduleEntry, "Range " + rangeStart + "+" + request.getRangeLength() + " is outside of " + object);
+			return;
+		}
+
+		//the blobs of the parts, in order of the parts. Objects that have been uploaded in one part have one blob per replica
+		LinkedHashMap<CdmiId, List<StorageBlobLocation>> blobs = new LinkedHashMap<>();
+		for (StorageBlobLocation location : container.getLocatinsFor(object.getEntityId())) {
+			if (!blobs.containsKey(location.getContentID()))
+				blobs.put(location.getContentID(), new ArrayList<StorageBlobLocation>());
+			blobs.get(location.getContentID()).add(location);
+		}
+		if (blobs.isEmpty()) {
+			letOperationFail(scheduleEntry, "No blob of " + object + " found");
+			return;
+		}
+		assert blobs.size() == layout.getNumParts();
+
+		//read all parts that overlap the range in parallel, each from one replica
+		int delay = Integer.MAX_VALUE, end = 0;
+		long amount = 0;
+		int part = 0;
+		for (List<StorageBlobLocation> locations : blobs.values()) {
+			long partAmount = request.isRanged() ? layout.getOverlap(part, rangeStart, rangeLength) : -1;
+			part++;
+			if (partAmount == 0)
+				continue;
+
+			StorageBlobLocation readLocation = readScheduler.choose(locations);
+			ObjectStorageBlob readBlob = new ObjectStorageBlob(readLocation, object);
+			logger.fine(locations.size() + " blobs to choose from. Chose " + readLocation);
+
+			int partDelay = readLocation.getServer().calculateDelay(readLocation.getDriveName());
+			int partDuration;
+			if (partAmount < 0 && !layout.isMultipart()) {
+				partAmount = object.getPhysicalSize();
+				partDuration = readLocation.getServer().calculateReadDuration(readBlob, partDelay);
+			} else {
+				if (partAmount < 0)
+					partAmount = layout.getSize(part - 1);
+				partDuration = readLocation.getServer().calculateRangeReadDuration(readBlob, partAmount, partDelay);
+			}
+			readScheduler.readScheduled(readLocation, TimeHelper.getInstance().now() + partDelay + partDuration);
+
+			delay = Math.min(delay, partDelay);
+			end = Math.max(end, partDelay + partDuration);
+			amount += partAmount;
+		}
+		int duration = end - delay;
 
-		//calculate delay
-		int delay = readLocation.getServer().calculateDelay(readLocation.getDriveName());
-		int duration = readLocation.getServer().calculateReadDuration(readBlob, delay);
-		calculateTransferDelay(getId(), requestor, delay, object.getPhysicalSize(), (int) (object.getPhysicalSize() / duration));
-		logger.fine("the read will last " + duration + "ms after a delay of " + delay + "ms");
+		//transfer to the client
+		calculateTransferDelay(getId(), requestor, delay, amount, (int) (amount / Math.max(1, duration)));
+		logger.fine("the read of " + amount + " bytes will last " + duration + "ms after a delay of " + delay + "ms");
 
 		//finish off          At the
 		scheduleEntry.setObject(object);
+		if (request.isRanged())
+			scheduleEntry.setTransferredSize(amount);
 		letOperationSucceed(scheduleEntry, delay, duration);
 
 		//accounting
-		userDebts.get(scheduleEntry.getRequest().getUser()).DownloadTraffic(object.getSize());
+		userDebts.get(scheduleEntry.getRequest().getUser()).DownloadTraffic(request.isRanged() ? amount : object.getSize());
 	}
 
 	/**
@@ -755,7 +877,7 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 			rate = (int) Math.min(clientBandwidth, maxRate);
 		}
 
-		return (int) cloudIOLimits.use(TimeHelper.getInstance().now() + delay, amount, rate).getDuration();
+		return (int) cloudIOLimits.reserve(TimeHelper.getInstance().now() + delay, amount, rate);
 	}
 
 	/**
@@ -817,13 +939,24 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 	/**
 	 * Chooses server for a given container.
 	 * <p/>
-	 * Overwrite this method to change the container-to-server-allocation policy.
+	 * Overwrite this method to change the container-to-server-allocation policy. The default ring contains all servers
+	 * that are installed at the time the container is created and is shared by all those containers.
 	 *
 	 * @param container the container to allocate on one ore multiple servers
-	 * @return a list of all servers, this container is allocated on
+	 * @return the ring of all servers, this container is allocated on
 	 */
-	protected List<ObjectStorageServer> getServerRingForNewContainer(CdmiObjectContainer container) {
-		return new ArrayList<>(this.servers.values());
+	protected PlacementRing getServerRingForNewContainer(CdmiObjectContainer container) {
+		return placementRing;
+	}
+
+	/**
+	 * Deletes blobs, each from the server of its own location.
+	 *
+	 * @param locations the locations of the blobs
+	 */
+	static void deleteBlobs(List<StorageBlobLocation> locations) {
+		for (StorageBlobLocation location : locations)
+			location.getServer().deleteBlob(location);
 	}
 
 
@@ -859,41 +992,151 @@ public class StorageCloud extends SimEntity implements TraceableResource, ILogga
 		return builder.toString();
 	}
 
+	/**
+	 * Sets the scheduler that chooses the replica for every read.
+	 *
+	 * @param scheduler the scheduler, used by this cloud only
+	 */
+	public void setReadScheduler(ReadScheduler scheduler) {
+		if (scheduler == null)
+			throw new IllegalArgumentException("scheduler must not be null");
+		readScheduler = scheduler;
+	}
+
+	public ReadScheduler getReadScheduler() {
+		return readScheduler;
+	}
+
+	/**
+	 * Sets the model that decides when a write of several replicas is acknowledged.
+	 * <p/>
+	 * Without a pipeline a new object is acknowledged at the end of the upload or of the slowest replica, whichever comes
+	 * first, and an update at the end of the slowest replica.
+	 *
+	 * @param pipeline the pipeline, null for that classic model
+	 */
+	public void setWritePipeline(WritePipeline pipeline) {
+		writePipeline = pipeline;
+	}
+
+	public WritePipeline getWritePipeline() {
+		return writePipeline;
+	}
+
+	/**
+	 * Writes a trace record of every finished operation to the given writer, as soon as the operation is finished.
+	 *
+	 * @param writer           the writer, can be shared with other clouds. The caller has to close it
+	 * @param keepInMemory false to drop the operations after they have been written. {@link #getOperationTimeTraces()}
+	 *                         is empty then and the request counts have a resolution of one second
+	 */
+	public void traceRequestsTo(RequestTraceWriter writer, boolean keepInMemory) {
+		requestTraceWriter = writer;
+		if(keepRequestTraces && !keepInMemory)
+			requestTracker = new EventTracker<>(requestTracker.eventNames, requestTracker.trackerName, true, false);
+		keepRequestTraces = keepInMemory;
+	}
+
+	/**
+	 * Returns the number of operations that have been started and are not finished yet. Can be called from other threads
+	 * while the simulation is running, the value is approximate then.
+	 *
+	 * @return number of running operations
+	 */
+	public int getNumRunningOperations() {
+		return runningOperations.size();
+	}
+
+	/** @return all finished operations, or an empty list if they are not kept in memory */
 	public List<OperationTimeTraceSample> getOperationTimeTraces() {
+		if(!keepRequestTraces)
+			return new ArrayList<>();
 		return requestTracker.getTraces();
 	}
 
-	@Override
-	public TupleSequence<Double> getSamples(String key) {
-		List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
-		switch (key) {
-			case USED_STORAGE_PHYSICAL_ABS:
-			case AVAILABLE_STORAGE_PHYICAL:
-				for (ObjectStorageServer s : servers.values())
-					sampleStreams.add(s.getSamples(key));
-				return SequenceOperations.sum(sampleStreams);
-			case USED_STORAGE_VIRTUAL_ABS:
-			case AVAILABLE_STORAGE_VIRTUAL:
-				for(CdmiRootContainer c : userToRootContainerMapping.values())
-					sampleStreams.add(c.getSamples(key));
-				return SequenceOperations.sum(sampleStreams);
-			case USED_STORAGE_PERCENTAGE_PHYSICAL:
-				return SequenceOperations.divide(getSamples(USED_STORAGE_PHYSICAL_ABS), getSamples(AVAILABLE_STORAGE_PHYICAL));
-			case USED_STORAGE_PERCENTAGE_VIRTUAL:
-				return SequenceOperations.divide(getSamples(USED_STORAGE_VIRTUAL_ABS), getSamples(AVAILABLE_STORAGE_VIRTUAL));
-			case NUM_REQUESTS:
-				return requestTracker.getSamples(NUM_EVENTS_TOTAL);
-			case NUM_REQUESTS_PER_MINUTE:
-				return requestTracker.getSamples(NUM_EVENTS_PER_MINUTE);
-			case NUM_REQUESTS_PER_SECOND:
-				return requestTracker.getSamples(NUM_EVENTS_PER_SECOND);
-			case TOTAL_EARNINGS:
-				for(int user : userToRootContainerMapping.keySet()) {
-					sampleStreams.add(getUsageFor(user).getSamples(DEBTS));
+	private void defineMetrics() {
+		for (final String key : new String[]{USED_STORAGE_PHYSICAL_ABS, AVAILABLE_STORAGE_PHYICAL}) {
+			metrics.define(key, new MetricGraph.Source() {
+				@Override
+				public long getVersion() {
+					return Math.max(topologyVersion, VersionClock.versionOf(servers.values()));
 				}
-				return SequenceOperations.sum(sampleStreams);
+
+				@Override
+				public TupleSequence<Double> compute() {
+					List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
+					for (ObjectStorageServer s : servers.values())
+						sampleStreams.add(s.getSamples(key));
+					return SequenceOperations.sumOfLevels(sampleStreams);
+				}
+			});
 		}
-		return null;
+		for (final String key : new String[]{USED_STORAGE_VIRTUAL_ABS, AVAILABLE_STORAGE_VIRTUAL}) {
+			metrics.define(key, new MetricGraph.Source() {
+				@Override
+				public long getVersion() {
+					return Math.max(topologyVersion, VersionClock.versionOf(userToRootContainerMapping.values()));
+				}
+
+				@Override
+				public TupleSequence<Double> compute() {
+					List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
+					for (CdmiRootContainer c : userToRootContainerMapping.values())
+						sampleStreams.add(c.getSamples(key));
+					return SequenceOperations.sumOfLevels(sampleStreams);
+				}
+			});
+		}
+		MetricGraph.Derivation divide = new MetricGraph.Derivation() {
+			@Override
+			public TupleSequence<Double> compute(List<TupleSequence<Double>> inputs) {
+				return SequenceOperations.divide(inputs.get(0), inputs.get(1));
+			}
+		};
+		metrics.derive(USED_STORAGE_PERCENTAGE_PHYSICAL, divide, USED_STORAGE_PHYSICAL_ABS, AVAILABLE_STORAGE_PHYICAL);
+		metrics.derive(USED_STORAGE_PERCENTAGE_VIRTUAL, divide, USED_STORAGE_VIRTUAL_ABS, AVAILABLE_STORAGE_VIRTUAL);
+
+		String[][] requestKeys = {{NUM_REQUESTS, NUM_EVENTS_TOTAL}, {NUM_REQUESTS_PER_MINUTE, NUM_EVENTS_PER_MINUTE}, {NUM_REQUESTS_PER_SECOND, NUM_EVENTS_PER_SECOND}};
+		for (final String[] keys : requestKeys) {
+			metrics.define(keys[0], new MetricGraph.Source() {
+				@Override
+				public long getVersion() {
+					return requestTracker.getVersion();
+				}
+
+				@Override
+				public TupleSequence<Double> compute() {
+					return requestTracker.getSamples(keys[1]);
+				}
+			});
+		}
+
+		metrics.define(TOTAL_EARNINGS, new MetricGraph.Source() {
+			@Override
+			public long getVersion() {
+				return Math.max(topologyVersion, VersionClock.versionOf(userDebts.values()));
+			}
+
+			@Override
+			public TupleSequence<Double> compute() {
+				List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
+				for (int user : userToRootContainerMapping.keySet())
+					sampleStreams.add(getUsageFor(user).getSamples(DEBTS));
+				return SequenceOperations.sumOfLevels(sampleStreams);
+			}
+		});
+	}
+
+	/**
+	 * Returns the samples of the cloud. They are computed from the servers, users and requests only if one of them changed
+	 * since the last call.
+	 *
+	 * @param key the key to collect
+	 * @return copy of the samples or null
+	 */
+	@Override
+	public TupleSequence<Double> getSamples(String key) {
+		return metrics.getSamples(key);
 	}
 
 	CdmiCloudCharacteristics CloudCharacteristics() {
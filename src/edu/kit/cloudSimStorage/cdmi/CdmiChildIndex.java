@@ -0,0 +1,130 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the children of a {@link CdmiContainer}. Children are stored by ID, and every child can be reached by any
+ * number of names. Both directions (name -> ID and ID -> names) are kept, so all operations are O(1) in the number of
+ * children.
+ * <p/>
+ * The index is not synchronized.
+ */
+public class CdmiChildIndex<T extends CdmiEntity> {
+	private final HashMap<CdmiId, T> children = new HashMap<>();
+	private final HashMap<String, CdmiId> nameToId = new HashMap<>();
+	private final HashMap<CdmiId, List<String>> idToNames = new HashMap<>();
+	private final Map<CdmiId, T> readOnlyChildren = Collections.unmodifiableMap(children);
+
+	/**
+	 * Adds or replaces the child with the ID of the given child. Names that link to the ID are kept.
+	 *
+	 * @param child the child to store
+	 */
+	public void put(T child) {
+		children.put(child.getEntityId(), child);
+	}
+
+	/**
+	 * Links a name to an ID. If the name linked to another ID before, that link is removed.
+	 *
+	 * @param name name (case-sensitive)
+	 * @param id   the ID the name links to
+	 */
+	public void link(String name, CdmiId id) {
+		CdmiId old = nameToId.put(name, id);
+		if (id.equals(old))
+			return;
+		if (old != null)
+			removeName(old, name);
+		List<String> names = idToNames.get(id);
+		if (names == null) {
+			names = new ArrayList<>(1);
+			idToNames.put(id, names);
+		}
+		names.add(name);
+	}
+
+	/**
+	 * Removes the link of a name to its ID. Does nothing if the name is unknown.
+	 *
+	 * @param name name (case-sensitive)
+	 */
+	public void unlink(String name) {
+		CdmiId id = nameToId.remove(name);
+		if (id != null)
+			removeName(id, name);
+	}
+
+	/**
+	 * Removes a child and all names that link to it.
+	 *
+	 * @param id the ID of the child
+	 * @return the removed child or null, if there was no such child
+	 */
+	public T remove(CdmiId id) {
+		List<String> names = idToNames.remove(id);
+		if (names != null)
+			for (String name : names)
+				nameToId.remove(name);
+		return children.remove(id);
+	}
+
+	private void removeName(CdmiId id, String name) {
+		List<String> names = idToNames.get(id);
+		names.remove(name);
+		if (names.isEmpty())
+			idToNames.remove(id);
+	}
+
+	public T get(CdmiId id) {
+		return children.get(id);
+	}
+
+	/** @return the ID the name links to or null */
+	public CdmiId getId(String name) {
+		return nameToId.get(name);
+	}
+
+	/** @return all names that link to the given ID, never null */
+	public List<String> getNames(CdmiId id) {
+		List<String> names = idToNames.get(id);
+		if (names == null)
+			return Collections.emptyList();
+		return Collections.unmodifiableList(names);
+	}
+
+	public boolean contains(CdmiId id) {
+		return children.containsKey(id);
+	}
+
+	public boolean containsName(String name) {
+		return nameToId.containsKey(name);
+	}
+
+	public int size() {
+		return children.size();
+	}
+
+	public Collection<T> values() {
+		return readOnlyChildren.values();
+	}
+
+	/** @return read-only view of all children by ID */
+	public Map<CdmiId, T> asMap() {
+		return readOnlyChildren;
+	}
+}
@@ -15,30 +15,43 @@ import edu.kit.cloudSimStorage.exceptions.EntityNameException;
 import edu.kit.cloudSimStorage.exceptions.EntityNotFoundException;
 import edu.kit.cloudSimStorage.monitoring.StorageUsageHistory;
 import edu.kit.cloudSimStorage.monitoring.TraceableResource;
+import edu.kit.cloudSimStorage.monitoring.VersionClock;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Instances of this class represent a CMDI container in general. A container stores multiple children, whereas children must be a sub-type of {@link CdmiEntity}.
  * Containers do have meta-data. Sub-types of this container specify which of these metadata are inherited by the children or not.
  * Children can be retrieved via their name or their ID.
  * <p/>
+ * The size and physical size of all children are summed up on put/delete and whenever a child reports a change of its
+ * size, so {@link #getSize()} and {@link #getPhysicalSize()} don't iterate over the children. An entity is accounted by
+ * at most one container.
+ * <p/>
  * @author Tobias Sturm
  * Date: 4/26/13
  * Time: 12:58 PM
  */
 public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity implements TraceableResource {
-	protected Hashtable<CdmiId, T> children;
-	protected Hashtable<String, CdmiId> childrenNameIdMapping;
+	protected CdmiChildIndex<T> children;
 	protected CdmiMetadata metadata;
 
+	/** sum of {@link CdmiEntity#getSize()} of all children */
+	private long size;
+
+	/** sum of {@link CdmiEntity#getPhysicalSize()} of all children */
+	private long childrenPhysicalSize;
+
 	public static final String[] reservedNames = {"cdmi_objectid", "cdmi_domains", "cdmi_capabilities", "cdmi_snapshots", "cdmi_versions"};
 
 	protected StorageUsageHistory virtualStorageHistory;
 
+	/** stamped whenever a child is added or removed */
+	private long childrenVersion = VersionClock.next();
+
 
 	/**
 	 * Creates an entity within the given rootURI and creates a uniqueID ({@link edu.kit.cloudSimStorage.cdmi.CdmiId#generateId(String)}
@@ -57,8 +70,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	}
 
 	protected void init() {
-		childrenNameIdMapping = new Hashtable<>();
-		children = new Hashtable<>();
+		children = new CdmiChildIndex<>();
 		metadata = new CdmiMetadata();
 	}
 
@@ -66,11 +78,15 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	/**
 	 * Returns all children of this container.
 	 *
-	 * @return children of this container
+	 * @return read-only view of the children of this container
 	 */
-	public Hashtable<CdmiId, T> getChildren() {
-		//noinspection unchecked
-		return children;
+	public Map<CdmiId, T> getChildren() {
+		return children.asMap();
+	}
+
+	/** @return version that changes whenever a child is added or removed, see {@link VersionClock} */
+	protected long getChildrenVersion() {
+		return childrenVersion;
 	}
 
 	/**
@@ -80,10 +96,10 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 * @return the child
 	 */
 	public T getChild(CdmiId id) {
-		if (!children.containsKey(id))
+		T child = children.get(id);
+		if (child == null)
 			throw new EntityNotFoundException("Could not find child with id " + id + " in container " + this.getEntityId());
-		//noinspection unchecked
-		return children.get(id);
+		return child;
 	}
 
 	/**
@@ -95,14 +111,15 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 * @return the ID of the child.
 	 */
 	public CdmiId getChildId(String name) {
-		if (!childrenNameIdMapping.containsKey(name))
+		CdmiId id = children.getId(name);
+		if (id == null)
 			throw new EntityNotFoundException("Could not find child  '" + name + "' in container " + this.getEntityId());
-		return childrenNameIdMapping.get(name);
+		return id;
 	}
 
 	public List<String> getChildrenNames() {
 		ArrayList<String> result = new ArrayList<>();
-		for (T e : getChildren().values())
+		for (T e : children.values())
 			result.add(e.getEntityName());
 		return result;
 	}
@@ -116,7 +133,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 * @return true if a child with that name is stored in the container.
 	 */
 	public boolean containsChildWithName(String name) {
-		return childrenNameIdMapping.containsKey(name);
+		return children.containsName(name);
 	}
 
 	/**
@@ -126,7 +143,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 * @return true if a child with that ID is stored in the container.
 	 */
 	public boolean containsChild(CdmiId id) {
-		return children.containsKey(id);
+		return children.contains(id);
 	}
 
 	/**
@@ -142,14 +159,42 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 */
 	public void putChild(T child) {
 		if (child.getEntityName() != null)
-			childrenNameIdMapping.put(child.getEntityName(), child.getEntityId());
+			children.link(child.getEntityName(), child.getEntityId());
 
 		updateLastWriteTimestamp();
-		children.put(child.getEntityId(), child);
+		T old = children.get(child.getEntityId());
+		if (old != child) {
+			if (old != null)
+				releaseChild(old);
+			children.put(child);
+			childrenVersion = VersionClock.next();
+			child.setOwner(this);
+			childSizeChanged(child.getSize(), child.getPhysicalSize());
+		}
+	}
+
+	private void releaseChild(T child) {
+		childrenVersion = VersionClock.next();
+		child.setOwner(null);
+		childSizeChanged(-child.getSize(), -child.getPhysicalSize());
+	}
+
+	/**
+	 * Updates the size counters after a child changed its size and passes the change on to the container of this container.
+	 *
+	 * @param sizeDiff         change of the size
+	 * @param physicalSizeDiff change of the physical size
+	 */
+	void childSizeChanged(long sizeDiff, long physicalSizeDiff) {
+		size += sizeDiff;
+		childrenPhysicalSize += physicalSizeDiff;
+		notifySizeChanged(sizeDiff, physicalSizeDiff);
 	}
 
 	private void updateLastWriteTimestamp() {
+		long oldPhysicalSize = getPhysicalSize();
 		metadata.set(CdmiMetadata.LAST_WRITE_ACCESS, CdmiMetadata.getNow());
+		notifySizeChanged(0, getPhysicalSize() - oldPhysicalSize);
 	}
 
 	/**
@@ -170,7 +215,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 		//remove old name
 		String oldName = children.get(id).getEntityName();
 		if (!oldName.trim().isEmpty())
-			childrenNameIdMapping.remove(oldName);
+			children.unlink(oldName);
 
 		//rename child itself
 		children.get(id).setEntityName(newName);
@@ -179,7 +224,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 		if (!newName.trim().isEmpty()) {
 			if (containsChildWithName(newName))
 				throw new EntityAlreadyExistsException("Could not rename child to '" + newName + "' inside of container " + this.getEntityId());
-			childrenNameIdMapping.put(newName, id);
+			children.link(newName, id);
 		}
 		updateLastWriteTimestamp();
 	}
@@ -196,17 +241,7 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	public void deleteChild(CdmiId id) {
 		if (!containsChild(id))
 			throw new EntityNotFoundException("Could not find child with id " + id + " in container " + this.getEntityId());
-		childrenNameIdMapping.remove(children.get(id).getEntityName());
-		children.remove(id);
-
-		if (!childrenNameIdMapping.containsValue(id)) {  //if there are more links to the objectID
-			for (String name : childrenNameIdMapping.keySet()) {
-				if (childrenNameIdMapping.get(name).equals(id))
-					childrenNameIdMapping.remove(name);
-				if (!childrenNameIdMapping.containsValue(id)) //short-cut if no more link exists
-					break;
-			}
-		}
+		releaseChild(children.remove(id)); //removes all names that link to the ID as well
 
 		updateLastWriteTimestamp();
 	}
@@ -226,36 +261,32 @@ public abstract class CdmiContainer<T extends CdmiEntity> extends CdmiEntity imp
 	 * @param metadata the new metadata of the container
 	 */
 	public void setMetadata(CdmiMetadata metadata) {
+		long oldPhysicalSize = getPhysicalSize();
 		this.metadata = metadata;
+		notifySizeChanged(0, getPhysicalSize() - oldPhysicalSize);
 	}
 
 	public void setAllowedSize(long allowedSize) {
+		long oldPhysicalSize = getPhysicalSize();
 		metadata.set(CdmiMetadata.MAX_OBJECT_SIZE, String.valueOf(allowedSize));
+		notifySizeChanged(0, getPhysicalSize() - oldPhysicalSize);
 		this.virtualStorageHistory.setAvailableStorage(allowedSize);
 	}
 
 	public long getAllowedSize() {
 		if(metadata.contains(CdmiMetadata.MAX_OBJECT_SIZE))
-			return Long.parseLong(metadata.get(CdmiMetadata.MAX_OBJECT_SIZE));
+			return metadata.getLong(CdmiMetadata.MAX_OBJECT_SIZE);
 		return Long.MAX_VALUE;
 	}
 
 	@Override
 	public long getSize() {
-		long sum = 0;
-		for (CdmiEntity child : children.values()) {
-			sum += child.getSize();
-		}
-		return sum;
+		return size;
 	}
 
 	@Override
 	public long getPhysicalSize() {
-		long sum = 0;
-		for (CdmiEntity child : children.values()) {
-			sum += child.getPhysicalSize();
-		}
-		return (long) (sum + metadata.getMetadataSize());
+		return (long) (childrenPhysicalSize + metadata.getMetadataSize());
 	}
 
 	@Override
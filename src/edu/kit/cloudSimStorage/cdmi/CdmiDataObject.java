@@ -70,7 +70,9 @@ public class CdmiDataObject extends CdmiEntity {
 	public void setSize(long size) {
 		if (size < 0)
 			throw new IllegalArgumentException("DataObjects must have size > 0");
+		long diff = size - this.size;
 		this.size = size;
+		notifySizeChanged(diff, diff);
 	}
 
 	/**
@@ -99,7 +101,9 @@ public class CdmiDataObject extends CdmiEntity {
 	public void setMetadata(CdmiMetadata metadata) {
 		if (metadata == null)
 			throw new IllegalArgumentException("DataObjects must have metadata");
+		long oldPhysicalSize = getPhysicalSize();
 		this.metadata = metadata;
+		notifySizeChanged(0, getPhysicalSize() - oldPhysicalSize);
 	}
 
 	@Override
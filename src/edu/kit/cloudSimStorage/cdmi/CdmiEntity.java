@@ -29,6 +29,9 @@ public abstract class CdmiEntity {
 	private CdmiEntity parent;
 	private String rootURI;
 
+	/** the container that currently stores this entity and accounts its size, or null */
+	private CdmiContainer<?> owner;
+
 
 	/**
 	 * Creates an entity within the given rootURI and creates a uniqueID ({@link edu.kit.cloudSimStorage.cdmi.CdmiId#generateId(String)}
@@ -93,6 +96,26 @@ public abstract class CdmiEntity {
 		return parent;
 	}
 
+	void setOwner(CdmiContainer<?> owner) {
+		this.owner = owner;
+	}
+
+	CdmiContainer<?> getOwner() {
+		return owner;
+	}
+
+	/**
+	 * Has to be called by sub-classes after their size or physical size changed, so that the size counters of the
+	 * container that stores this entity stay up to date.
+	 *
+	 * @param sizeDiff         change of {@link #getSize()}
+	 * @param physicalSizeDiff change of {@link #getPhysicalSize()}
+	 */
+	protected void notifySizeChanged(long sizeDiff, long physicalSizeDiff) {
+		if (owner != null && (sizeDiff != 0 || physicalSizeDiff != 0))
+			owner.childSizeChanged(sizeDiff, physicalSizeDiff);
+	}
+
 	/**
 	 * Returns the root URI of the entity.
 	 *
@@ -9,9 +9,8 @@
  */
 package edu.kit.cloudSimStorage.cdmi;
 
-import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -20,7 +19,10 @@ import java.util.Random;
  * IDs are unique within one rootURI. RootURIs are not case-sensitive, but are just treated as Strings in this class (due to laziness):
  * {@code 'http://domain.com' != 'http://domain.com/'}
  * <p/>
- * IDs can be generated. This class ensures, that generated IDs are unique within one rootURI.
+ * IDs can be generated. This class ensures, that generated IDs are unique within one rootURI. Every rootURI draws its IDs
+ * from its own random sequence, which is seeded with the rootURI. The n-th ID of a rootURI is therefore the same in
+ * every run, no matter how the generation of IDs of other rootURIs (e.g. other clouds on other threads) interleaves.
+ * {@link #reset()} forgets all generated IDs and restarts every sequence.
  * IDs can be built from Strings, but these instances are not managed, which means, that collisions with generated IDs are
  * possible.
  * <p/>
@@ -28,6 +30,9 @@ import java.util.Random;
  * <p/>
  * Two IDs are equal, if their string-representation (case-sensitive) are equal.
  * <p/>
+ * IDs with up to {@link CdmiId#MAX_PACKED_LENGTH} characters are stored as a single long (bijective base-36), longer IDs
+ * keep their string. Generated IDs are always packed.
+ * <p/>
  * @author Tobias Sturm
  * Date: 4/26/13
  * Time: 12:51 PM
@@ -36,19 +41,29 @@ public class CdmiId {
 	/** max. number of tries to generate a unique ID within a rootURI */
 	private static final int MAX_TRIES = 1000;
 
-	/** the ID, which indicates that the ID is unknown (-> use name of {@link CdmiEntity}) */
-	public static final CdmiId UNKNOWN = new CdmiId("UNKNOWN");
-
-	/** All used IDs per rootUri */
-	private static Hashtable<String, List<String>> usedIds = new Hashtable<>();
-
 	/** Allowed characters in IDs */
 	private final static String validCharacters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
 
+	/** number of allowed characters = radix of the packed representation */
+	private final static int RADIX = validCharacters.length();
+
+	/** max. length of IDs that can be packed into a long (36^12 + ... + 36 < 2^63) */
+	private final static int MAX_PACKED_LENGTH = 12;
+
 	/** length of IDs to be generated */
 	private final static int ID_LENGTH = 10;
 
-	private String id;
+	/** the ID, which indicates that the ID is unknown (-> use name of {@link CdmiEntity}) */
+	public static final CdmiId UNKNOWN = new CdmiId("UNKNOWN");
+
+	/** used (packed) IDs and random sequence per rootUri */
+	private static Map<String, IdSpace> idSpaces = new HashMap<>();
+
+	/** packed representation of the ID, 0 if the ID is too long to be packed */
+	private final long packed;
+
+	/** string representation for IDs that are too long to be packed, null otherwise */
+	private final String longId;
 
 	/**
 	 * Generate an ID from string.
@@ -62,14 +77,28 @@ public class CdmiId {
 	public CdmiId(String id) {
 		if (id == null || id.trim().isEmpty())
 			throw new IllegalArgumentException("id is empty");
-		for (char c : id.toCharArray())
-			if (!validCharacters.contains(String.valueOf(c)))
-				throw new IllegalArgumentException("id contains illegal character: '" + c + "'");
-		if (UNKNOWN != null && UNKNOWN.toString().equals(id))
+		long value = 0;
+		for (int i = 0; i < id.length(); i++) {
+			int digit = validCharacters.indexOf(id.charAt(i));
+			if (digit < 0)
+				throw new IllegalArgumentException("id contains illegal character: '" + id.charAt(i) + "'");
+			value = value * RADIX + digit + 1;
+		}
+		if (id.length() > MAX_PACKED_LENGTH) {
+			packed = 0;
+			longId = id;
+		} else {
+			packed = value;
+			longId = null;
+		}
+		if (UNKNOWN != null && UNKNOWN.equals(this))
 			throw new IllegalArgumentException("Can't create the UNKNOWN id");
-		this.id = id;
 	}
 
+	private CdmiId(long packed) {
+		this.packed = packed;
+		this.longId = null;
+	}
 
 	/**
 	 * Generates an ID which is unique inside the given rootURI.
@@ -77,35 +106,117 @@ public class CdmiId {
 	 * @param rootURI rootURI (not case-sensitive)
 	 * @return a unique ID
 	 */
-	public static CdmiId generateId(String rootURI) {
-		if (!usedIds.containsKey(rootURI.toLowerCase()))
-			usedIds.put(rootURI.toLowerCase(), new ArrayList<String>());
-		String candidate = generateRandomString();
+	public static synchronized CdmiId generateId(String rootURI) {
+		String key = rootURI.toLowerCase();
+		IdSpace space = idSpaces.get(key);
+		if (space == null) {
+			space = new IdSpace(key);
+			idSpaces.put(key, space);
+		}
+		long candidate = space.generateRandomId();
 		int tries = 0;
-		while (usedIds.get(rootURI.toLowerCase()).contains(candidate)) {
-			candidate = generateRandomString();
+		while (!space.used.add(candidate)) {
+			candidate = space.generateRandomId();
 			if (tries++ > MAX_TRIES)
 				throw new IllegalStateException("Can't find a random ID for rootURI " + rootURI);
 		}
 		return new CdmiId(candidate);
 	}
 
-	private static String generateRandomString() {
-		StringBuilder b = new StringBuilder(ID_LENGTH);
-		Random rnd = new Random();
-		for (int i = 0; i < ID_LENGTH; i++)
-			b.append(validCharacters.charAt(rnd.nextInt(ID_LENGTH)));
-		return b.toString();
+	/**
+	 * Forgets all generated IDs and restarts the random sequences of all rootURIs. Must only be called if no generated ID
+	 * is in use anymore, e.g. before a new simulation is set up.
+	 */
+	public static synchronized void reset() {
+		idSpaces.clear();
 	}
 
 	public String toString() {
-		return id;
+		if (longId != null)
+			return longId;
+		char[] buf = new char[MAX_PACKED_LENGTH];
+		int pos = buf.length;
+		long value = packed;
+		while (value > 0) {
+			value--;
+			buf[--pos] = validCharacters.charAt((int) (value % RADIX));
+			value /= RADIX;
+		}
+		return new String(buf, pos, buf.length - pos);
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
 		if (obj == null || !obj.getClass().equals(this.getClass()))
 			return false;
-		return obj.toString().equals(toString());
+		CdmiId other = (CdmiId) obj;
+		return packed == other.packed && (longId == null ? other.longId == null : longId.equals(other.longId));
+	}
+
+	@Override
+	public int hashCode() {
+		if (longId != null)
+			return longId.hashCode();
+		long h = packed * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/** generated IDs and random sequence of one rootURI */
+	private static class IdSpace {
+		final LongSet used = new LongSet();
+		final Random rnd;
+
+		IdSpace(String rootURI) {
+			rnd = new Random(rootURI.hashCode());
+		}
+
+		long generateRandomId() {
+			long value = 0;
+			for (int i = 0; i < ID_LENGTH; i++)
+				value = value * RADIX + rnd.nextInt(RADIX) + 1;
+			return value;
+		}
+	}
+
+	/**
+	 * Set of positive longs with open addressing (linear probing), used as registry of generated IDs.
+	 * 0 marks an empty slot, which is never a valid packed ID.
+	 */
+	private static class LongSet {
+		private long[] slots = new long[64];
+		private int size;
+
+		/** @return true if the value was not in the set yet */
+		boolean add(long value) {
+			if ((size + 1) * 2 > slots.length)
+				grow();
+			if (!insert(slots, value))
+				return false;
+			size++;
+			return true;
+		}
+
+		private static boolean insert(long[] table, long value) {
+			int mask = table.length - 1;
+			long h = value * 0x9E3779B97F4A7C15L;
+			int i = (int) (h ^ (h >>> 32)) & mask;
+			while (table[i] != 0) {
+				if (table[i] == value)
+					return false;
+				i = (i + 1) & mask;
+			}
+			table[i] = value;
+			return true;
+		}
+
+		private void grow() {
+			long[] bigger = new long[slots.length * 2];
+			for (long v : slots)
+				if (v != 0)
+					insert(bigger, v);
+			slots = bigger;
+		}
 	}
 }
@@ -14,16 +14,35 @@ import org.simpleframework.xml.Default;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementMap;
 import org.simpleframework.xml.Root;
+import org.simpleframework.xml.Transient;
+import org.simpleframework.xml.core.Commit;
+import org.simpleframework.xml.core.Complete;
+import org.simpleframework.xml.core.Persist;
 
 import java.util.*;
 
 /**
+ * Key-value metadata of CDMI entities.
+ * <p/>
+ * Entries can be inherited from the metadata of a parent with {@link #inheritFrom(CdmiMetadata, String[])}. Inheritance is
+ * lazy: the entries of the parent are referenced instead of copied, and the parent copies its own entries before it
+ * changes them the next time (copy-on-write). Inherited entries therefore keep the values they had when they were
+ * inherited, exactly like entries that have been copied with {@link #mergeWith(CdmiMetadata, List)}.
+ * <p/>
+ * The well-known numeric keys, like {@link #SIZE} and {@link #LAST_WRITE_ACCESS}, are stored as numbers beside the
+ * key-value map. They are copied when they are inherited, so writing them never copies a map that is shared with an
+ * inheriting instance (e.g. the timestamp of a container that is updated on every put of a child).
+ *
  * @author Tobias Sturm
  * Date: 4/26/13
  * Time: 1:14 PM
  */
 @Root
 public class CdmiMetadata {
+	/**
+	 * entries that have been set on this instance, except the {@link #typedKeys}. Inherited entries and the typed keys are
+	 * merged into it before serialization.
+	 */
 	@ElementMap
 	protected HashMap<String, String> metadata;
 
@@ -37,6 +56,8 @@ public class CdmiMetadata {
 	public static final String MAX_OBJECT_SIZE = "max_size";
 	public static final String MAX_CONTAINER_SIZE = "max_container_size"; /** in byte */
 	public static final String MAX_CHILD_COUNT = "max_container_items";
+	/** size of the parts of an object that has been uploaded in several parts, in byte. See {@link MultipartLayout} */
+	public static final String PART_SIZE = "part_size";
 	boolean cacheSize = false;
 	long cachedSize = 0;
 
@@ -49,6 +70,29 @@ public class CdmiMetadata {
 	public static final String[] doNotInheritFromRootContainerToObject = {LOCATION, NUM_REPLICA, NUM_VERSIONS, MAX_CONTAINER_SIZE, MAX_CHILD_COUNT};
 	public static final String[] doNotInheritFromRootContainerToContainer = {LOCATION};
 
+	/** keys with numeric values, which are stored in {@link #typedValues} */
+	private static final String[] typedKeys = {SIZE, CREATED_AT, LAST_WRITE_ACCESS, NUM_REPLICA, NUM_VERSIONS, MAX_OBJECT_SIZE, MAX_CONTAINER_SIZE, MAX_CHILD_COUNT, PART_SIZE};
+
+	/** inherited entries, lowest priority first. null if nothing has been inherited */
+	@Transient
+	private Layer[] inherited;
+
+	/** indicates that {@link #metadata} is referenced by another instance and has to be copied before it is changed */
+	@Transient
+	private boolean shared;
+
+	/** values of {@link #typedKeys}, allocated on first use */
+	@Transient
+	private long[] typedValues;
+
+	/** bit i is set, if typedValues[i] is set */
+	@Transient
+	private int typedMask;
+
+	/** bit i is set, if typedValues[i] has been set on this instance and has not been inherited */
+	@Transient
+	private int ownTypedMask;
+
 	public static String getNow() {
 		return String.valueOf(CloudSim.getSimulationCalendar().getTime().getTime());
 	}
@@ -69,29 +113,104 @@ public class CdmiMetadata {
 			return cachedSize;
 
 		int size = 0;
-		for (String key : metadata.keySet())
-			size += key.length() + 1 + metadata.get(key).length() + 1; //key, separator, value, separator
+		for (Map.Entry<String, String> e : getEntries().entrySet())
+			size += e.getKey().length() + 1 + e.getValue().length() + 1; //key, separator, value, separator
 
 		cachedSize = size;
 		cacheSize = true;
 		return size;
 	}
 
+	/**
+	 * Sets an entry. Values of the well-known numeric keys have to be numbers.
+	 *
+	 * @param key   the key of the entry
+	 * @param value the value of the entry
+	 * @throws NumberFormatException if the key is numeric and the value is not a number
+	 */
 	public void set(String key, String value) {
+		int index = typedKeyIndex(key);
+		if (index >= 0) {
+			setTyped(index, Long.parseLong(value));
+			ownTypedMask |= 1 << index;
+			cacheSize = false;
+			return;
+		}
+		beforeWrite();
 		metadata.put(key, value);
-		cacheSize = false;
 	}
 
 	public String get(String key) {
-		if (!metadata.containsKey(key))
+		String value = lookup(key);
+		if (value == null)
+			throw new IllegalArgumentException("No such meta-data '" + key + "'");
+		return value;
+	}
+
+	/**
+	 * Returns the value of an entry as number. The values of the well-known numeric keys are not parsed at all.
+	 *
+	 * @param key the key of the entry
+	 * @return the value of the entry
+	 * @throws IllegalArgumentException if there is no such entry
+	 * @throws NumberFormatException    if the value is not a number
+	 */
+	public long getLong(String key) {
+		int index = typedKeyIndex(key);
+		if (index < 0)
+			return Long.parseLong(get(key));
+		if ((typedMask & (1 << index)) == 0)
 			throw new IllegalArgumentException("No such meta-data '" + key + "'");
-		return metadata.get(key);
+		return typedValues[index];
+	}
+
+	/**
+	 * Returns the value of an entry as int.
+	 *
+	 * @see #getLong(String)
+	 */
+	public int getInt(String key) {
+		long value = getLong(key);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			throw new NumberFormatException("Value of '" + key + "' is out of int range: " + value);
+		return (int) value;
 	}
 
 	public boolean contains(String key) {
-		return metadata.containsKey(key);
+		return lookup(key) != null;
 	}
 
+	/**
+	 * Inherits all entries of the given parent, except the given keys.
+	 * <p/>
+	 * The entries are not copied, but are looked up in the parent with a lower priority than entries set on this
+	 * instance and a higher priority than entries inherited before. Only the values of the well-known numeric keys are
+	 * copied. Later changes of the parent are not visible to this instance. Does nothing, if {@code parent} is {@code null}
+	 *
+	 * @param parent the metadata to inherit from
+	 * @param except keys that are not inherited
+	 */
+	public void inheritFrom(CdmiMetadata parent, String[] except) {
+		assert except != null;
+		if (parent == null)
+			return;
+		int parentLayers = parent.inherited == null ? 0 : parent.inherited.length;
+		int ownLayers = inherited == null ? 0 : inherited.length;
+		Layer[] layers = new Layer[ownLayers + parentLayers + 1];
+		if (ownLayers > 0)
+			System.arraycopy(inherited, 0, layers, 0, ownLayers);
+		for (int i = 0; i < parentLayers; i++)
+			layers[ownLayers + i] = parent.inherited[i].except(except);
+		layers[layers.length - 1] = new Layer(parent.metadata, new String[][]{except});
+		parent.shared = true;
+
+		for (int i = 0; i < typedKeys.length; i++)
+			if ((parent.typedMask & (1 << i)) != 0 && (ownTypedMask & (1 << i)) == 0 && !Arrays.asList(except).contains(typedKeys[i]))
+				setTyped(i, parent.typedValues[i]);
+
+		inherited = layers;
+		cacheSize = false;
+	}
 
 	/**
 	 * Takes all metadata-entries from the given metadata field and puts them into this instance of {@code CdmiMetadata}
@@ -119,13 +238,199 @@ public class CdmiMetadata {
 		cacheSize = false;
 		if (metadata == null)
 			return;
-		for (String key : metadata.getKeys())
-			if (!except.contains(key))
-				this.metadata.put(key, metadata.get(key));
+		for (Map.Entry<String, String> e : metadata.getEntries().entrySet())
+			if (!except.contains(e.getKey()))
+				set(e.getKey(), e.getValue());
 	}
 
 	protected List<String> getKeys() {
-		return new ArrayList<>(metadata.keySet());
+		return new ArrayList<>(getEntries().keySet());
+	}
+
+	/** Merges the inherited entries and the typed keys into the own entries, so that all entries get serialized. */
+	@Persist
+	protected void flatten() {
+		metadata = new HashMap<>(getEntries());
+		inherited = null;
+		shared = false;
+	}
+
+	/** Moves the typed keys out of the deserialized entries. */
+	@Commit
+	protected void extractTypedEntries() {
+		for (String key : typedKeys) {
+			String value = metadata.remove(key);
+			if (value != null)
+				set(key, value);
+		}
+	}
+
+	/** Removes the typed keys from the own entries again, after they have been serialized. */
+	@Complete
+	protected void removeTypedEntries() {
+		for (String key : typedKeys)
+			metadata.remove(key);
+	}
+
+	/** @return read-only view of all entries of this instance, including inherited entries. */
+	private Map<String, String> getEntries() {
+		return new AbstractMap<String, String>() {
+			@Override
+			public String get(Object key) {
+				return key instanceof String ? lookup((String) key) : null;
+			}
+
+			@Override
+			public boolean containsKey(Object key) {
+				return get(key) != null;
+			}
+
+			@Override
+			public Set<Entry<String, String>> entrySet() {
+				return new AbstractSet<Entry<String, String>>() {
+					@Override
+					public Iterator<Entry<String, String>> iterator() {
+						return new EntryIterator();
+					}
+
+					@Override
+					public int size() {
+						int size = 0;
+						for (Iterator<Entry<String, String>> it = iterator(); it.hasNext(); it.next())
+							size++;
+						return size;
+					}
+				};
+			}
+		};
+	}
+
+	private String lookup(String key) {
+		int index = typedKeyIndex(key);
+		if (index >= 0)
+			return (typedMask & (1 << index)) == 0 ? null : String.valueOf(typedValues[index]);
+		String value = metadata.get(key);
+		if (value != null || inherited == null)
+			return value;
+		for (int i = inherited.length - 1; i >= 0; i--) {
+			Layer layer = inherited[i];
+			value = layer.entries.get(key);
+			if (value != null && !layer.excludes(key))
+				return value;
+		}
+		return null;
+	}
+
+	private void beforeWrite() {
+		if (shared) {
+			metadata = new HashMap<>(metadata);
+			shared = false;
+		}
+		cacheSize = false;
+	}
+
+	private void setTyped(int index, long value) {
+		if (typedValues == null)
+			typedValues = new long[typedKeys.length];
+		typedValues[index] = value;
+		typedMask |= 1 << index;
+	}
+
+	private static int typedKeyIndex(String key) {
+		for (int i = 0; i < typedKeys.length; i++)
+			if (typedKeys[i].equals(key))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Iterates the typed entries, the own entries and the inherited entries, from the highest priority to the lowest.
+	 * Entries that are excluded or hidden by an entry with a higher priority are skipped.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+		/** index of the own entries. Smaller values are indices of {@link #inherited} */
+		private final int ownLayer = inherited == null ? 0 : inherited.length;
+		private int typedIndex = 0;
+		private int layer = ownLayer;
+		private Iterator<Map.Entry<String, String>> entries = metadata.entrySet().iterator();
+		private Map.Entry<String, String> next;
+
+		@Override
+		public boolean hasNext() {
+			if (next == null)
+				next = advance();
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<String, String> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Map.Entry<String, String> result = next;
+			next = null;
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("metadata entries are read-only");
+		}
+
+		private Map.Entry<String, String> advance() {
+			for (; typedIndex < typedKeys.length; typedIndex++) {
+				if ((typedMask & (1 << typedIndex)) != 0) {
+					int index = typedIndex++;
+					return new AbstractMap.SimpleImmutableEntry<>(typedKeys[index], String.valueOf(typedValues[index]));
+				}
+			}
+			while (true) {
+				while (entries.hasNext()) {
+					Map.Entry<String, String> e = entries.next();
+					if (isVisible(e.getKey()))
+						return new AbstractMap.SimpleImmutableEntry<>(e);
+				}
+				if (--layer < 0)
+					return null;
+				entries = inherited[layer].entries.entrySet().iterator();
+			}
+		}
+
+		private boolean isVisible(String key) {
+			if (layer == ownLayer)
+				return true;
+			if (inherited[layer].excludes(key) || metadata.containsKey(key))
+				return false;
+			for (int i = layer + 1; i < ownLayer; i++)
+				if (inherited[i].entries.containsKey(key) && !inherited[i].excludes(key))
+					return false;
+			return true;
+		}
+	}
+
+	/** Entries of a parent that are referenced by an inheriting instance, together with the keys that are not inherited. */
+	private static class Layer {
+		final Map<String, String> entries;
+		final String[][] except;
+
+		Layer(Map<String, String> entries, String[][] except) {
+			this.entries = entries;
+			this.except = except;
+		}
+
+		/** @return a layer with the same entries that additionally excludes the given keys */
+		Layer except(String[] keys) {
+			String[][] all = Arrays.copyOf(except, except.length + 1);
+			all[except.length] = keys;
+			return new Layer(entries, all);
+		}
+
+		boolean excludes(String key) {
+			for (String[] keys : except)
+				for (String k : keys)
+					if (k.equals(key))
+						return true;
+			return false;
+		}
 	}
 
 	@Override
@@ -142,12 +447,12 @@ public class CdmiMetadata {
 		}
 
 		StringBuilder b = new StringBuilder("{").append(newLine);
-		for (String key : metadata.keySet()) {
-			b.append(indent).append(key).append(": ");
-			if (key == CREATED_AT || key == LAST_WRITE_ACCESS)
-				b.append(new Date(Long.valueOf(metadata.get(key))).toString());
+		for (Map.Entry<String, String> e : getEntries().entrySet()) {
+			b.append(indent).append(e.getKey()).append(": ");
+			if (e.getKey() == CREATED_AT || e.getKey() == LAST_WRITE_ACCESS)
+				b.append(new Date(Long.valueOf(e.getValue())).toString());
 			else
-				b.append(metadata.get(key));
+				b.append(e.getValue());
 			b.append(",").append(newLine);
 		}
 		b.deleteCharAt(b.length() - newLine.length() - 1);
@@ -159,6 +464,6 @@ public class CdmiMetadata {
 	public boolean equals(Object obj) {
 		if (obj == null || obj.getClass() != getClass())
 			return false;
-		return obj.toString().equals(toString());
+		return ((CdmiMetadata) obj).getEntries().equals(getEntries());
 	}
 }
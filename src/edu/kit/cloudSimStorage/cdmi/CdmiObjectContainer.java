@@ -12,15 +12,15 @@ package edu.kit.cloudSimStorage.cdmi;
 import edu.kit.cloudSimStorage.helper.FileSizeHelper;
 import edu.kit.cloudSimStorage.monitoring.TraceableResourceAliasing;
 import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import edu.kit.cloudSimStorage.monitoring.Versioned;
 import edu.kit.cloudSimStorage.monitoring.StorageUsageHistory;
-import edu.kit.cloudSimStorage.policies.DefaultObjectToServerAllocation;
-import edu.kit.cloudSimStorage.storageModel.DiskProbeType;
+import edu.kit.cloudSimStorage.policies.PlacementRing;
+import edu.kit.cloudSimStorage.storageModel.BlobLocationIndex;
 import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
 import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,16 +34,19 @@ import java.util.List;
  * @author Tobias Sturm
  *         created at 4/29/13, 2:08 PM
  */
-public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
+public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> implements Versioned {
 
 	protected String name;
 
-	/** List of all storedObjects (aka. storage objects) in this container and where they are stored */
-	protected HashMap<CdmiId, List<StorageBlobLocation>> physicalFileLocations;
+	/** All storedObjects (aka. storage objects) in this container and where they are stored */
+	protected BlobLocationIndex physicalFileLocations;
 
 	/** A list of all servers, this container can store storedObjects on. The key is the SimEntity ID of the server */
 	protected HashMap<String, ObjectStorageServer> associatedServers;
 
+	/** places the objects on the drives of the associated servers */
+	protected PlacementRing placementRing = new PlacementRing();
+
 	TraceableResourceAliasing trackableSubResources;
 	protected StorageUsageHistory physicalStorageHistory;
 
@@ -72,7 +75,7 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 		this.name = name;
 		this.setEntityName(name);
 		this.setMetadata(metadata);
-		physicalFileLocations = new HashMap<>();
+		physicalFileLocations = new BlobLocationIndex();
 		associatedServers = new HashMap<>();
 
 		virtualStorageHistory = new StorageUsageHistory(getRootURI() + "/" + getEntityName(), FileSizeHelper.Magnitude.BYTE);
@@ -92,6 +95,20 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 	public void addAssociatedServer(ObjectStorageServer server) {
 		associatedServers.put(server.getId(), server);
 		physicalStorageHistory.addAvailableStorageDiff(server.getTotalCapacity());
+		placementRing = placementRing.withServer(server);
+	}
+
+	/**
+	 * Associates all servers of a placement ring with this container and places objects with that ring from now on.
+	 * <p/>
+	 * Rings are immutable and can be shared by several containers, so this is cheaper than adding the servers one by one.
+	 *
+	 * @param ring the ring
+	 */
+	public void setPlacementRing(PlacementRing ring) {
+		placementRing = ring;
+		for (ObjectStorageServer server : ring.getServers())
+			addAssociatedServer(server);
 	}
 
 	/**
@@ -106,10 +123,11 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 	 * @return false, if there are some objects stored on the server (that are inside this container)
 	 */
 	public boolean removeAssociatedServer(ObjectStorageServer server) {
-		if (!getFilesOnServer(server).isEmpty())
+		if (physicalFileLocations.hasBlobsOnServer(server))
 			return false;
 		associatedServers.remove(server.getId());
 		physicalStorageHistory.addAvailableStorageDiff(server.getTotalCapacity() * (-1));
+		placementRing = placementRing.withoutServer(server);
 		return true;
 	}
 
@@ -117,51 +135,71 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 	public void putChild(CdmiDataObject child) {
 		super.putChild(child);
 
-		int numLocations = getLocatinsFor(child.getEntityId()).size();
-
 		virtualStorageHistory.addUsedStorageDiff(child.getSize());
-		physicalStorageHistory.addUsedStorageDiff(child.getPhysicalSize() * numLocations);
+		physicalStorageHistory.addUsedStorageDiff(getStoredPhysicalSize(child));
 	}
 
 
 	@Override
 	public void deleteChild(CdmiId id) {
-		CdmiEntity child = getChild(id);
-		int numLocations = getLocatinsFor(id).size();
+		CdmiDataObject child = getChild(id);
+		long physicalSize = getStoredPhysicalSize(child);
 
 		super.deleteChild(id);
+		physicalFileLocations.remove(id);
 
 		virtualStorageHistory.addUsedStorageDiff(child.getSize() * -1);
-		physicalStorageHistory.addUsedStorageDiff(numLocations * child.getPhysicalSize() * -1);
+		physicalStorageHistory.addUsedStorageDiff(physicalSize * -1);
+	}
+
+	/**
+	 * Sums up the physical size of all blobs of an object. Every location holds either the whole object or one of its
+	 * parts ({@link MultipartLayout}). The blobs of the parts are stored in order of the parts and the first part carries
+	 * the metadata, see {@link MultipartLayout#split(CdmiDataObject)}.
+	 *
+	 * @param object the object
+	 * @return physical size of all replicas of the object
+	 */
+	private long getStoredPhysicalSize(CdmiDataObject object) {
+		List<StorageBlobLocation> locations = physicalFileLocations.get(object.getEntityId());
+		MultipartLayout layout = MultipartLayout.of(object);
+		if (!layout.isMultipart())
+			return locations.size() * object.getPhysicalSize();
+
+		long metadataSize = object.getPhysicalSize() - object.getSize();
+		long result = 0;
+		int part = -1;
+		CdmiId lastBlob = null;
+		for (StorageBlobLocation location : locations) {
+			if (!location.getContentID().equals(lastBlob)) {
+				lastBlob = location.getContentID();
+				part++;
+			}
+			result += layout.getSize(part) + (part == 0 ? metadataSize : 0);
+		}
+		return result;
 	}
 
 	/**
 	 * Creates possible allocations for a new {@link CdmiDataObject}.
 	 * <p/>
-	 * This method creates different disk probe request for every associated server, that this container is scheduled on
-	 * The {@link edu.kit.cloudSimStorage.storageModel.StorageBlobLocation}s are sorted by best match to worst match.
+	 * The locations are taken from the {@link PlacementRing} of this container: one location per replica
+	 * ({@link CdmiMetadata#NUM_REPLICA}), on different servers if possible. Only drives that have space left for the
+	 * object are returned. Drives that hold a blob of the object already are skipped, blobs of other parts of the object
+	 * ({@link MultipartLayout}) don't matter.
 	 * <p/>
 	 * Overwrite this method to change the policy. these conditions have to be met:
 	 * - One file can only be stored exactly once on a disc.
 	 *
 	 * @param obj the object to allocate
-	 * @return a list of all locations where the object can be stored
+	 * @return the locations where the object should be stored, less than the number of replicas if there is not enough space
 	 */
 	public List<StorageBlobLocation> getPossibleBlobToStorageAllocations(CdmiDataObject obj) {
-		List<StorageBlobLocation> result = new ArrayList<>();
-		DefaultObjectToServerAllocation policy = new DefaultObjectToServerAllocation(obj.getEntityId(), physicalFileLocations);
-
-		List<ObjectStorageServer> servers = new ArrayList<>(associatedServers.values());
-		Collections.sort(servers, policy);
-
-		for (ObjectStorageServer s : servers) {
-			List<String> usedHardDisks = DefaultObjectToServerAllocation.getUsedHarddrivesOfFileOnServer(s, obj.getEntityId(), physicalFileLocations);
-			List<String> availableDisks = s.probeDisk(DiskProbeType.NOT, usedHardDisks, obj.getPhysicalSize());
-			for (String disk : availableDisks)
-				result.add(new StorageBlobLocation(obj.getEntityId(), s, disk));
-		}
-
-		return result;
+		List<StorageBlobLocation> exclude = physicalFileLocations.get(obj.getEntityId());
+		for (Iterator<StorageBlobLocation> it = exclude.iterator(); it.hasNext(); )
+			if (!it.next().getContentID().equals(obj.getEntityId()))
+				it.remove();
+		return placementRing.getLocations(obj.getEntityId(), getMetadata().getInt(CdmiMetadata.NUM_REPLICA), obj.getPhysicalSize(), exclude);
 	}
 
 	/**
@@ -181,15 +219,12 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 	 * @return all blobs that are on that server and in this container
 	 */
 	public List<StorageBlobLocation> getFilesOnServer(ObjectStorageServer server) {
-		ArrayList<StorageBlobLocation> result = new ArrayList<>();
-		for (CdmiId o : physicalFileLocations.keySet()) {
-			for (StorageBlobLocation location : physicalFileLocations.get(o)) {
-				if (location.getServer().equals(server))
-					result.add(location);
-			}
-		}
+		return physicalFileLocations.getLocationsOnServer(server);
+	}
 
-		return result;
+	/** @return the locations of all objects in this container */
+	public BlobLocationIndex getPhysicalFileLocations() {
+		return physicalFileLocations;
 	}
 
 
@@ -217,9 +252,11 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 		}
 	}
 
+	/**
+	 * @param objectID ID of the object
+	 * @return copy of the locations of the object, empty if it is not in this container
+	 */
 	public List<StorageBlobLocation> getLocatinsFor(CdmiId objectID) {
-		if (!physicalFileLocations.containsKey(objectID))
-			return new ArrayList<>();
 		return physicalFileLocations.get(objectID);
 	}
 
@@ -232,4 +269,9 @@ public class CdmiObjectContainer extends CdmiContainer<CdmiDataObject> {
 	public TupleSequence<Double> getSamples(String key) {
 		return trackableSubResources.getSamples(key);
 	}
+
+	@Override
+	public long getVersion() {
+		return trackableSubResources.getVersion();
+	}
 }
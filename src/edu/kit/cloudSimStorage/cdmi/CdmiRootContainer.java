@@ -11,9 +11,12 @@ package edu.kit.cloudSimStorage.cdmi;
 
 import edu.kit.cloudSimStorage.helper.FileSizeHelper;
 import edu.kit.cloudSimStorage.exceptions.EntityNameException;
+import edu.kit.cloudSimStorage.monitoring.MetricGraph;
 import edu.kit.cloudSimStorage.monitoring.TraceableResource;
 import edu.kit.cloudSimStorage.monitoring.TupleSequence;
 import edu.kit.cloudSimStorage.monitoring.StorageUsageHistory;
+import edu.kit.cloudSimStorage.monitoring.VersionClock;
+import edu.kit.cloudSimStorage.monitoring.Versioned;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
 
 import java.util.ArrayList;
@@ -26,9 +29,10 @@ import java.util.List;
  * Date: 4/26/13
  * Time: 1:07 PM
  */
-public class CdmiRootContainer extends CdmiContainer<CdmiObjectContainer> {
+public class CdmiRootContainer extends CdmiContainer<CdmiObjectContainer> implements Versioned {
 	protected HashMap<CdmiId, CdmiObjectContainer> objectContainerMapping;
 	protected int user;
+	private final MetricGraph metrics = new MetricGraph();
 
 	/**
 	 * Creates an entity within the given rootURI and creates a uniqueID ({@link edu.kit.cloudSimStorage.cdmi.CdmiId#generateId(String)}
@@ -40,6 +44,19 @@ public class CdmiRootContainer extends CdmiContainer<CdmiObjectContainer> {
 		objectContainerMapping = new HashMap<>();
 		virtualStorageHistory = new StorageUsageHistory("virtual storage of " + rootURI + " " + user, FileSizeHelper.Magnitude.BYTE);
 		virtualStorageHistory.setAvailableStorage(Long.MAX_VALUE);
+		for (final String key : new String[]{AVAILABLE_STORAGE_PHYICAL, USED_STORAGE_PHYSICAL_ABS, USED_STORAGE_VIRTUAL_ABS, AVAILABLE_STORAGE_VIRTUAL}) {
+			metrics.define(key, new MetricGraph.Source() {
+				@Override
+				public long getVersion() {
+					return CdmiRootContainer.this.getVersion();
+				}
+
+				@Override
+				public TupleSequence<Double> compute() {
+					return computeSamples(key);
+				}
+			});
+		}
 	}
 
 	@Override
@@ -79,20 +96,29 @@ public class CdmiRootContainer extends CdmiContainer<CdmiObjectContainer> {
 
 	@Override
 	public TupleSequence<Double> getSamples(String key) {
+		return metrics.getSamples(key);
+	}
+
+	@Override
+	public long getVersion() {
+		return Math.max(Math.max(getChildrenVersion(), virtualStorageHistory.getVersion()), VersionClock.versionOf(getChildren().values()));
+	}
+
+	private TupleSequence<Double> computeSamples(String key) {
+		//the samples of every child are computed once per key
 		List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
+		for (TraceableResource c : getChildren().values()) {
+			TupleSequence<Double> samples = c.getSamples(key);
+			if (samples != null)
+				sampleStreams.add(samples);
+		}
 		switch (key) {
 			case AVAILABLE_STORAGE_PHYICAL:
 			case USED_STORAGE_PHYSICAL_ABS:
 			case USED_STORAGE_VIRTUAL_ABS:
-				for(TraceableResource c : getChildren().values())
-                    if(c.getSamples(key) != null)
-					    sampleStreams.add(c.getSamples(key));
-				return SequenceOperations.sum(sampleStreams);
+				return SequenceOperations.sumOfLevels(sampleStreams);
 			case AVAILABLE_STORAGE_VIRTUAL:
-				for(TraceableResource c : getChildren().values())
-                    if(c.getSamples(key) != null)
-					    sampleStreams.add(c.getSamples(key));
-				sampleStreams.add(SequenceOperations.sum(sampleStreams));
+				sampleStreams.add(SequenceOperations.sumOfLevels(sampleStreams));
 				sampleStreams.add(virtualStorageHistory.getSamples(AVAILABLE_STORAGE));
 				return SequenceOperations.min(sampleStreams);
 		}
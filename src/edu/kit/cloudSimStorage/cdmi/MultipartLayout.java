@@ -0,0 +1,111 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes how an object is split into parts: all parts have the same size, except the last one, which can be smaller.
+ * <p/>
+ * Every part is stored as its own blob, so the parts of one object can be placed on different drives and servers and
+ * can be written and read in parallel. The part size of an object is kept in its metadata ({@link CdmiMetadata#PART_SIZE}),
+ * objects without that entry consist of exactly one part.
+ */
+public class MultipartLayout {
+	private final long size;
+	private final long partSize;
+	private final int numParts;
+
+	/**
+	 * @param size     size of the object in byte
+	 * @param partSize size of the parts in byte, 0 or at least the size of the object for a single part
+	 */
+	public MultipartLayout(long size, long partSize) {
+		if (size < 0)
+			throw new IllegalArgumentException("size must not be negative, but was " + size);
+		if (partSize < 0)
+			throw new IllegalArgumentException("part size must not be negative, but was " + partSize);
+		this.size = size;
+		this.partSize = partSize == 0 || partSize >= size ? Math.max(size, 1) : partSize;
+		long parts = (size + this.partSize - 1) / this.partSize;
+		if (parts > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("too many parts: " + parts);
+		this.numParts = (int) Math.max(1, parts);
+	}
+
+	/**
+	 * @param object the object
+	 * @return layout of the object, as given by its metadata
+	 */
+	public static MultipartLayout of(CdmiDataObject object) {
+		CdmiMetadata metadata = object.getMetadata();
+		return new MultipartLayout(object.getSize(), metadata.contains(CdmiMetadata.PART_SIZE) ? metadata.getLong(CdmiMetadata.PART_SIZE) : 0);
+	}
+
+	public int getNumParts() {
+		return numParts;
+	}
+
+	public boolean isMultipart() {
+		return numParts > 1;
+	}
+
+	/**
+	 * @param part index of the part
+	 * @return offset of the first byte of the part
+	 */
+	public long getOffset(int part) {
+		checkPart(part);
+		return part * partSize;
+	}
+
+	/**
+	 * @param part index of the part
+	 * @return size of the part in byte
+	 */
+	public long getSize(int part) {
+		checkPart(part);
+		return Math.min(size, (part + 1) * partSize) - part * partSize;
+	}
+
+	/**
+	 * @param part   index of the part
+	 * @param start  first byte of the range
+	 * @param length length of the range
+	 * @return number of bytes of the part that are inside of the range
+	 */
+	public long getOverlap(int part, long start, long length) {
+		long from = Math.max(getOffset(part), start);
+		long to = Math.min(getOffset(part) + getSize(part), start + length);
+		return Math.max(0, to - from);
+	}
+
+	/**
+	 * Creates the data of the parts, which are stored as blobs.
+	 * <p/>
+	 * The first part carries the metadata of the object, so that the parts need the same physical space as the object.
+	 * Every part gets an ID of its own.
+	 *
+	 * @param object the object to split
+	 * @return one data object per part, in order
+	 */
+	public List<CdmiDataObject> split(CdmiDataObject object) {
+		List<CdmiDataObject> parts = new ArrayList<>(numParts);
+		for (int i = 0; i < numParts; i++)
+			parts.add(new CdmiDataObject(getSize(i), i == 0 ? object.getMetadata() : new CdmiMetadata(), object.getRootURI(), object.getEntityName() + "#" + i));
+		return parts;
+	}
+
+	private void checkPart(int part) {
+		if (part < 0 || part >= numParts)
+			throw new IllegalArgumentException("no part " + part + ", the object has " + numParts + " parts");
+	}
+}
@@ -102,7 +102,7 @@ public class StorageBroker extends SimEntity implements ILoggable, TraceableReso
 		waitingForOperation = "";
 		waitingForDiscovery = false;
 
-		cloudRequestTracker = new EventTracker<>("broker request", "broker request tracker");
+		cloudRequestTracker = new EventTracker<>("broker request", "broker request tracker", true);
 		failedRequestsTracker = new EventTracker<>("failed request", "broker failed request tracker");
 		ackRequestTracker = new EventTracker<>("acked request", "broker ack request tracker");
 		succRequestTracker = new EventTracker<>("succeeded request", "broker succ request tracker");
@@ -129,6 +129,17 @@ public class StorageBroker extends SimEntity implements ILoggable, TraceableReso
 
 	}
 
+	/**
+	 * Brokers are only changed by the {@link StorageMetaBroker}, which is not parallel safe and therefore runs
+	 * before all brokers.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isParallelSafe() {
+		return true;
+	}
+
 	/**
 	 * Starts a new request, starts the trace timer and adds it to the list of running request
 	 *
@@ -187,16 +198,19 @@ public class StorageBroker extends SimEntity implements ILoggable, TraceableReso
 				cloudReq = new PutContainerRequest(req.containerName, req.getMetadata(), getId());
 				break;
 			case UserRequest.PUT_OBJECT:
-				cloudReq = new PutObjectRequest(req.getContainerName(), req.getObjectName(), req.getMetadata(), getId());
+				cloudReq = new PutObjectRequest(req.getContainerName(), req.getObjectName(), req.getMetadata(), req.getPartSize(), getId());
 				break;
 			case UserRequest.GET_CONTAINER:
 				cloudReq = new GetContainerRequest(req.rootUrl, req.getContainerName(), getId());
 				break;
 			case UserRequest.GET_OBJECT:
+				GetObjectRequest getObjectRequest;
 				if (req.getObjectID().isEmpty() || req.getObjectID().equals(CdmiId.UNKNOWN.toString()))
-					cloudReq = new GetObjectRequest(req.rootUrl, req.getContainerName(), req.getObjectName(), getId());
+					getObjectRequest = new GetObjectRequest(req.rootUrl, req.getContainerName(), req.getObjectName(), getId());
 				else
-					cloudReq = new GetObjectRequest(req.rootUrl, req.getObjectID(), getId());
+					getObjectRequest = new GetObjectRequest(req.rootUrl, req.getObjectID(), getId());
+				getObjectRequest.setRange(req.getRangeStart(), req.getRangeLength());
+				cloudReq = getObjectRequest;
 				break;
 			case UserMetaRequest.DISCOVER_CLOUD:
 				cloudReq = new CloudDiscoverRequest(getId());
@@ -323,6 +337,16 @@ public class StorageBroker extends SimEntity implements ILoggable, TraceableReso
 		return trackableSubResources.getAvailableTrackingKeys();
 	}
 
+	/**
+	 * Returns the number of requests that have been sent to the cloud and are not answered yet. Can be called from other
+	 * threads while the simulation is running, the value is approximate then.
+	 *
+	 * @return number of running requests
+	 */
+	public int getNumRunningRequests() {
+		return runningRequests.size();
+	}
+
 	/**
 	 * Returns a list of all {@link CloudRequest}, that have been sent
 	 * @return all cloud request
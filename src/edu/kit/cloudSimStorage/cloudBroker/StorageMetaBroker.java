@@ -24,6 +24,7 @@ import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -76,6 +77,11 @@ public class StorageMetaBroker extends SimEntity implements TraceableResource {
 	}
 
 
+	/** @return the brokers of all clouds, read-only */
+	public List<StorageBroker> getBrokers() {
+		return Collections.unmodifiableList(availableBrokers);
+	}
+
 	public void addNewUsageSequence(UsageSequence seq) {
 		DiscoveryState dp = new DiscoveryState(seq, getId());
 		waitingDiscoveries.add(dp);
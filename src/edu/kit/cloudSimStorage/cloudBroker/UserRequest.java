@@ -39,6 +39,12 @@ public class UserRequest {
 	protected int opCode;
 	@Attribute(required = false)
 	protected long size; //byte
+	@Attribute(required = false)
+	protected long partSize; //byte, 0 = single part
+	@Attribute(required = false)
+	protected long rangeStart; //byte
+	@Attribute(required = false)
+	protected long rangeLength; //byte, 0 = to the end
 
 	public static final int offset = 0;
 	public static final int PUT_OBJECT = offset;
@@ -84,6 +90,17 @@ public class UserRequest {
 		return request;
 	}
 
+	/**
+	 * Uploads an object in parts of the given size, which are stored and transferred in parallel.
+	 *
+	 * @param partSize size of the parts in byte
+	 */
+	public static UserRequest putObjectMultipart(String container, String objectName, long size, long partSize) {
+		UserRequest request = putObject(container, objectName, size);
+		request.partSize = partSize;
+		return request;
+	}
+
 	public static UserRequest getObject(String containerName, String objectName) {
 		UserRequest request = new UserRequest();
 		request.objectName = objectName;
@@ -99,6 +116,19 @@ public class UserRequest {
 		return request;
 	}
 
+	/**
+	 * Downloads only a range of an object.
+	 *
+	 * @param start  first byte of the range
+	 * @param length number of bytes, 0 for everything from the first byte to the end of the object
+	 */
+	public static UserRequest getObjectRange(String containerName, String objectName, long start, long length) {
+		UserRequest request = getObject(containerName, objectName);
+		request.rangeStart = start;
+		request.rangeLength = length;
+		return request;
+	}
+
 	public static UserRequest getContainer(String containerName) {
 		UserRequest request = new UserRequest();
 		request.containerName = containerName;
@@ -196,6 +226,18 @@ public class UserRequest {
 		return size;
 	}
 
+	public long getPartSize() {
+		return partSize;
+	}
+
+	public long getRangeStart() {
+		return rangeStart;
+	}
+
+	public long getRangeLength() {
+		return rangeLength;
+	}
+
 	public boolean isBlockingCall() {
 		return blockingCall;
 	}
@@ -59,6 +59,14 @@ public class CloudRequestState<T extends CloudRequest> extends OperationTimeTrac
 		return new CloudResponse<>(request);
 	}
 
+	/**
+	 * The number of bytes that are transferred by the operation
+	 * @return size of the request
+	 */
+	public long getTransferredSize() {
+		return request.getSize();
+	}
+
 	/**
 	 * Returns the operation id that is associated with this request / response
 	 * @return
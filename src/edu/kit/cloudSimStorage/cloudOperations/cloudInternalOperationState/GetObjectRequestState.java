@@ -20,6 +20,8 @@ import edu.kit.cloudSimStorage.cloudOperations.response.GetObjectResponse;
  * @author Tobias Sturm, 6/5/13 5:37 PM */
 public class GetObjectRequestState extends CloudRequestState<GetObjectRequest> {
 	private CdmiDataObject object;
+	/** number of bytes that have been read, -1 for the whole object */
+	private long transferredSize = -1;
 
 	public GetObjectRequestState(GetObjectRequest request, int requestor) {
 		super(request, requestor);
@@ -30,6 +32,26 @@ public class GetObjectRequestState extends CloudRequestState<GetObjectRequest> {
 		this.object = object;
 	}
 
+	/**
+	 * Sets the number of bytes that have been read, if only a range of the object has been requested
+	 *
+	 * @param transferredSize size in byte
+	 */
+	public void setTransferredSize(long transferredSize) {
+		this.transferredSize = transferredSize;
+	}
+
+	/**
+	 * The physical size of the requested object, or the size of the range that has been read
+	 * @return size of the object or 0 if there is no object
+	 */
+	@Override
+	public long getTransferredSize() {
+		if (transferredSize >= 0)
+			return transferredSize;
+		return object != null ? object.getPhysicalSize() : 0;
+	}
+
 	@Override
 	public CloudResponse generateResponse() {
 		return new GetObjectResponse(getRequest(), object);
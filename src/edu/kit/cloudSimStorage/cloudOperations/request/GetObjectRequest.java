@@ -33,6 +33,8 @@ public class GetObjectRequest extends CloudRequest {
 	CdmiId requestedID;
 	String requestedName;
 	String requestedContainer;
+	long rangeStart;
+	long rangeLength;
 
 	public GetObjectRequest(String rootUrl, String containerName, String objectName, int user) {
 		super(CdmiOperationVerbs.GET, rootUrl + containerName + objectName, user, 0, GET);
@@ -48,8 +50,34 @@ public class GetObjectRequest extends CloudRequest {
 		requestedID = new CdmiId(objectID);
 	}
 
+	/**
+	 * Requests only a range of the object (ranged GET).
+	 *
+	 * @param start  first byte of the range
+	 * @param length number of bytes, 0 for everything from the first byte to the end of the object
+	 */
+	public void setRange(long start, long length) {
+		if (start < 0 || length < 0)
+			throw new IllegalArgumentException("range must not be negative, but was " + start + "+" + length);
+		rangeStart = start;
+		rangeLength = length;
+	}
+
+	public long getRangeStart() {
+		return rangeStart;
+	}
+
+	/** @return length of the requested range, 0 if everything from {@link #getRangeStart()} to the end is requested */
+	public long getRangeLength() {
+		return rangeLength;
+	}
+
+	public boolean isRanged() {
+		return rangeStart > 0 || rangeLength > 0;
+	}
+
 	@Override
 	public String toString() {
-		return requestString + "(GET Object by user " + user + ")";
+		return requestString + (isRanged() ? " [" + rangeStart + "+" + rangeLength + "]" : "") + "(GET Object by user " + user + ")";
 	}
 }
@@ -24,12 +24,25 @@ public class PutObjectRequest extends CloudRequest {
 	protected String containerName;
 	protected String objectName;
 	protected CdmiMetadata metadata;
+	protected long partSize;
 
 	public PutObjectRequest(String containerName, String objectName, CdmiMetadata metadata, int user) {
-		super(CdmiOperationVerbs.PUT, "/" + containerName + "/" + objectName, user, Long.valueOf(metadata.get(CdmiMetadata.SIZE)), PUT);
+		this(containerName, objectName, metadata, 0, user);
+	}
+
+	/**
+	 * Creates a multipart upload. The parts are stored as blobs of their own and are transferred in parallel.
+	 *
+	 * @param partSize size of the parts in byte, 0 to upload the object in one part
+	 */
+	public PutObjectRequest(String containerName, String objectName, CdmiMetadata metadata, long partSize, int user) {
+		super(CdmiOperationVerbs.PUT, "/" + containerName + "/" + objectName, user, metadata.getLong(CdmiMetadata.SIZE), PUT);
+		if (partSize < 0)
+			throw new IllegalArgumentException("part size must not be negative, but was " + partSize);
 		this.containerName = containerName;
 		this.objectName = objectName;
 		this.metadata = metadata;
+		this.partSize = partSize;
 	}
 
 	public String getContainerName() {
@@ -44,6 +57,11 @@ public class PutObjectRequest extends CloudRequest {
 		return metadata;
 	}
 
+	/** @return size of the parts in byte, 0 if the object is uploaded in one part */
+	public long getPartSize() {
+		return partSize;
+	}
+
 	@Override
 	public String toString() {
 		return super.getRequestString() + " (PUT object by user " + super.getUser() + ")";
@@ -45,7 +45,7 @@ public class GenericDrive extends ObjectStorageDrive {
 	@Override
 	public IObjectStorageDrive clone(ObjectStorageServer location, String name) {
 		GenericDrive result = new GenericDrive(rootUrl, location,name);
-		result.init(capacity, writeRate,readRate,writeLatency,readLatency,ioLimitation);
+		result.init(capacity, writeRate,readRate,writeLatency,readLatency,ioLimitation.clone());
 		return result;
 	}
 }
@@ -32,6 +32,8 @@ public class StorageCloudFactory {
 
 	/**
 	 * Creates a {@link edu.kit.cloudSimStorage.StorageCloud instance from a model}
+	 *
+	 * The model is not changed, so it can be used to create clouds for multiple simulations.
 	 * @param model existing cloud model
 	 * @return deep copy of the model
 	 */
@@ -41,10 +43,10 @@ public class StorageCloudFactory {
 		assert model.pricingPolicy != null;
 		assert model.servers != null && model.servers.size() > 0;
 
-		StorageCloud cloud = new StorageCloud(model.name, model.characteristics, model.location, model.rootUrl, model.pricingPolicy, model.cloudIOLimits);
+		StorageCloud cloud = new StorageCloud(model.name, model.characteristics.copy(), model.location, model.rootUrl, model.pricingPolicy, model.cloudIOLimits.clone());
 
 		for(ObjectStorageServerModel server : model.servers) {
-			ObjectStorageServer currentServer = new ObjectStorageServer(model.rootUrl, server.name, server.ioLimitations);
+			ObjectStorageServer currentServer = new ObjectStorageServer(model.rootUrl, server.name, server.ioLimitations.clone());
 			for(ObjectStorageDiskModel disk : server.disks) {
 				currentServer.installHarddrive(disk.drive.clone(currentServer, disk.name));
 			}
@@ -17,7 +17,13 @@ import java.util.Date;
 /** @author Tobias Sturm, 6/23/13 2:51 PM */
 public class TimeHelper {
 
-	private static SimpleDateFormat defaultDateFormat = new SimpleDateFormat("hh:mm:ss:S");
+	/** SimpleDateFormat is not thread-safe, every thread (e.g. report threads) gets its own */
+	private static final ThreadLocal<SimpleDateFormat> defaultDateFormat = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("hh:mm:ss:S");
+		}
+	};
 	protected static TimeHelper instance = new TimeHelper();
 
 	public static TimeHelper getInstance() {
@@ -25,7 +31,7 @@ public class TimeHelper {
 	}
 
 	public static String timeToString(long timestamp) {
-		return timeToString(timestamp, defaultDateFormat);
+		return timeToString(timestamp, defaultDateFormat.get());
 	}
 
 	public static String timeToString(long timestamp, SimpleDateFormat format) {
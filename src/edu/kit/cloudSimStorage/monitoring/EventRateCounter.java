@@ -0,0 +1,150 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts events in buckets of one second, without remembering the events themselves.
+ * <p/>
+ * Buckets are aligned to timestamp 0, bucket i contains all events in [i * 1000, (i + 1) * 1000). Only seconds in which
+ * at least one event occurred are stored, so the memory needed is bound by the number of events and by the simulated
+ * time. Coarser rates (per minute, ...) are derived from the seconds.
+ */
+public class EventRateCounter {
+	/** size of a bucket in ms */
+	public static final long RESOLUTION = 1000;
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** indices of the non-empty buckets, sorted */
+	private long[] buckets;
+	/** number of events per bucket */
+	private int[] counts;
+	private int size;
+	private long total;
+
+	public EventRateCounter() {
+		buckets = new long[INITIAL_CAPACITY];
+		counts = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Counts an event. Events can be added in any order, adding an event to the latest bucket is O(1).
+	 *
+	 * @param timestamp time of the event
+	 */
+	public void add(long timestamp) {
+		long bucket = bucketOf(timestamp, RESOLUTION);
+		total++;
+		if (size > 0 && buckets[size - 1] == bucket) {
+			counts[size - 1]++;
+			return;
+		}
+
+		int index = size;
+		if (size > 0 && buckets[size - 1] > bucket) {
+			index = Arrays.binarySearch(buckets, 0, size, bucket);
+			if (index >= 0) {
+				counts[index]++;
+				return;
+			}
+			index = -index - 1;
+		}
+
+		if (size == buckets.length) {
+			buckets = Arrays.copyOf(buckets, size * 2);
+			counts = Arrays.copyOf(counts, size * 2);
+		}
+		System.arraycopy(buckets, index, buckets, index + 1, size - index);
+		System.arraycopy(counts, index, counts, index + 1, size - index);
+		buckets[index] = bucket;
+		counts[index] = 1;
+		size++;
+	}
+
+	/** @return number of events counted so far */
+	public long getTotal() {
+		return total;
+	}
+
+	/** @return number of events that occurred until the end of each non-empty second, at the start of that second */
+	public TupleSequence<Double> getTotalNumOfEvents() {
+		TupleSequence<Double> result = new TupleSequence<>();
+		result.ensureCapacity(size);
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += counts[i];
+			result.add(buckets[i] * RESOLUTION, sum);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the events per time slot.
+	 *
+	 * @param timeDistance size of the time slots, has to be a multiple of {@link #RESOLUTION}
+	 * @return one sample per time slot from the first to the last event, with the number of events in that slot
+	 */
+	public TupleSequence<Double> getEventsPerTime(long timeDistance) {
+		return getEventsPerTime(timeDistance, Arrays.asList(this));
+	}
+
+	/**
+	 * Counts the events of several counters per time slot, as if all events had been added to one counter.
+	 *
+	 * @param timeDistance size of the time slots, has to be a multiple of {@link #RESOLUTION}
+	 * @param counters     counters to combine
+	 * @return one sample per time slot from the first to the last event, with the number of events in that slot
+	 */
+	public static TupleSequence<Double> getEventsPerTime(long timeDistance, List<EventRateCounter> counters) {
+		if (timeDistance <= 0 || timeDistance % RESOLUTION != 0)
+			throw new IllegalArgumentException("time distance has to be a positive multiple of " + RESOLUTION + " ms, but was " + timeDistance);
+		long bucketsPerSlot = timeDistance / RESOLUTION;
+
+		TupleSequence<Double> result = new TupleSequence<>();
+		int[] positions = new int[counters.size()];
+		long currentSlot = 0;
+		double currentCount = 0;
+		boolean started = false;
+		while (true) {
+			//next bucket of all counters
+			int next = -1;
+			for (int i = 0; i < counters.size(); i++) {
+				EventRateCounter c = counters.get(i);
+				if (positions[i] < c.size && (next == -1 || c.buckets[positions[i]] < counters.get(next).buckets[positions[next]]))
+					next = i;
+			}
+			if (next == -1)
+				break;
+
+			EventRateCounter c = counters.get(next);
+			long slot = bucketOf(c.buckets[positions[next]], bucketsPerSlot);
+			if (!started) {
+				currentSlot = slot;
+				started = true;
+			}
+			while (currentSlot < slot) {
+				result.add(currentSlot * timeDistance, currentCount);
+				currentSlot++;
+				currentCount = 0;
+			}
+			currentCount += c.counts[positions[next]++];
+		}
+		if (started)
+			result.add(currentSlot * timeDistance, currentCount);
+		return result;
+	}
+
+	/** floor(value / size), also for negative values */
+	private static long bucketOf(long value, long size) {
+		return value >= 0 ? value / size : -((-value + size - 1) / size);
+	}
+}
@@ -13,20 +13,90 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleFilter;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 
-/** @author Tobias Sturm, 6/23/13 6:19 PM */
-public class EventTracker<T> implements TraceableResource {
-	protected TupleSequence<T> events;
+/**
+ * Records events and provides the number of events and the rate of events over time.
+ * <p/>
+ * By default every event is kept and the rates are computed from the events when they are requested. In online mode
+ * (see {@link #setAggregateOnline(boolean)}) the tracker only maintains an {@link EventRateCounter}, rates have a
+ * resolution of one second and the events are only kept if that is requested at construction.
+ *
+ * @author Tobias Sturm, 6/23/13 6:19 PM
+ */
+public class EventTracker<T> implements TraceableResource, Versioned {
+	private static boolean aggregateOnline = false;
+
+	/** timestamps of all events, sorted. The value of every sample is 1. Null if events are not retained */
+	protected SampleSeries occurrences;
+
+	/** the events, in the same order as {@link #occurrences}. Null if events are not retained */
+	protected ArrayList<T> events;
+
+	/** counts the events in online mode, null otherwise */
+	protected EventRateCounter counter;
+
+	private long version = VersionClock.next();
 
 	public final String eventNames;
 	public final String trackerName;
 
+	/**
+	 * Creates a tracker that keeps its events only if it does not aggregate online.
+	 *
+	 * @param eventNames  name of the events
+	 * @param trackerName name of the tracker
+	 */
 	public EventTracker(String eventNames, String trackerName) {
+		this(eventNames, trackerName, false);
+	}
+
+	/**
+	 * @param eventNames   name of the events
+	 * @param trackerName  name of the tracker
+	 * @param retainEvents keep the events in online mode as well, so that {@link #getTraces()} is available
+	 */
+	public EventTracker(String eventNames, String trackerName, boolean retainEvents) {
+		this(eventNames, trackerName, aggregateOnline, retainEvents);
+	}
+
+	/**
+	 * Creates a tracker that aggregates online or not, independent from {@link #setAggregateOnline(boolean)}.
+	 *
+	 * @param eventNames   name of the events
+	 * @param trackerName  name of the tracker
+	 * @param online       count events in buckets of one second
+	 * @param retainEvents keep the events in online mode as well. Ignored if not online
+	 */
+	public EventTracker(String eventNames, String trackerName, boolean online, boolean retainEvents) {
 		this.eventNames = eventNames;
 		this.trackerName = trackerName;
-		events = new TupleSequence<>();
+		if (online)
+			counter = new EventRateCounter();
+		if (!online || retainEvents) {
+			occurrences = new SampleSeries();
+			events = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Sets whether trackers that are created from now on aggregate their events online.
+	 *
+	 * @param online true to count events in buckets of one second instead of keeping all of them
+	 */
+	public static void setAggregateOnline(boolean online) {
+		aggregateOnline = online;
+	}
+
+	public static boolean isAggregateOnline() {
+		return aggregateOnline;
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
 	}
 
 	public void addEvent(T e) {
@@ -34,12 +104,46 @@ public class EventTracker<T> implements TraceableResource {
 	}
 
 	public void addEvent(long timestamp, T e) {
-		events.add(new Tuple<>(timestamp, e));
+		version = VersionClock.next();
+		if (counter != null)
+			counter.add(timestamp);
+		if (events != null) {
+			int index = occurrences.add(timestamp, 1.0);
+			if (index == events.size())
+				events.add(e);
+			else
+				events.add(index, e);
+		}
 	}
 
-
 	public TupleSequence<Double> getEventsPerTime(long timeDistance) {
-		return SequenceOperations.samplesPerTime(timeDistance, forgetType(events));
+		if (counter != null)
+			return counter.getEventsPerTime(timeDistance);
+		return SequenceOperations.samplesPerTime(timeDistance, occurrences);
+	}
+
+	/**
+	 * Counts the events of several trackers per time, as if all events had been tracked by one tracker.
+	 *
+	 * @param timeDistance size of the time slots
+	 * @param trackers     trackers, either all or none of them aggregate online
+	 * @return list of samples, each in given distance, contains the number of events that occurred inside that time slot
+	 */
+	public static TupleSequence<Double> getEventsPerTime(long timeDistance, List<? extends EventTracker<?>> trackers) {
+		List<EventRateCounter> counters = new ArrayList<>();
+		List<TupleSequence<Double>> totals = new ArrayList<>();
+		for (EventTracker<?> t : trackers) {
+			if (t.counter != null)
+				counters.add(t.counter);
+			else
+				totals.add(t.getTotalNumOfEvents());
+		}
+		if (!counters.isEmpty() && !totals.isEmpty())
+			throw new IllegalArgumentException("can't combine trackers that aggregate online with trackers that don't");
+
+		if (!counters.isEmpty())
+			return EventRateCounter.getEventsPerTime(timeDistance, counters);
+		return SequenceOperations.samplesPerTime(timeDistance, SequenceOperations.flatten(totals));
 	}
 
 	public TupleSequence<Double> forgetType(TupleSequence<T> in) {
@@ -51,7 +155,9 @@ public class EventTracker<T> implements TraceableResource {
 	}
 
 	public TupleSequence<Double> getTotalNumOfEvents() {
-		return SequenceOperations.getTotalNumOfEvents(events);
+		if (counter != null)
+			return counter.getTotalNumOfEvents();
+		return SequenceOperations.getTotalNumOfEvents(occurrences);
 	}
 
 	public TupleSequence<Double> getSamples() {
@@ -60,7 +166,6 @@ public class EventTracker<T> implements TraceableResource {
 
 	@Override
 	public TupleSequence<Double> getSamples(String key) {
-		Collections.sort(events);
 		switch (key) {
 			case TraceableResource.NUM_EVENTS_TOTAL:
 				return getTotalNumOfEvents();
@@ -79,7 +184,8 @@ public class EventTracker<T> implements TraceableResource {
 	}
 
 	public List<T> getTraces() {
-		return stripTimestamps(events);
+		checkEventsRetained();
+		return new ArrayList<>(events);
 	}
 
 	private List<T> stripTimestamps(TupleSequence<T> in) {
@@ -90,6 +196,15 @@ public class EventTracker<T> implements TraceableResource {
 	}
 
 	public List<T> getTracesWhere(SampleFilter<T> filter) {
-		return stripTimestamps(filter.apply(events));
+		checkEventsRetained();
+		TupleSequence<T> all = new TupleSequence<>();
+		for (int i = 0; i < events.size(); i++)
+			all.add(occurrences.getTimestamp(i), events.get(i));
+		return stripTimestamps(filter.apply(all));
+	}
+
+	private void checkEventsRetained() {
+		if (events == null)
+			throw new IllegalStateException("tracker '" + trackerName + "' aggregates online and does not keep its events");
 	}
 }
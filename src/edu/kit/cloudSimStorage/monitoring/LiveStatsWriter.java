@@ -0,0 +1,182 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import edu.kit.cloudSimStorage.StorageCloud;
+import edu.kit.cloudSimStorage.cloudBroker.StorageBroker;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the state of a running simulation periodically to a file, so long simulations can be watched while they run.
+ * <p/>
+ * Every line is a tab separated snapshot of the simulated clock, the processed events (in total and per wall clock
+ * second since the last snapshot), the sizes of the future and the deferred event queue, the heap usage, the running
+ * operations of every cloud and the running requests of every broker. Snapshots are taken by a background thread, which
+ * only reads counters that the simulation maintains anyway, so the simulation is not slowed down. The values are read
+ * without synchronization and might be slightly outdated. If reading them fails, the snapshot is skipped and reported on
+ * stderr, later snapshots are still taken.
+ * <p/>
+ * Usage: add clouds and brokers, {@link #start()} before the simulation and {@link #close()} after it.
+ */
+public class LiveStatsWriter implements Closeable {
+	private static final String HEADER = "wall clock (ms)\tsimulated clock\tevents\tevents per second\tfuture events\tdeferred events\tused heap (bytes)\tmax heap (bytes)";
+
+	private final File file;
+	private final long interval;
+	private final List<StorageCloud> clouds = new ArrayList<>();
+	private final List<StorageBroker> brokers = new ArrayList<>();
+
+	private BufferedWriter writer;
+	private ScheduledExecutorService executor;
+	private IOException failure;
+
+	private long startTime, lastTime, lastEvents;
+
+	/**
+	 * @param file     target file, will be truncated
+	 * @param interval wall clock time between two snapshots in ms
+	 */
+	public LiveStatsWriter(File file, long interval) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("interval must be positive, but was " + interval);
+		this.file = file;
+		this.interval = interval;
+	}
+
+	public void addCloud(StorageCloud cloud) {
+		if (writer != null)
+			throw new IllegalStateException("clouds have to be added before the writer is started");
+		clouds.add(cloud);
+	}
+
+	public void addBroker(StorageBroker broker) {
+		if (writer != null)
+			throw new IllegalStateException("brokers have to be added before the writer is started");
+		brokers.add(broker);
+	}
+
+	/**
+	 * Writes the header and starts taking snapshots on a background thread.
+	 *
+	 * @throws IOException if the file can't be opened
+	 */
+	public synchronized void start() throws IOException {
+		if (writer != null)
+			throw new IllegalStateException("writer has already been started");
+		writer = new BufferedWriter(new FileWriter(file));
+		StringBuilder header = new StringBuilder(HEADER);
+		for (StorageCloud cloud : clouds)
+			header.append("\trunning operations ").append(cloud.getName());
+		for (StorageBroker broker : brokers)
+			header.append("\trunning requests ").append(broker.getName());
+		writer.write(header.append('\n').toString());
+		writer.flush();
+
+		startTime = lastTime = System.currentTimeMillis();
+		lastEvents = CloudSim.getNumProcessedEvents();
+		executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "live stats " + file.getName());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				//an exception would cancel all further snapshots without a message
+				try {
+					writeSnapshot();
+				} catch (RuntimeException e) {
+					System.err.println("Skipped live stats snapshot for '" + file.getPath() + "': " + e);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void writeSnapshot() {
+		if (failure != null || writer == null)
+			return;
+		try {
+			writer.write(snapshot());
+			writer.flush();
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * Takes a snapshot.
+	 *
+	 * @return the snapshot as line of the file
+	 */
+	synchronized String snapshot() {
+		long now = System.currentTimeMillis();
+		long events = CloudSim.getNumProcessedEvents();
+		double eventsPerSecond = now > lastTime ? (events - lastEvents) * 1000.0 / (now - lastTime) : 0;
+		lastTime = now;
+		lastEvents = events;
+
+		Runtime runtime = Runtime.getRuntime();
+		StringBuilder line = new StringBuilder();
+		line.append(now - startTime).append('\t')
+				.append(CloudSim.clock()).append('\t')
+				.append(events).append('\t')
+				.append(Math.round(eventsPerSecond)).append('\t')
+				.append(CloudSim.getFutureQueueSize()).append('\t')
+				.append(CloudSim.getDeferredQueueSize()).append('\t')
+				.append(runtime.totalMemory() - runtime.freeMemory()).append('\t')
+				.append(runtime.maxMemory());
+		for (StorageCloud cloud : clouds)
+			line.append('\t').append(cloud.getNumRunningOperations());
+		for (StorageBroker broker : brokers)
+			line.append('\t').append(broker.getNumRunningRequests());
+		return line.append('\n').toString();
+	}
+
+	/**
+	 * Stops the background thread, writes a last snapshot and closes the file.
+	 *
+	 * @throws IOException if a snapshot could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (executor != null) {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(interval, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (this) {
+			if (writer == null)
+				return;
+			writeSnapshot();
+			writer.close();
+			writer = null;
+			if (failure != null)
+				throw failure;
+		}
+	}
+}
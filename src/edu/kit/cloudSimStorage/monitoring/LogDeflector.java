@@ -14,7 +14,9 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.*;
 
 import static edu.kit.cloudSimStorage.helper.TimeHelper.timeToString;
@@ -23,6 +25,7 @@ import static edu.kit.cloudSimStorage.helper.TimeHelper.timeToString;
 public class LogDeflector {
 	Logger master = Logger.getGlobal();
 	private List<Logger> knownLogger;
+	private Map<Logger, List<Handler>> addedHandlers;
 	File rootDir;
 	private Level level;
 
@@ -31,13 +34,14 @@ public class LogDeflector {
 		level = Level.ALL;
 		this.rootDir = rootDir;
 		knownLogger = new ArrayList<>();
+		addedHandlers = new HashMap<>();
 		knownLogger.add(master);
 
 		Logger.getAnonymousLogger().setParent(master);
 
 		Handler masterHandler = new ConsoleHandler();
 		masterHandler.setFormatter(new FileFormater());
-		master.addHandler(masterHandler);
+		addHandler(master, masterHandler);
 
 		logToFile(master);
 	}
@@ -68,12 +72,33 @@ public class LogDeflector {
 			FileHandler handler = new FileHandler(fileName.getAbsolutePath());
 			handler.setLevel(level);
 			handler.setFormatter(new FileFormater());
-			objectOfInterest.addHandler(handler);
+			addHandler(objectOfInterest, handler);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	private void addHandler(Logger logger, Handler handler) {
+		logger.addHandler(handler);
+		if(!addedHandlers.containsKey(logger))
+			addedHandlers.put(logger, new ArrayList<Handler>());
+		addedHandlers.get(logger).add(handler);
+	}
+
+	/**
+	 * Removes and closes all handlers that have been added by this instance. Loggers are global, so this is required
+	 * before another simulation logs into a different directory.
+	 */
+	public void close() {
+		for(Map.Entry<Logger, List<Handler>> entry : addedHandlers.entrySet()) {
+			for(Handler h : entry.getValue()) {
+				entry.getKey().removeHandler(h);
+				h.close();
+			}
+		}
+		addedHandlers.clear();
+	}
+
 	public void setLevel(Level level) {
 		this.level = level;
 		for(Logger l : knownLogger)
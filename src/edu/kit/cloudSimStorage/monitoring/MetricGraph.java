@@ -0,0 +1,187 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the samples of keys that are derived from other keys, and remembers every result until one of its inputs
+ * changed.
+ * <p/>
+ * A metric is either a source, that reads samples from resources and tells their version, or a derived metric, that
+ * combines the samples of other metrics of the graph. A derived metric declares its inputs when it is defined, the inputs
+ * have to be defined before, so the graph can't contain cycles. The version of a derived metric is the highest version of
+ * its inputs. A result is computed again only if the version changed since it has been computed.
+ * <p/>
+ * Callers get copies of the results. Derived metrics get the cached results of their inputs and must not modify them.
+ * Metrics have to be defined before the graph is read by several threads.
+ */
+public class MetricGraph implements TraceableResource, Versioned {
+
+	/** a metric that reads its samples from resources */
+	public static interface Source {
+		/** @return the version of the resources the samples are read from, see {@link VersionClock#versionOf(Object)} */
+		long getVersion();
+
+		/** @return the samples or null */
+		TupleSequence<Double> compute();
+	}
+
+	/** a metric that combines the samples of other metrics */
+	public static interface Derivation {
+		/**
+		 * @param inputs the samples of the inputs, in the order in which they have been declared. Must not be modified
+		 * @return the samples or null
+		 */
+		TupleSequence<Double> compute(List<TupleSequence<Double>> inputs);
+	}
+
+	private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+	/**
+	 * Defines a metric that reads from resources.
+	 *
+	 * @param key    the key of the metric
+	 * @param source the source
+	 */
+	public void define(String key, Source source) {
+		add(new Metric(key, source, null, null));
+	}
+
+	/**
+	 * Defines a metric that is derived from other metrics.
+	 *
+	 * @param key        the key of the metric
+	 * @param derivation combines the samples of the inputs
+	 * @param inputs     keys of the inputs, have to be defined already
+	 */
+	public void derive(String key, Derivation derivation, String... inputs) {
+		Metric[] inputMetrics = new Metric[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			inputMetrics[i] = metrics.get(inputs[i]);
+			if (inputMetrics[i] == null)
+				throw new IllegalArgumentException("input '" + inputs[i] + "' of '" + key + "' is not defined");
+		}
+		add(new Metric(key, null, derivation, inputMetrics));
+	}
+
+	private void add(Metric metric) {
+		if (metrics.containsKey(metric.key))
+			throw new IllegalStateException("metric '" + metric.key + "' already defined");
+		metrics.put(metric.key, metric);
+	}
+
+	/**
+	 * Returns whether a metric is defined.
+	 *
+	 * @param key the key
+	 * @return true if there is a metric with the given key
+	 */
+	public boolean contains(String key) {
+		return metrics.containsKey(key);
+	}
+
+	/**
+	 * Returns the version of a metric.
+	 *
+	 * @param key the key of the metric
+	 * @return the version
+	 */
+	public long getVersion(String key) {
+		Metric metric = metrics.get(key);
+		if (metric == null)
+			throw new IllegalArgumentException("metric '" + key + "' is not defined");
+		return metric.getVersion();
+	}
+
+	/** @return highest version of all metrics */
+	@Override
+	public long getVersion() {
+		long version = 0;
+		for (Metric metric : metrics.values())
+			version = Math.max(version, metric.getVersion());
+		return version;
+	}
+
+	/**
+	 * Returns a copy of the samples of a metric, computes them only if an input changed since the last call.
+	 *
+	 * @param key the key of the metric
+	 * @return copy of the samples, null if the metric is not defined or has no samples
+	 */
+	@Override
+	public TupleSequence<Double> getSamples(String key) {
+		Metric metric = metrics.get(key);
+		if (metric == null)
+			return null;
+		TupleSequence<Double> samples = metric.get();
+		return samples == null ? null : new TupleSequence<>(samples);
+	}
+
+	/** @return the keys of all metrics, in order of definition */
+	@Override
+	public String[] getAvailableTrackingKeys() {
+		return metrics.keySet().toArray(new String[metrics.size()]);
+	}
+
+	private static class Metric {
+		final String key;
+		final Source source;
+		final Derivation derivation;
+		final Metric[] inputs;
+
+		/** version of {@link #cached}, -1 if nothing has been computed yet */
+		private long cachedVersion = -1;
+		private TupleSequence<Double> cached;
+
+		Metric(String key, Source source, Derivation derivation, Metric[] inputs) {
+			this.key = key;
+			this.source = source;
+			this.derivation = derivation;
+			this.inputs = inputs;
+		}
+
+		long getVersion() {
+			if (source != null)
+				return source.getVersion();
+			long version = 0;
+			for (Metric input : inputs)
+				version = Math.max(version, input.getVersion());
+			return version;
+		}
+
+		/** inputs are always locked after the metrics that depend on them, so there is no deadlock */
+		synchronized TupleSequence<Double> get() {
+			//the version is read before computing: if an input changes meanwhile, the result is computed again next time
+			long version = getVersion();
+			if (version != cachedVersion) {
+				if (source != null) {
+					cached = source.compute();
+				} else {
+					List<TupleSequence<Double>> samples = new ArrayList<>(inputs.length);
+					for (Metric input : inputs)
+						samples.add(input.get());
+					cached = derivation.compute(samples);
+				}
+				cachedVersion = version;
+			}
+			return cached;
+		}
+
+		@Override
+		public String toString() {
+			return key + (inputs == null ? "" : " <- " + Arrays.toString(inputs));
+		}
+	}
+}
@@ -9,14 +9,91 @@
  */
 package edu.kit.cloudSimStorage.monitoring;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-/** @author Tobias Sturm, 6/23/13 6:01 PM */
+/**
+ * Knows all {@link ResourceUsageHistory} instances that are still in use and the retention of their samples.
+ * <p/>
+ * Histories are only referenced weakly, so a history of a deleted container can be garbage collected. The retention is
+ * configured per tracking key and applies to every history that is created with that key afterwards. Without a
+ * retention a history keeps all of its samples.
+ *
+ * @author Tobias Sturm, 6/23/13 6:01 PM
+ */
 public class Monitoring {
-	private static List<ResourceUsageHistory> histories = new ArrayList<>();
+	private static final Set<Reference<ResourceUsageHistory>> histories = new HashSet<>();
+	private static final ReferenceQueue<ResourceUsageHistory> collected = new ReferenceQueue<>();
+
+	private static final Map<String, RetentionPolicy> retentions = new HashMap<>();
+	private static RetentionPolicy defaultRetention;
+
+	public static synchronized void register(ResourceUsageHistory h) {
+		removeCollected();
+		histories.add(new WeakReference<>(h, collected));
+	}
+
+	/** @return all registered histories that have not been garbage collected yet */
+	public static synchronized List<ResourceUsageHistory> getHistories() {
+		removeCollected();
+		List<ResourceUsageHistory> result = new ArrayList<>(histories.size());
+		for (Reference<ResourceUsageHistory> reference : histories) {
+			ResourceUsageHistory h = reference.get();
+			if (h != null)
+				result.add(h);
+		}
+		return result;
+	}
+
+	private static void removeCollected() {
+		Reference<? extends ResourceUsageHistory> reference;
+		while ((reference = collected.poll()) != null)
+			histories.remove(reference);
+	}
+
+	/**
+	 * Sets the retention of histories with a tracking key, that are created from now on.
+	 *
+	 * @param trackingKey the tracking key
+	 * @param retention   the retention, null to use the default retention
+	 */
+	public static synchronized void setRetention(String trackingKey, RetentionPolicy retention) {
+		if (retention == null)
+			retentions.remove(trackingKey);
+		else
+			retentions.put(trackingKey, retention);
+	}
+
+	/**
+	 * Sets the retention of histories, that are created from now on and have no retention for their tracking key.
+	 *
+	 * @param retention the retention, null to keep all samples
+	 */
+	public static synchronized void setDefaultRetention(RetentionPolicy retention) {
+		defaultRetention = retention;
+	}
+
+	/**
+	 * Returns the retention of histories with a tracking key.
+	 *
+	 * @param trackingKey the tracking key
+	 * @return the retention or null if all samples are kept
+	 */
+	public static synchronized RetentionPolicy getRetention(String trackingKey) {
+		RetentionPolicy retention = retentions.get(trackingKey);
+		return retention != null ? retention : defaultRetention;
+	}
 
-	public static void register(ResourceUsageHistory h) {
-		histories.add(h);
+	/** removes all retentions, histories created from now on keep all samples */
+	public static synchronized void clearRetentions() {
+		retentions.clear();
+		defaultRetention = null;
 	}
 }
@@ -0,0 +1,128 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes one tab separated record per finished cloud operation to a file, while the simulation runs.
+ * <p/>
+ * Records are collected in a buffer and written through a {@link FileChannel} whenever the buffer is full, so the
+ * operations do not have to be kept in memory until the end of the simulation. The columns are the same as in the
+ * request statistics that are written from memory after the simulation, but the records are in the order in which the
+ * operations have been finished instead of grouped by cloud. One writer can be shared by several clouds.
+ */
+public class RequestTraceWriter implements Closeable {
+	public static final String HEADER = "started\tverb\tsize\tduration\tdelay\tcloud\tuser\n";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	private final StringBuilder line = new StringBuilder();
+	private long numRecords;
+
+	/**
+	 * Creates the file (or truncates it) and writes the header.
+	 *
+	 * @param file target file
+	 * @throws IOException if the file can't be opened
+	 */
+	public RequestTraceWriter(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		line.append(HEADER);
+		write();
+	}
+
+	/**
+	 * Writes the record of one operation.
+	 *
+	 * @param started  timestamp when the operation has been requested
+	 * @param verb     kind of operation
+	 * @param size     transferred bytes
+	 * @param duration duration of the operation in ms
+	 * @param delay    delay until the operation started in ms
+	 * @param cloud    name of the cloud that processed the operation
+	 * @param user     id of the user that requested the operation
+	 * @throws IOException if the record can't be written
+	 */
+	public synchronized void trace(long started, String verb, long size, long duration, long delay, String cloud, int user) throws IOException {
+		if (!channel.isOpen())
+			throw new IllegalStateException("trace writer has already been closed");
+		line.append(started).append('\t')
+				.append(verb).append('\t')
+				.append(size).append('\t')
+				.append(duration).append('\t')
+				.append(delay).append('\t')
+				.append(cloud).append('\t')
+				.append(user).append('\n');
+		write();
+		numRecords++;
+	}
+
+	/** @return number of records written so far */
+	public synchronized long getNumRecords() {
+		return numRecords;
+	}
+
+	/** encodes the line into the buffer and empties the line. Flushes the buffer to the channel when it is full */
+	private void write() throws IOException {
+		CharBuffer chars = CharBuffer.wrap(line);
+		while (true) {
+			CoderResult result = encoder.encode(chars, buffer, true);
+			if (result.isOverflow()) {
+				flushBuffer();
+				continue;
+			}
+			if (result.isError())
+				result.throwException();
+			break;
+		}
+		encoder.reset();
+		line.setLength(0);
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes all buffered records to the file.
+	 *
+	 * @throws IOException if the records can't be written
+	 */
+	public synchronized void flush() throws IOException {
+		flushBuffer();
+		channel.force(false);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen())
+			return;
+		try {
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+}
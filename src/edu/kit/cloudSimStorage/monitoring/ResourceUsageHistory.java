@@ -12,17 +12,28 @@ package edu.kit.cloudSimStorage.monitoring;
 
 import edu.kit.cloudSimStorage.helper.TimeHelper;
 
-import java.util.Collections;
-
-/** @author Tobias Sturm, 6/23/13 5:43 PM */
-public class ResourceUsageHistory implements TraceableResource {
+/**
+ * History of the values of a resource.
+ * <p/>
+ * If the history has a {@link RetentionPolicy}, only the samples of the recent window are kept. Older samples are rolled
+ * up into buckets, the samples of the history contain the last value of every bucket then.
+ *
+ * @author Tobias Sturm, 6/23/13 5:43 PM
+ */
+public class ResourceUsageHistory implements TraceableResource, Versioned {
 	private String trackingKey;
 	public final String yAxis;
 	public final String units;
 	public final String name;
 
 	double last = 0;
-	TupleSequence<Double> samples;
+	SampleSeries samples;
+	private long version = VersionClock.next();
+
+	/** null if all samples are kept */
+	private RetentionPolicy retention;
+	/** samples that are older than the retention window, null if nothing has been rolled up */
+	private SampleRollup rollup;
 
 	public ResourceUsageHistory(String trackingKey, String name, String yAxis, String units) {
 		this.trackingKey = trackingKey;
@@ -30,13 +41,58 @@ public class ResourceUsageHistory implements TraceableResource {
 		this.units = units;
 		this.name = name;
 
-		samples = new TupleSequence<>();
+		samples = new SampleSeries();
+		retention = Monitoring.getRetention(trackingKey);
 		Monitoring.register(this);
 	}
 
 	public void addSample(long timestamp, double val) {
-		samples.add(new Tuple<>(timestamp, val));
+		samples.add(timestamp, val);
 		last = val;
+		version = VersionClock.next();
+		if (retention != null)
+			rollUpOldSamples();
+	}
+
+	/** moves all samples that are outside of the retention window into the rollup */
+	private void rollUpOldSamples() {
+		long boundary = retention.rollupBoundary(samples.getTimestamp(samples.size() - 1));
+		if (samples.getTimestamp(0) >= boundary)
+			return;
+		if (rollup == null)
+			rollup = new SampleRollup(retention);
+		int n = 0;
+		while (n < samples.size() && samples.getTimestamp(n) < boundary) {
+			rollup.add(samples.getTimestamp(n), samples.getValue(n));
+			n++;
+		}
+		samples.removeFirst(n);
+	}
+
+	/**
+	 * Sets the retention of this history and rolls up the samples that are outside of the new window. Samples that have
+	 * been rolled up already stay in their buckets.
+	 *
+	 * @param retention the retention, null to keep all samples from now on
+	 */
+	public void setRetention(RetentionPolicy retention) {
+		if (rollup != null && retention != null && retention.getResolution() != rollup.getPolicy().getResolution())
+			throw new IllegalStateException("samples have been rolled up with a resolution of " + rollup.getPolicy().getResolution() + "ms already");
+		this.retention = retention;
+		if (retention != null && !samples.isEmpty()) {
+			rollUpOldSamples();
+			version = VersionClock.next();
+		}
+	}
+
+	/** @return the retention or null if all samples are kept */
+	public RetentionPolicy getRetention() {
+		return retention;
+	}
+
+	/** @return the samples that are older than the retention window, null if nothing has been rolled up */
+	public SampleRollup getRollup() {
+		return rollup;
 	}
 
 	public void addDiff(long timestamp, double diff) {
@@ -50,9 +106,31 @@ public class ResourceUsageHistory implements TraceableResource {
 		return null;
 	}
 
+	/**
+	 * Returns a copy of all samples, sorted by timestamp. Rolled up buckets are represented by their last value.
+	 *
+	 * @return the samples
+	 */
 	public TupleSequence<Double> getSamples() {
-		Collections.sort(samples);
-		return samples;
+		if (rollup == null)
+			return samples.toTupleSequence();
+		TupleSequence<Double> result = new TupleSequence<>();
+		result.ensureCapacity(rollup.size() + samples.size());
+		rollup.appendLastValues(result);
+		for (int i = 0; i < samples.size(); i++)
+			result.add(samples.getTimestamp(i), samples.getValue(i));
+		return result;
+	}
+
+	/**
+	 * Returns the samples of this history, not a copy unless samples have been rolled up.
+	 *
+	 * @return the samples, sorted by timestamp
+	 */
+	public SampleSeries getSeries() {
+		if (rollup == null)
+			return samples;
+		return new SampleSeries(getSamples());
 	}
 
 	@Override
@@ -71,6 +149,12 @@ public class ResourceUsageHistory implements TraceableResource {
 
 	public void setTrackingKey(String trackingKey) {
 		this.trackingKey = trackingKey;
+		version = VersionClock.next();
+	}
+
+	@Override
+	public long getVersion() {
+		return version;
 	}
 }
 
@@ -0,0 +1,69 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+/**
+ * Tells how long a {@link ResourceUsageHistory} keeps its raw samples.
+ * <p/>
+ * Samples that are older than the raw window (measured from the newest sample) are rolled up into buckets of a fixed
+ * resolution, see {@link SampleRollup}. Buckets are aligned to timestamp 0, so a sample is rolled up as soon as the
+ * whole bucket it belongs to is outside of the window.
+ */
+public class RetentionPolicy {
+	private final long rawWindow;
+	private final long resolution;
+
+	/**
+	 * @param rawWindow  time in ms for which raw samples are kept, at least 0
+	 * @param resolution size of the buckets older samples are rolled up into, in ms
+	 */
+	public RetentionPolicy(long rawWindow, long resolution) {
+		if (rawWindow < 0)
+			throw new IllegalArgumentException("raw window must not be negative, but was " + rawWindow);
+		if (resolution <= 0)
+			throw new IllegalArgumentException("resolution must be positive, but was " + resolution);
+		this.rawWindow = rawWindow;
+		this.resolution = resolution;
+	}
+
+	public long getRawWindow() {
+		return rawWindow;
+	}
+
+	public long getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Returns the start of the bucket, that is aligned to the resolution and contains the given timestamp.
+	 *
+	 * @param timestamp the timestamp
+	 * @return start of the bucket
+	 */
+	public long bucketStart(long timestamp) {
+		long bucket = timestamp >= 0 ? timestamp / resolution : -((-timestamp + resolution - 1) / resolution);
+		return bucket * resolution;
+	}
+
+	/**
+	 * Returns the timestamp before which samples are rolled up.
+	 *
+	 * @param newest timestamp of the newest sample
+	 * @return all samples older than the returned timestamp are rolled up
+	 */
+	public long rollupBoundary(long newest) {
+		return bucketStart(newest - rawWindow);
+	}
+
+	@Override
+	public String toString() {
+		return "raw " + rawWindow + "ms, then " + resolution + "ms buckets";
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Summary of samples in buckets of a fixed resolution: minimum, maximum, average and last value of each bucket.
+ * <p/>
+ * Buckets are aligned to timestamp 0, only buckets that contain at least one sample are stored. Samples can be added in
+ * any order, adding to the latest bucket is O(1).
+ */
+public class SampleRollup {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final RetentionPolicy policy;
+
+	/** start of the buckets, sorted */
+	private long[] starts;
+	private double[] min, max, sum, last;
+	/** timestamp of the last value of the bucket */
+	private long[] lastTimestamps;
+	private int[] counts;
+	private int size;
+
+	public SampleRollup(RetentionPolicy policy) {
+		this.policy = policy;
+		starts = new long[INITIAL_CAPACITY];
+		min = new double[INITIAL_CAPACITY];
+		max = new double[INITIAL_CAPACITY];
+		sum = new double[INITIAL_CAPACITY];
+		last = new double[INITIAL_CAPACITY];
+		lastTimestamps = new long[INITIAL_CAPACITY];
+		counts = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds a sample to its bucket.
+	 *
+	 * @param timestamp timestamp of the sample
+	 * @param value     value of the sample
+	 */
+	public void add(long timestamp, double value) {
+		long start = policy.bucketStart(timestamp);
+		int index = size;
+		if (size > 0 && starts[size - 1] >= start) {
+			index = Arrays.binarySearch(starts, 0, size, start);
+			if (index >= 0) {
+				min[index] = Math.min(min[index], value);
+				max[index] = Math.max(max[index], value);
+				sum[index] += value;
+				counts[index]++;
+				if (timestamp >= lastTimestamps[index]) {
+					lastTimestamps[index] = timestamp;
+					last[index] = value;
+				}
+				return;
+			}
+			index = -index - 1;
+		}
+
+		if (size == starts.length)
+			grow();
+		System.arraycopy(starts, index, starts, index + 1, size - index);
+		System.arraycopy(min, index, min, index + 1, size - index);
+		System.arraycopy(max, index, max, index + 1, size - index);
+		System.arraycopy(sum, index, sum, index + 1, size - index);
+		System.arraycopy(last, index, last, index + 1, size - index);
+		System.arraycopy(lastTimestamps, index, lastTimestamps, index + 1, size - index);
+		System.arraycopy(counts, index, counts, index + 1, size - index);
+		starts[index] = start;
+		min[index] = value;
+		max[index] = value;
+		sum[index] = value;
+		last[index] = value;
+		lastTimestamps[index] = timestamp;
+		counts[index] = 1;
+		size++;
+	}
+
+	private void grow() {
+		int capacity = size * 2;
+		starts = Arrays.copyOf(starts, capacity);
+		min = Arrays.copyOf(min, capacity);
+		max = Arrays.copyOf(max, capacity);
+		sum = Arrays.copyOf(sum, capacity);
+		last = Arrays.copyOf(last, capacity);
+		lastTimestamps = Arrays.copyOf(lastTimestamps, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+	}
+
+	/** @return number of non-empty buckets */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public RetentionPolicy getPolicy() {
+		return policy;
+	}
+
+	public long getStart(int bucket) {
+		checkIndex(bucket);
+		return starts[bucket];
+	}
+
+	public double getMin(int bucket) {
+		checkIndex(bucket);
+		return min[bucket];
+	}
+
+	public double getMax(int bucket) {
+		checkIndex(bucket);
+		return max[bucket];
+	}
+
+	public double getAverage(int bucket) {
+		checkIndex(bucket);
+		return sum[bucket] / counts[bucket];
+	}
+
+	public double getLast(int bucket) {
+		checkIndex(bucket);
+		return last[bucket];
+	}
+
+	public long getLastTimestamp(int bucket) {
+		checkIndex(bucket);
+		return lastTimestamps[bucket];
+	}
+
+	public int getCount(int bucket) {
+		checkIndex(bucket);
+		return counts[bucket];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	/**
+	 * Appends the last value of every bucket, at its original timestamp, to a sequence.
+	 *
+	 * @param result the sequence to append to
+	 */
+	void appendLastValues(TupleSequence<Double> result) {
+		for (int i = 0; i < size; i++)
+			result.add(lastTimestamps[i], last[i]);
+	}
+}
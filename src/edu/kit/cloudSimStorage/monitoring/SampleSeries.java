@@ -0,0 +1,138 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Growable time series of (timestamp, value) samples, stored in two primitive arrays.
+ * <p/>
+ * The series is always sorted by timestamp. Samples with the same timestamp keep the order in which they have been
+ * added, which is the order {@code Collections.sort} produces on a {@link TupleSequence}. Appending a sample that is not
+ * older than the last one is O(1), older samples are inserted at their position.
+ */
+public class SampleSeries {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] timestamps;
+	private double[] values;
+	private int size;
+
+	public SampleSeries() {
+		timestamps = new long[INITIAL_CAPACITY];
+		values = new double[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a series from a sequence of samples. The sequence does not have to be sorted.
+	 *
+	 * @param samples the samples to copy
+	 */
+	public SampleSeries(TupleSequence<Double> samples) {
+		this();
+		for (Tuple<Long, Double> t : samples)
+			add(t.x, t.y);
+	}
+
+	/**
+	 * Adds a sample.
+	 *
+	 * @param timestamp timestamp of the sample
+	 * @param value     value of the sample
+	 * @return index of the sample in the series
+	 */
+	public int add(long timestamp, double value) {
+		if (size == timestamps.length) {
+			timestamps = Arrays.copyOf(timestamps, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+
+		int index = size;
+		if (size > 0 && timestamps[size - 1] > timestamp) {
+			index = upperBound(timestamp);
+			System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+			System.arraycopy(values, index, values, index + 1, size - index);
+		}
+		timestamps[index] = timestamp;
+		values[index] = value;
+		size++;
+		return index;
+	}
+
+	/** @return index of the first sample, that is newer than the given timestamp */
+	private int upperBound(long timestamp) {
+		int low = 0, high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[mid] <= timestamp)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Removes the oldest samples.
+	 *
+	 * @param n number of samples to remove
+	 */
+	public void removeFirst(int n) {
+		if (n < 0 || n > size)
+			throw new IndexOutOfBoundsException("Can't remove " + n + " samples, Size: " + size);
+		System.arraycopy(timestamps, n, timestamps, 0, size - n);
+		System.arraycopy(values, n, values, 0, size - n);
+		size -= n;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long getTimestamp(int index) {
+		checkIndex(index);
+		return timestamps[index];
+	}
+
+	public double getValue(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	/**
+	 * Copies the samples into a {@link TupleSequence}.
+	 *
+	 * @return new sequence with all samples in order
+	 */
+	public TupleSequence<Double> toTupleSequence() {
+		TupleSequence<Double> result = new TupleSequence<>();
+		result.ensureCapacity(size);
+		for (int i = 0; i < size; i++)
+			result.add(timestamps[i], values[i]);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		for (int i = 0; i < size; i++)
+			b.append("(").append(timestamps[i]).append("|").append(values[i]).append("); ");
+		return b.toString();
+	}
+}
@@ -15,7 +15,7 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import static edu.kit.cloudSimStorage.helper.FileSizeHelper.Magnitude;
 
 /** @author Tobias Sturm, 6/23/13 6:09 PM */
-public class StorageUsageHistory implements TraceableResource {
+public class StorageUsageHistory implements TraceableResource, Versioned {
 
 	ResourceUsageHistory availableStorage, usedStorage;
 	Magnitude inputMagnitude;
@@ -55,6 +55,16 @@ public class StorageUsageHistory implements TraceableResource {
 		availableStorage.addDiff(FileSizeHelper.toBytes(dif, inputMagnitude));
 	}
 
+	/**
+	 * Sets the retention of the available and the used storage.
+	 *
+	 * @param retention the retention, null to keep all samples from now on
+	 */
+	public void setRetention(RetentionPolicy retention) {
+		availableStorage.setRetention(retention);
+		usedStorage.setRetention(retention);
+	}
+
 	public ResourceUsageHistory getAvailabeStorageHistory() {
 		return availableStorage;
 	}
@@ -65,21 +75,21 @@ public class StorageUsageHistory implements TraceableResource {
 
 	public TupleSequence<Double> getPercentageUsed() {
 		TupleSequence<Double> result = new TupleSequence<>();
-		TupleSequence<Double> availableStorageHistory = availableStorage.getSamples();
-		TupleSequence<Double> usedStorageHistory = usedStorage.getSamples();
+		SampleSeries availableStorageHistory = availableStorage.getSeries();
+		SampleSeries usedStorageHistory = usedStorage.getSeries();
 
 		int ia = 0, iu = 0;
 		while (ia < availableStorageHistory.size() || iu < usedStorageHistory.size()) {
-			Long smallerTimestamp;
-			Double val = usedStorageHistory.get(iu).y / availableStorageHistory.get(ia).y;
-			if (availableStorageHistory.get(ia).x < usedStorageHistory.get(iu).x) {
-				smallerTimestamp = availableStorageHistory.get(ia).x;
+			long smallerTimestamp;
+			double val = usedStorageHistory.getValue(iu) / availableStorageHistory.getValue(ia);
+			if (availableStorageHistory.getTimestamp(ia) < usedStorageHistory.getTimestamp(iu)) {
+				smallerTimestamp = availableStorageHistory.getTimestamp(ia);
 				ia++;
 			} else {
-				smallerTimestamp = usedStorageHistory.get(iu).x;
+				smallerTimestamp = usedStorageHistory.getTimestamp(iu);
 				iu++;
 			}
-			result.add(new Tuple<>(smallerTimestamp, val));
+			result.add(smallerTimestamp, val);
 		}
 
 		return result;
@@ -103,5 +113,10 @@ public class StorageUsageHistory implements TraceableResource {
 		return new String[]{TraceableResource.AVAILABLE_STORAGE, TraceableResource.USED_STORAGE_ABS, TraceableResource.USED_STORAGE_PERCENTAGE};
 	}
 
+	@Override
+	public long getVersion() {
+		return Math.max(availableStorage.getVersion(), usedStorage.getVersion());
+	}
+
 }
 
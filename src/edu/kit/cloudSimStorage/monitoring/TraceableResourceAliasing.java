@@ -14,9 +14,10 @@ import java.util.HashMap;
 /**
  * This class can be used if one {@link TraceableResource} delegates different offered external tracking keys to multiple children-resources, that deal with different (internal) keys.
  * @author Tobias Sturm, 9/10/13 9:54 PM */
-public class TraceableResourceAliasing implements TraceableResource {
+public class TraceableResourceAliasing implements TraceableResource, Versioned {
 	private HashMap<String, TraceableResource> externalKeyResourceMapping = new HashMap<>();
 	private HashMap<String, String> externalKeyInternalKeyMapping = new HashMap<>();
+	private long mappingVersion = VersionClock.next();
 
 
 	/**
@@ -30,6 +31,7 @@ public class TraceableResourceAliasing implements TraceableResource {
 			throw new IllegalStateException("External key already registered");
 		externalKeyResourceMapping.put(externalKey, r);
 		externalKeyInternalKeyMapping.put(externalKey, internalKey);
+		mappingVersion = VersionClock.next();
 	}
 
 	@Override
@@ -44,4 +46,10 @@ public class TraceableResourceAliasing implements TraceableResource {
 	public String[] getAvailableTrackingKeys() {
 		return externalKeyResourceMapping.keySet().toArray(new String[0]);
 	}
+
+	/** @return highest version of the mapping and all child resources */
+	@Override
+	public long getVersion() {
+		return Math.max(mappingVersion, VersionClock.versionOf(externalKeyResourceMapping.values()));
+	}
 }
@@ -14,17 +14,25 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
-/** @author Tobias Sturm, 6/24/13 6:16 PM */
-public abstract class UsageHistory implements IUsageHistory {
+/**
+ * The samples of every key are computed by a {@link MetricGraph} and only again if one of the histories or trackers the
+ * key is computed from changed.
+ *
+ * @author Tobias Sturm, 6/24/13 6:16 PM
+ */
+public abstract class UsageHistory implements IUsageHistory, Versioned {
 
 	protected double debts;
 	ResourceUsageHistory debtHistory;
 	ResourceUsageHistory uploadTraffic;
 	ResourceUsageHistory downloadTraffic;
 	EventTracker<Integer> numGETQueries, numPUTQueries, numDELETEQueries, numLISTQueries;
+	/** computes and remembers the samples of every key, null if this instance is a template without histories */
+	private MetricGraph metrics;
 
 	public UsageHistory(){};
 
@@ -37,11 +45,45 @@ public abstract class UsageHistory implements IUsageHistory {
 		numDELETEQueries = new EventTracker<>("GET-Queries", "GET-Queries of user " + userID);
 		numLISTQueries = new EventTracker<>("GET-Queries", "GET-Queries of user " + userID);
 		debts = 0;
+
+		metrics = new MetricGraph();
+		define(DEBTS, debtHistory);
+		define(TRAFFIC_DOWNLOAD, downloadTraffic);
+		define(TRAFFIC_UPLOAD, uploadTraffic);
+		define(TRAFFIC, downloadTraffic, uploadTraffic);
+		for (String key : new String[]{NUM_REQUESTS, NUM_REQUESTS_PER_MINUTE, NUM_REQUESTS_PER_SECOND})
+			define(key, numLISTQueries, numPUTQueries, numGETQueries, numDELETEQueries);
+		for (String key : new String[]{NUM_REQUESTS_OTHER, NUM_REQUESTS_OTHER_PER_MINUTE, NUM_REQUESTS_OTHER_PER_SECOND})
+			define(key, numPUTQueries, numGETQueries, numDELETEQueries);
+		for (String key : new String[]{NUM_REQUESTS_LIST, NUM_REQUESTS_LIST_PER_MINUTE, NUM_REQUESTS_LIST_PER_SECOND})
+			define(key, numLISTQueries);
+	}
+
+	private void define(final String key, Versioned... inputs) {
+		final List<Versioned> versioned = Arrays.asList(inputs);
+		metrics.define(key, new MetricGraph.Source() {
+			@Override
+			public long getVersion() {
+				return VersionClock.versionOf(versioned);
+			}
+
+			@Override
+			public TupleSequence<Double> compute() {
+				return computeSamples(key);
+			}
+		});
 	}
 
 	@Override
 	public TupleSequence<Double> getSamples(String key) {
+		if (metrics != null && metrics.contains(key))
+			return metrics.getSamples(key);
+		return computeSamples(key);
+	}
+
+	private TupleSequence<Double> computeSamples(String key) {
 		List<TupleSequence<Double>> sampleStreams = new ArrayList<>();
+		List<EventTracker<Integer>> trackers = new ArrayList<>();
 		switch (key) {
 			case DEBTS:
 				TupleSequence<Double> tmp = debtHistory.getSamples(key);
@@ -56,34 +98,39 @@ public abstract class UsageHistory implements IUsageHistory {
 			case TRAFFIC:
 				sampleStreams.add(getSamples(TRAFFIC_DOWNLOAD));
 				sampleStreams.add(getSamples(TRAFFIC_UPLOAD));
-				return SequenceOperations.sum(sampleStreams);
+				return SequenceOperations.sumOfLevels(sampleStreams);
 			case NUM_REQUESTS:
 				sampleStreams.add(numLISTQueries.getSamples());
 			case NUM_REQUESTS_OTHER:
 				sampleStreams.add(numPUTQueries.getSamples());
 				sampleStreams.add(numGETQueries.getSamples());
 				sampleStreams.add(numDELETEQueries.getSamples());
-				return SequenceOperations.sum(sampleStreams);
+				return SequenceOperations.sumOfLevels(sampleStreams);
 			case NUM_REQUESTS_PER_MINUTE:
 			case NUM_REQUESTS_PER_SECOND:
-				sampleStreams.add(numLISTQueries.getSamples());
+				trackers.add(numLISTQueries);
 			case NUM_REQUESTS_OTHER_PER_MINUTE:
 			case NUM_REQUESTS_OTHER_PER_SECOND:
-				sampleStreams.add(numPUTQueries.getSamples());
-				sampleStreams.add(numGETQueries.getSamples());
-				sampleStreams.add(numDELETEQueries.getSamples());
+				trackers.add(numPUTQueries);
+				trackers.add(numGETQueries);
+				trackers.add(numDELETEQueries);
 				int time = (key == NUM_REQUESTS_OTHER_PER_MINUTE || key == NUM_REQUESTS_PER_MINUTE) ? 60 * 1000 : 1000;
-				return SequenceOperations.samplesPerTime(time, SequenceOperations.flatten(sampleStreams));
+				return EventTracker.getEventsPerTime(time, trackers);
 			case NUM_REQUESTS_LIST:
 				return numLISTQueries.getSamples();
 			case NUM_REQUESTS_LIST_PER_MINUTE:
-				return SequenceOperations.samplesPerTime(60 * 1000, numLISTQueries.getSamples());
+				return numLISTQueries.getEventsPerTime(60 * 1000);
 			case NUM_REQUESTS_LIST_PER_SECOND:
-				return SequenceOperations.samplesPerTime(1000, numLISTQueries.getSamples());
+				return numLISTQueries.getEventsPerTime(1000);
 		}
 		return null;
 	}
 
+	@Override
+	public long getVersion() {
+		return VersionClock.versionOf(Arrays.asList(debtHistory, uploadTraffic, downloadTraffic, numGETQueries, numPUTQueries, numDELETEQueries, numLISTQueries));
+	}
+
 	@Override
 	public String[] getAvailableTrackingKeys() {
 		return new String[] {DEBTS, TRAFFIC, TRAFFIC_DOWNLOAD, TRAFFIC_UPLOAD, NUM_REQUESTS_LIST, NUM_REQUESTS_OTHER, NUM_REQUESTS, NUM_REQUESTS_PER_MINUTE, NUM_REQUESTS_PER_SECOND, NUM_REQUESTS_OTHER_PER_MINUTE, NUM_REQUESTS_OTHER_PER_SECOND, NUM_REQUESTS_LIST_PER_MINUTE, NUM_REQUESTS_LIST_PER_SECOND};
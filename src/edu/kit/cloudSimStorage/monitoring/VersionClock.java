@@ -0,0 +1,59 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global, strictly increasing clock for {@link Versioned} resources.
+ * <p/>
+ * Every change of a resource is stamped with a new version that is higher than every version handed out before. The
+ * highest version of a set of resources therefore changes whenever one of them changes, and a stamp taken when a
+ * resource is added to or removed from the set covers changes of the set itself.
+ */
+public final class VersionClock {
+	private static final AtomicLong clock = new AtomicLong();
+
+	private VersionClock() {
+	}
+
+	/** @return a new version, higher than every version returned before */
+	public static long next() {
+		return clock.incrementAndGet();
+	}
+
+	/**
+	 * Returns the version of a resource.
+	 *
+	 * @param resource the resource
+	 * @return its version, 0 for null (which never changes) and a new version for resources that are not {@link
+	 *         Versioned} (which might always have changed)
+	 */
+	public static long versionOf(Object resource) {
+		if (resource == null)
+			return 0;
+		if (resource instanceof Versioned)
+			return ((Versioned) resource).getVersion();
+		return next();
+	}
+
+	/**
+	 * Returns the highest version of some resources, see {@link #versionOf(Object)}.
+	 *
+	 * @param resources the resources
+	 * @return highest version, 0 if there are no resources
+	 */
+	public static long versionOf(Iterable<?> resources) {
+		long version = 0;
+		for (Object resource : resources)
+			version = Math.max(version, versionOf(resource));
+		return version;
+	}
+}
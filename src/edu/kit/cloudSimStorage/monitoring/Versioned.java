@@ -0,0 +1,27 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+/**
+ * A resource whose samples can change. The version changes whenever the samples of the resource may have changed, so
+ * results computed from the samples can be reused as long as the version is the same.
+ * <p/>
+ * Versions are taken from {@link VersionClock}, so the version of a resource that consists of other resources is simply
+ * the highest version of its parts.
+ */
+public interface Versioned {
+
+	/**
+	 * Returns the version of this resource.
+	 *
+	 * @return the version, the same as long as the samples did not change
+	 */
+	long getVersion();
+}
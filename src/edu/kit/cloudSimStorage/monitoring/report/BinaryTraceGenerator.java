@@ -0,0 +1,77 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.StorageCloud;
+import edu.kit.cloudSimStorage.cloudOperations.cloudInternalOperationState.CloudRequestState;
+import edu.kit.cloudSimStorage.monitoring.OperationTimeTraceSample;
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
+import edu.kit.cloudSimStorage.monitoring.TraceableResource;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Writes the raw (unformatted) samples of every cloud into one binary trace file per cloud, see
+ * {@link BinaryTraceWriter}. The finished operations are stored as the series {@link #OPERATION_DELAY},
+ * {@link #OPERATION_DURATION} and {@link #OPERATION_SIZE}, with the start of the operation as timestamp.
+ */
+public class BinaryTraceGenerator extends ReportGenerator {
+	public static final String FILE_EXTENTION = ".trace";
+	public static final String OPERATION_DELAY = "operation delay";
+	public static final String OPERATION_DURATION = "operation duration";
+	public static final String OPERATION_SIZE = "operation size";
+
+	@Override
+	public void generate(File rootDir) throws IOException {
+		for (StorageCloud cloud : clouds) {
+			//compute all sequences in parallel, then write them one after another
+			final TraceableResource resource = sampleCache.get(cloud);
+			List<Callable<TupleSequence<Double>>> tasks = new ArrayList<>();
+			for (final String key : resource.getAvailableTrackingKeys()) {
+				tasks.add(new Callable<TupleSequence<Double>>() {
+					@Override
+					public TupleSequence<Double> call() {
+						return resource.getSamples(key);
+					}
+				});
+			}
+			List<TupleSequence<Double>> samples = runAll(tasks);
+
+			File file = new File(rootDir, "Cloud_" + cloud.getName() + FILE_EXTENTION);
+			System.out.println("write to " + file.getPath());
+			try (BinaryTraceWriter writer = new BinaryTraceWriter(file)) {
+				String[] keys = resource.getAvailableTrackingKeys();
+				for (int i = 0; i < keys.length; i++) {
+					if (samples.get(i) != null)
+						writer.writeSeries(keys[i], samples.get(i));
+				}
+				writeOperations(writer, cloud.getOperationTimeTraces());
+			}
+		}
+	}
+
+	private static void writeOperations(BinaryTraceWriter writer, List<OperationTimeTraceSample> traces) throws IOException {
+		SampleSeries delay = new SampleSeries(), duration = new SampleSeries(), size = new SampleSeries();
+		for (OperationTimeTraceSample trace : traces) {
+			delay.add(trace.getOmmittedTimestamp(), trace.getDelay());
+			duration.add(trace.getOmmittedTimestamp(), trace.getDuration());
+			if (trace instanceof CloudRequestState)
+				size.add(trace.getOmmittedTimestamp(), ((CloudRequestState) trace).getTransferredSize());
+		}
+		writer.writeSeries(OPERATION_DELAY, delay);
+		writer.writeSeries(OPERATION_DURATION, duration);
+		writer.writeSeries(OPERATION_SIZE, size);
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
+import edu.kit.cloudSimStorage.monitoring.TraceableResource;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads a file written by {@link BinaryTraceWriter}.
+ * <p/>
+ * Opening a file only reads the block headers. The columns of a series are memory mapped when they are accessed, so a
+ * trace can be analysed with {@link edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations}
+ * (via {@link #getSamples(String)}) without simulating again. Every series is available as tracking key.
+ */
+public class BinaryTraceReader implements TraceableResource, Closeable {
+	private final FileChannel channel;
+	/** offset of the timestamp column and number of samples of every series, in order of the file */
+	private final Map<String, long[]> blocks = new LinkedHashMap<>();
+
+	/**
+	 * Opens a trace file and reads the names of its series.
+	 *
+	 * @param file the trace file
+	 * @throws IOException if the file can't be read or is not a trace file
+	 */
+	public BinaryTraceReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = read(0, 8);
+			if (header.getInt() != BinaryTraceWriter.MAGIC)
+				throw new IOException("'" + file.getPath() + "' is not a trace file");
+			int version = header.getInt();
+			if (version != BinaryTraceWriter.VERSION)
+				throw new IOException("unsupported trace file version " + version);
+
+			long position = 8;
+			while (position < channel.size()) {
+				ByteBuffer blockHeader = read(position, 8);
+				if (blockHeader.getInt() != BinaryTraceWriter.BLOCK_MAGIC)
+					throw new IOException("corrupt trace file: no block at offset " + position);
+				int nameLength = blockHeader.getInt();
+				position += 8;
+
+				ByteBuffer name = read(position, nameLength);
+				position += nameLength;
+				position = (position + 7) & ~7l;
+
+				long count = read(position, 8).getLong();
+				position += 8;
+				blocks.put(StandardCharsets.UTF_8.decode(name).toString(), new long[]{position, count});
+				position += 16 * count;
+			}
+			if (position != channel.size())
+				throw new IOException("corrupt trace file: last block is truncated");
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(BinaryTraceWriter.BYTE_ORDER);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new EOFException("unexpected end of trace file");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private long[] getBlock(String name) {
+		long[] block = blocks.get(name);
+		if (block == null)
+			throw new IllegalArgumentException("there is no series '" + name + "'");
+		if (block[1] * 8 > Integer.MAX_VALUE)
+			throw new IllegalStateException("series '" + name + "' is too large to be mapped at once");
+		return block;
+	}
+
+	/**
+	 * @param name name of the series
+	 * @return true if the file contains a series with that name
+	 */
+	public boolean contains(String name) {
+		return blocks.containsKey(name);
+	}
+
+	/**
+	 * @param name name of the series
+	 * @return number of samples in that series
+	 */
+	public long getSize(String name) {
+		return getBlock(name)[1];
+	}
+
+	/**
+	 * Maps the timestamp column of a series.
+	 *
+	 * @param name name of the series
+	 * @return read only view of the timestamps
+	 * @throws IOException if the file can't be mapped
+	 */
+	public LongBuffer getTimestamps(String name) throws IOException {
+		long[] block = getBlock(name);
+		return channel.map(FileChannel.MapMode.READ_ONLY, block[0], block[1] * 8).order(BinaryTraceWriter.BYTE_ORDER).asLongBuffer();
+	}
+
+	/**
+	 * Maps the value column of a series.
+	 *
+	 * @param name name of the series
+	 * @return read only view of the values
+	 * @throws IOException if the file can't be mapped
+	 */
+	public DoubleBuffer getValues(String name) throws IOException {
+		long[] block = getBlock(name);
+		return channel.map(FileChannel.MapMode.READ_ONLY, block[0] + block[1] * 8, block[1] * 8).order(BinaryTraceWriter.BYTE_ORDER).asDoubleBuffer();
+	}
+
+	/**
+	 * Reads a whole series.
+	 *
+	 * @param name name of the series
+	 * @return copy of the series
+	 * @throws IOException if the file can't be read
+	 */
+	public SampleSeries getSeries(String name) throws IOException {
+		LongBuffer timestamps = getTimestamps(name);
+		DoubleBuffer values = getValues(name);
+		SampleSeries result = new SampleSeries();
+		while (timestamps.hasRemaining())
+			result.add(timestamps.get(), values.get());
+		return result;
+	}
+
+	/**
+	 * Reads a whole series.
+	 *
+	 * @param key name of the series
+	 * @return the samples of the series or null if there is no such series
+	 */
+	@Override
+	public TupleSequence<Double> getSamples(String key) {
+		if (!contains(key))
+			return null;
+		try {
+			return getSeries(key).toTupleSequence();
+		} catch (IOException e) {
+			throw new IllegalStateException("could not read series '" + key + "'", e);
+		}
+	}
+
+	@Override
+	public String[] getAvailableTrackingKeys() {
+		return blocks.keySet().toArray(new String[blocks.size()]);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
+import edu.kit.cloudSimStorage.monitoring.Tuple;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes named sample series into a binary trace file that can be read by {@link BinaryTraceReader}.
+ * <p/>
+ * Format (little endian): the file starts with {@link #MAGIC} and {@link #VERSION} (two ints). Then follows one block per
+ * series: {@link #BLOCK_MAGIC}, length of the name in bytes (int), the UTF-8 encoded name, zero padding up to the next
+ * multiple of 8 bytes, the number of samples n (long), n timestamps (long) and n values (double). The columns of a block
+ * are therefore 8-byte aligned and can be mapped directly.
+ */
+public class BinaryTraceWriter implements Closeable {
+	public static final int MAGIC = 0x53435354;
+	public static final int VERSION = 1;
+	public static final int BLOCK_MAGIC = 0x424c4b31;
+	public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+	private final Set<String> names = new HashSet<>();
+	/** number of bytes written to the file, including the buffer */
+	private long position;
+
+	/**
+	 * Creates the file (or truncates it) and writes the file header.
+	 *
+	 * @param file target file
+	 * @throws IOException if the file can't be opened
+	 */
+	public BinaryTraceWriter(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		putInt(MAGIC);
+		putInt(VERSION);
+	}
+
+	/**
+	 * Writes a series as new block.
+	 *
+	 * @param name    unique name of the series
+	 * @param samples sorted samples
+	 * @throws IOException if the series can't be written
+	 */
+	public void writeSeries(String name, TupleSequence<Double> samples) throws IOException {
+		writeBlockHeader(name, samples.size());
+		for (Tuple<Long, Double> t : samples)
+			putLong(t.x);
+		for (Tuple<Long, Double> t : samples)
+			putDouble(t.y);
+	}
+
+	/**
+	 * Writes a series as new block.
+	 *
+	 * @param name    unique name of the series
+	 * @param samples the samples
+	 * @throws IOException if the series can't be written
+	 */
+	public void writeSeries(String name, SampleSeries samples) throws IOException {
+		writeBlockHeader(name, samples.size());
+		for (int i = 0; i < samples.size(); i++)
+			putLong(samples.getTimestamp(i));
+		for (int i = 0; i < samples.size(); i++)
+			putDouble(samples.getValue(i));
+	}
+
+	private void writeBlockHeader(String name, long count) throws IOException {
+		if (!channel.isOpen())
+			throw new IllegalStateException("trace writer has already been closed");
+		if (!names.add(name))
+			throw new IllegalArgumentException("there is already a series with name '" + name + "'");
+
+		byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+		putInt(BLOCK_MAGIC);
+		putInt(encodedName.length);
+		for (byte b : encodedName) {
+			ensureRemaining(1);
+			buffer.put(b);
+			position++;
+		}
+		while (position % 8 != 0) {
+			ensureRemaining(1);
+			buffer.put((byte) 0);
+			position++;
+		}
+		putLong(count);
+	}
+
+	private void putInt(int value) throws IOException {
+		ensureRemaining(4);
+		buffer.putInt(value);
+		position += 4;
+	}
+
+	private void putLong(long value) throws IOException {
+		ensureRemaining(8);
+		buffer.putLong(value);
+		position += 8;
+	}
+
+	private void putDouble(double value) throws IOException {
+		ensureRemaining(8);
+		buffer.putDouble(value);
+		position += 8;
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flushBuffer();
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen())
+			return;
+		try {
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+}
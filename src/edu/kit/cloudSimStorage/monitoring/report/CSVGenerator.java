@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static edu.kit.cloudSimStorage.helper.TimeHelper.timeToString;
 
@@ -30,14 +31,30 @@ public class CSVGenerator extends ReportGenerator {
 	private static final String FILE_EXTENTION = ".csv";
 
 	@Override
-	public void generate(File rootDir) throws IOException {
-		//print all clouds
-		for(StorageCloud cloud : this.clouds) {
-			printTrackableObject(rootDir, "Cloud_" + cloud.getName() + "_", cloud);
-			printCloudOperationTraces(rootDir, "Cloud_" + cloud.getName() + "_", cloud.getOperationTimeTraces());
-
-
+	public void generate(final File rootDir) throws IOException {
+		//one task per file
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for(final StorageCloud cloud : this.clouds) {
+			final String prefix = "Cloud_" + cloud.getName() + "_";
+			final TraceableResource resource = sampleCache.get(cloud);
+			for(final String key : resource.getAvailableTrackingKeys()) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						printTrackableSamples(rootDir, prefix, resource, key, maxSamples);
+						return null;
+					}
+				});
+			}
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					printCloudOperationTraces(rootDir, prefix, cloud.getOperationTimeTraces());
+					return null;
+				}
+			});
 		}
+		runAll(tasks);
 	}
 
 	private static List<OperationTimeTraceSample> downcast(List<CloudRequest> in) {
@@ -72,23 +89,37 @@ public class CSVGenerator extends ReportGenerator {
 	}
 
 	public static void printTrackableObject(File rootDir, String prefix, TraceableResource resource) throws IOException {
-		for(String key : resource.getAvailableTrackingKeys()) {
-			TupleSequence<Double> samples = resource.getSamples(key);
-			if(samples == null)
-				continue;
+		printTrackableObject(rootDir, prefix, resource, 0);
+	}
 
-			//determine data in correct format and title row
-			Tuple<String, TupleSequence<String>> formatedData = format(samples, key);
+	/**
+	 * Writes one CSV file per tracking key of a resource
+	 * @param rootDir target directory
+	 * @param prefix prefix of the file names
+	 * @param resource the resource
+	 * @param maxSamples maximum number of samples per file, 0 for all. Keeps the minimum and maximum of time slots
+	 */
+	public static void printTrackableObject(File rootDir, String prefix, TraceableResource resource, int maxSamples) throws IOException {
+		for(String key : resource.getAvailableTrackingKeys())
+			printTrackableSamples(rootDir, prefix, resource, key, maxSamples);
+	}
 
-			//generate header and data
-			StringBuilder content = new StringBuilder();
-			content.append(prefix).append(NEW_LINE);
-			content.append("timestamp").append(DELIMITER).append(formatedData.x).append(NEW_LINE);
-			content.append(generateCSV(formatedData.y));
+	private static void printTrackableSamples(File rootDir, String prefix, TraceableResource resource, String key, int maxSamples) throws IOException {
+		TupleSequence<Double> samples = resource.getSamples(key);
+		if(samples == null)
+			return;
 
-			String fileName = prefix + key + FILE_EXTENTION;
-			writeToFile(rootDir, fileName, content.toString());
-		}
+		//determine data in correct format and title row
+		Tuple<String, TupleSequence<String>> formatedData = format(samples, key, ReportPipeline.Downsampling.MIN_MAX, maxSamples);
+
+		//generate header and data
+		StringBuilder content = new StringBuilder();
+		content.append(prefix).append(NEW_LINE);
+		content.append("timestamp").append(DELIMITER).append(formatedData.x).append(NEW_LINE);
+		content.append(generateCSV(formatedData.y));
+
+		String fileName = prefix + key + FILE_EXTENTION;
+		writeToFile(rootDir, fileName, content.toString());
 	}
 
 
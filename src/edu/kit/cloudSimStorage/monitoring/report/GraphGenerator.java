@@ -21,6 +21,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 
 /** @author Tobias Sturm, 7/1/13 2:05 PM */
@@ -33,25 +34,38 @@ public class GraphGenerator extends ReportGenerator{
 		if(!texDir.exists())
 			texDir.mkdirs();
 
+		//one task per plot, each returns its build commands
+		final File texDirectory = texDir;
+		List<Callable<String>> tasks = new ArrayList<>();
 		for(StorageCloud cloud : this.clouds) {
-			for(String key : cloud.getAvailableTrackingKeys()) {
-				try{
-					plotTrackableResourceSamples(cloud, key, texMake, texDir);
-				}catch(Exception e) {}
+			final TraceableResource resource = sampleCache.get(cloud);
+			for(final String key : resource.getAvailableTrackingKeys()) {
+				tasks.add(new Callable<String>() {
+					@Override
+					public String call() {
+						StringBuilder commands = new StringBuilder();
+						try{
+							plotTrackableResourceSamples(resource, key, commands, texDirectory, maxSamples);
+						}catch(Exception e) {}
+						return commands.toString();
+					}
+				});
 			}
 		}
+		for(String commands : runAll(tasks))
+			texMake.append(commands);
 
 
 		writeToFile(rootDir, "buildTex.sh", texMake.toString());
 		(new File("buildTex.sh")).setExecutable(true);
 	}
 
-	private static void plotTrackableResourceSamples(TraceableResource resource, String key, StringBuilder texMake, File texDir) throws IOException {
+	private static void plotTrackableResourceSamples(TraceableResource resource, String key, StringBuilder texMake, File texDir, int maxSamples) throws IOException {
 		TupleSequence<Double> samples = resource.getSamples(key);
 		if(samples == null || samples.isEmpty())
 			return;
 
-		Tuple<String, TupleSequence<String>> formatedData = format(samples, key);
+		Tuple<String, TupleSequence<String>> formatedData = format(samples, key, ReportPipeline.Downsampling.LTTB, maxSamples);
 		String filename = plotTrackableResourceSamples(formatedData.y, formatedData.x, texDir, resource.toString() + formatedData.x);
 
 		filename = filename.replace(" ", "\\ ");
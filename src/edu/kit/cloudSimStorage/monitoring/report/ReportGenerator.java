@@ -23,12 +23,20 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /** @author Tobias Sturm, 6/25/13 11:46 AM */
 public abstract class ReportGenerator {
 	protected List<StorageCloud> clouds;
 	protected List<UsageSequence> sequences;
+	/** maximum number of samples per sequence, 0 for all samples */
+	protected int maxSamples;
+	/** number of threads that generate the report */
+	protected int parallelism = 1;
+	protected SampleCache sampleCache = new SampleCache();
 
 
 
@@ -50,6 +58,78 @@ public abstract class ReportGenerator {
 	public abstract void generate(File rootDir) throws IOException;
 
 
+	/**
+	 * Sets the number of threads that compute sequences and write files. Reports are generated after the simulation, when
+	 * no resource is modified anymore.
+	 *
+	 * @param parallelism number of threads, 1 to generate the report in the calling thread
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be at least 1, but was " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the cache for the samples of the resources. Generators that share a cache compute every sequence only once.
+	 *
+	 * @param sampleCache the cache
+	 */
+	public void setSampleCache(SampleCache sampleCache) {
+		this.sampleCache = sampleCache;
+	}
+
+	/**
+	 * Runs tasks on {@link #parallelism} threads.
+	 *
+	 * @param tasks the tasks
+	 * @return results of the tasks, in the same order
+	 * @throws IOException if a task failed with an IOException
+	 */
+	protected <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+		List<T> results = new ArrayList<>(tasks.size());
+		if(parallelism == 1 || tasks.size() < 2) {
+			try {
+				for(Callable<T> task : tasks)
+					results.add(task.call());
+			} catch (IOException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			return results;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for(Future<T> result : pool.invokeAll(tasks))
+				results.add(result.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while generating the report", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+
+	/**
+	 * Limits the number of samples per sequence in the generated reports. Disabled by default.
+	 *
+	 * @param maxSamples maximum number of samples per sequence, at least 3 or 0 to keep all samples
+	 */
+	public void setMaxSamples(int maxSamples) {
+		if(maxSamples != 0 && maxSamples < 3)
+			throw new IllegalArgumentException("at least 3 samples have to be kept, but was " + maxSamples);
+		this.maxSamples = maxSamples;
+	}
+
 	/**
 	 * Formats a sequence of Tuples to
 	 * @param raw
@@ -57,79 +137,79 @@ public abstract class ReportGenerator {
 	 * @return
 	 */
 	protected static Tuple<String, TupleSequence<String>> format(TupleSequence<Double> raw, String key) {
+		return format(raw, key, ReportPipeline.Downsampling.NONE, 0);
+	}
+
+	/**
+	 * Formats a sequence of Tuples and downsamples it
+	 * @param raw the samples
+	 * @param key tracking key of the samples, determines unit and precision
+	 * @param downsampling downsampling method
+	 * @param maxSamples maximum number of samples, 0 to keep all samples
+	 * @return label and formatted samples
+	 */
+	protected static Tuple<String, TupleSequence<String>> format(TupleSequence<Double> raw, String key, ReportPipeline.Downsampling downsampling, int maxSamples) {
+		ReportPipeline pipeline = new ReportPipeline();
+		String label;
 		switch (key) {
 			case TraceableResource.TRAFFIC:
 			case TraceableResource.USED_BANDWIDTH:
-				return new Tuple<>(key + " in MegaByte", toString(roundTo(changeFileMagnitude(raw, FileSizeHelper.Magnitude.MEGA_BYTE), 0)));
+				label = key + " in MegaByte";
+				pipeline.toFileMagnitude(FileSizeHelper.Magnitude.MEGA_BYTE).roundTo(0);
+				break;
 			case TraceableResource.TOTAL_EARNINGS:
 			case TraceableResource.DEBTS:
-				return new Tuple<>(key + " in $", toString(roundTo(changeMagnitude(raw, 0.01), 4)));
+				label = key + " in $";
+				pipeline.scale(0.01).roundTo(4);
+				break;
 			case TraceableResource.USED_STORAGE_PERCENTAGE:
 			case TraceableResource.USED_BANDWIDTH_PERCENTAGE:
 			case TraceableResource.USED_STORAGE_PERCENTAGE_PHYSICAL:
 			case TraceableResource.USED_STORAGE_PERCENTAGE_VIRTUAL:
-				return new Tuple<>(key + " in % ", toString(roundTo(changeMagnitude(raw, 100), 2)));
+				label = key + " in % ";
+				pipeline.scale(100).roundTo(2);
+				break;
 			case TraceableResource.NUM_REQUESTS_LIST:
 			case TraceableResource.NUM_REQUESTS:
 			case TraceableResource.NUM_REQUESTS_OTHER:
 			case StorageBroker.NUM_TOTAL_REQUESTS:
-				return new Tuple<>("total " + key, toString(raw));
+				label = "total " + key;
+				break;
 			case TraceableResource.NUM_REQUESTS_LIST_PER_SECOND:
 			case TraceableResource.NUM_REQUESTS_PER_SECOND:
 			case TraceableResource.NUM_REQUESTS_OTHER_PER_SECOND:
 			case StorageBroker.NUM_REQUESTS_PER_SECOND:
-				return new Tuple<>("request per second " + key, toString(raw));
+				label = "request per second " + key;
+				break;
 			case TraceableResource.NUM_REQUESTS_LIST_PER_MINUTE:
 			case TraceableResource.NUM_REQUESTS_PER_MINUTE:
 			case TraceableResource.NUM_REQUESTS_OTHER_PER_MINUTE:
 			case StorageBroker.NUM_REQUESTS_PER_MINUTE:
-				return new Tuple<>("request per minute " + key, toString(raw));
+				label = "request per minute " + key;
+				break;
 			default:
-				return new Tuple<>(key + " in GigaByte", toString(roundTo(changeFileMagnitude(raw, FileSizeHelper.Magnitude.GIGA_BYTE), 4)));
+				label = key + " in GigaByte";
+				pipeline.toFileMagnitude(FileSizeHelper.Magnitude.GIGA_BYTE).roundTo(4);
 		}
+		if(maxSamples > 0)
+			pipeline.downsample(downsampling, maxSamples);
+		return new Tuple<>(label, toString(pipeline.apply(raw)));
 	}
 
 	public static TupleSequence<Double> roundTo(TupleSequence<Double> raw, int decimalDigits) {
-		TupleSequence<Double> result = new TupleSequence<>();
-		for(Tuple<Long, Double> t : raw) {
-			result.add(new Tuple<>(t.x, Double.valueOf(String.format(Locale.US, "%1$."+ decimalDigits + "f", t.y))));
-		}
-		return result;
+		return new ReportPipeline().roundTo(decimalDigits).apply(raw);
 	}
 
 	public static TupleSequence<Double> changeFileMagnitude(TupleSequence<Double> raw, FileSizeHelper.Magnitude magnitude) {
-		TupleSequence<Double> result = new TupleSequence<>();
-		for(Tuple<Long, Double> t : raw) {
-			result.add(new Tuple<>(t.x, FileSizeHelper.fromBytes(t.y.longValue(), magnitude)));
-		}
-		return result;
+		return new ReportPipeline().toFileMagnitude(magnitude).apply(raw);
 	}
 
 	public static TupleSequence<Double> changeMagnitude(TupleSequence<Double> raw, double scale) {
-		TupleSequence<Double> result = new TupleSequence<>();
-        if (raw != null)
-        {
-            for(Tuple<Long, Double> t : raw) {
-                result.add(new Tuple<>(t.x, t.y * scale));
-            }
-        }
-		return result;
+		return new ReportPipeline().scale(scale).apply(raw);
 	}
 
 	public static TupleSequence<Double> removeDoublicateValues(TupleSequence<Double> in, double epsilon) {
-		TupleSequence<Double> result = new TupleSequence<>();
-        if (in != null) {
-            double lastValue = Double.NEGATIVE_INFINITY;
-            long lastX = Long.MIN_VALUE;
-            for (Tuple<Long, Double> t : in) {
-                if (Math.abs(t.y - lastValue) >= epsilon || lastX != t.x) {
-                    result.add(new Tuple<>(t.x, t.y));
-                    lastValue = t.y;
-                    lastX = t.x;
-                }
-            }
-        }
-		return result;
+		return new ReportPipeline().removeDuplicates(epsilon).apply(in);
 	}
 
 	public static TupleSequence<Double> removeDoublicateValues(TupleSequence<Double> in) {
@@ -143,6 +223,7 @@ public abstract class ReportGenerator {
 
 	private static TupleSequence<String> toString(TupleSequence<Double> raw, String prefix, String suffix) {
 		TupleSequence<String> result = new TupleSequence<>();
+		result.ensureCapacity(raw.size());
 		for(Tuple<Long, Double> t : raw) {
 			result.add(new Tuple<>(t.x, prefix + String.valueOf(t.y) + suffix));
 		}
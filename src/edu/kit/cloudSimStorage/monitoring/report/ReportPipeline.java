@@ -0,0 +1,317 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.helper.FileSizeHelper;
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
+import edu.kit.cloudSimStorage.monitoring.Tuple;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Transforms a sample sequence for a report in one pass, without intermediate sequences.
+ * <p/>
+ * The transformations are applied in the order in which they have been added. Every transformation behaves exactly like
+ * its counterpart in {@link ReportGenerator} ({@link ReportGenerator#changeMagnitude}, {@link
+ * ReportGenerator#changeFileMagnitude}, {@link ReportGenerator#roundTo}, {@link ReportGenerator#removeDoublicateValues}),
+ * so a chain of those calls can be replaced by one pipeline. Optionally the result is downsampled to a maximum number of
+ * samples as last step.
+ * <p/>
+ * Usage: {@code new ReportPipeline().toFileMagnitude(GIGA_BYTE).roundTo(2).removeDuplicates(0.01).apply(samples)}
+ */
+public class ReportPipeline {
+	private static final int SCALE = 0, FILE_MAGNITUDE = 1, ROUND = 2, DEDUPE = 3;
+	private static final double[] POWERS_OF_TEN = {1, 10, 100, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+	public static enum Downsampling {
+		/** keep all samples */
+		NONE,
+		/** Largest-Triangle-Three-Buckets: keeps the samples that preserve the visual shape of the sequence */
+		LTTB,
+		/** keeps the minimum and the maximum of every bucket */
+		MIN_MAX
+	}
+
+	private int[] operations = new int[4];
+	private double[] parameters = new double[4];
+	private FileSizeHelper.Magnitude[] magnitudes = new FileSizeHelper.Magnitude[4];
+	private int numOperations;
+
+	private Downsampling downsampling = Downsampling.NONE;
+	private int maxSamples;
+
+	private ReportPipeline add(int operation, double parameter, FileSizeHelper.Magnitude magnitude) {
+		if (numOperations == operations.length) {
+			operations = Arrays.copyOf(operations, numOperations * 2);
+			parameters = Arrays.copyOf(parameters, numOperations * 2);
+			magnitudes = Arrays.copyOf(magnitudes, numOperations * 2);
+		}
+		operations[numOperations] = operation;
+		parameters[numOperations] = parameter;
+		magnitudes[numOperations] = magnitude;
+		numOperations++;
+		return this;
+	}
+
+	/**
+	 * Multiplies every value with a factor.
+	 *
+	 * @param factor the factor
+	 * @return this pipeline
+	 */
+	public ReportPipeline scale(double factor) {
+		return add(SCALE, factor, null);
+	}
+
+	/**
+	 * Converts every value from bytes (the fraction is cut off) into another magnitude.
+	 *
+	 * @param magnitude target magnitude
+	 * @return this pipeline
+	 */
+	public ReportPipeline toFileMagnitude(FileSizeHelper.Magnitude magnitude) {
+		return add(FILE_MAGNITUDE, 0, magnitude);
+	}
+
+	/**
+	 * Rounds every value half up to a number of decimal digits.
+	 *
+	 * @param decimalDigits number of decimal digits, at least 0
+	 * @return this pipeline
+	 */
+	public ReportPipeline roundTo(int decimalDigits) {
+		if (decimalDigits < 0)
+			throw new IllegalArgumentException("number of decimal digits must not be negative");
+		return add(ROUND, decimalDigits, null);
+	}
+
+	/**
+	 * Drops every sample that has the same timestamp as the last kept sample and a value that differs less than epsilon
+	 * from it.
+	 *
+	 * @param epsilon minimal difference of values
+	 * @return this pipeline
+	 */
+	public ReportPipeline removeDuplicates(double epsilon) {
+		return add(DEDUPE, epsilon, null);
+	}
+
+	/**
+	 * Downsamples the result as last step, if it has more samples than allowed.
+	 *
+	 * @param method     the method
+	 * @param maxSamples maximum number of samples in the result, at least 3. Ignored for {@link Downsampling#NONE}
+	 * @return this pipeline
+	 */
+	public ReportPipeline downsample(Downsampling method, int maxSamples) {
+		if (method != Downsampling.NONE && maxSamples < 3)
+			throw new IllegalArgumentException("at least 3 samples have to be kept, but was " + maxSamples);
+		this.downsampling = method;
+		this.maxSamples = maxSamples;
+		return this;
+	}
+
+	/**
+	 * Applies the pipeline.
+	 *
+	 * @param in the input, null is treated as empty sequence
+	 * @return new sequence, the input is not modified
+	 */
+	public TupleSequence<Double> apply(TupleSequence<Double> in) {
+		int n = in == null ? 0 : in.size();
+		long[] x = new long[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			Tuple<Long, Double> t = in.get(i);
+			x[i] = t.x;
+			y[i] = t.y;
+		}
+		return toTupleSequence(x, y, run(x, y, n));
+	}
+
+	/**
+	 * Applies the pipeline.
+	 *
+	 * @param in the input
+	 * @return new sequence, the input is not modified
+	 */
+	public TupleSequence<Double> apply(SampleSeries in) {
+		int n = in.size();
+		long[] x = new long[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = in.getTimestamp(i);
+			y[i] = in.getValue(i);
+		}
+		return toTupleSequence(x, y, run(x, y, n));
+	}
+
+	private static TupleSequence<Double> toTupleSequence(long[] x, double[] y, int n) {
+		TupleSequence<Double> result = new TupleSequence<>();
+		result.ensureCapacity(n);
+		for (int i = 0; i < n; i++)
+			result.add(x[i], y[i]);
+		return result;
+	}
+
+	/**
+	 * Runs the pipeline in place.
+	 *
+	 * @return number of samples in the result, which are at the beginning of the arrays
+	 */
+	private int run(long[] x, double[] y, int n) {
+		//state of the dedupe operations: last kept value and timestamp
+		double[] lastValue = new double[numOperations];
+		long[] lastX = new long[numOperations];
+		Arrays.fill(lastValue, Double.NEGATIVE_INFINITY);
+		Arrays.fill(lastX, Long.MIN_VALUE);
+
+		int size = 0;
+		samples:
+		for (int i = 0; i < n; i++) {
+			double v = y[i];
+			for (int op = 0; op < numOperations; op++) {
+				switch (operations[op]) {
+					case SCALE:
+						v *= parameters[op];
+						break;
+					case FILE_MAGNITUDE:
+						v = FileSizeHelper.fromBytes((long) v, magnitudes[op]);
+						break;
+					case ROUND:
+						v = round(v, (int) parameters[op]);
+						break;
+					case DEDUPE:
+						if (!(Math.abs(v - lastValue[op]) >= parameters[op] || lastX[op] != x[i]))
+							continue samples;
+						lastValue[op] = v;
+						lastX[op] = x[i];
+						break;
+				}
+			}
+			x[size] = x[i];
+			y[size] = v;
+			size++;
+		}
+
+		if (size <= maxSamples)
+			return size;
+		switch (downsampling) {
+			case LTTB:
+				return largestTriangleThreeBuckets(x, y, size, maxSamples);
+			case MIN_MAX:
+				return minMax(x, y, size, maxSamples);
+			default:
+				return size;
+		}
+	}
+
+	/**
+	 * Rounds half up, same result as formatting the value with {@code %.nf} and parsing it again, but without creating
+	 * strings unless the value is (almost) exactly between two results.
+	 *
+	 * @param value         the value
+	 * @param decimalDigits number of decimal digits
+	 * @return rounded value
+	 */
+	static double round(double value, int decimalDigits) {
+		if (decimalDigits < POWERS_OF_TEN.length && !Double.isNaN(value) && !Double.isInfinite(value)) {
+			double p = POWERS_OF_TEN[decimalDigits];
+			double scaled = value * p;
+			if (Math.abs(scaled) < 1e15) {
+				//the product and the decimal representation that is formatted can both be off by a few ulps
+				double fraction = scaled - Math.floor(scaled);
+				if (Math.abs(fraction - 0.5) > 1e-6 + 8 * Math.ulp(scaled)) {
+					double result = Math.round(scaled) / p;
+					return result == 0 ? Math.copySign(0.0, value) : result;
+				}
+			}
+		}
+		return Double.valueOf(String.format(Locale.US, "%1$." + decimalDigits + "f", value));
+	}
+
+	/** keeps the first and last sample and the sample of every bucket that forms the largest triangle with its neighbours */
+	private static int largestTriangleThreeBuckets(long[] x, double[] y, int n, int threshold) {
+		double bucketSize = (double) (n - 2) / (threshold - 2);
+		int a = 0;
+		int size = 1; //first sample stays at index 0
+		for (int bucket = 0; bucket < threshold - 2; bucket++) {
+			int start = (int) (bucket * bucketSize) + 1;
+			int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+			//average of the next bucket
+			int nextStart = end;
+			int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+			double avgX = 0, avgY = 0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				avgX += x[i];
+				avgY += y[i];
+			}
+			avgX /= nextEnd - nextStart;
+			avgY /= nextEnd - nextStart;
+
+			int selected = start;
+			double maxArea = -1;
+			for (int i = start; i < end; i++) {
+				double area = Math.abs((x[a] - avgX) * (y[i] - y[a]) - (x[a] - x[i]) * (avgY - y[a]));
+				if (area > maxArea) {
+					maxArea = area;
+					selected = i;
+				}
+			}
+			x[size] = x[selected];
+			y[size] = y[selected];
+			size++;
+			//the selected sample has been moved to index size - 1, which is before every unprocessed sample
+			a = size - 1;
+		}
+		x[size] = x[n - 1];
+		y[size] = y[n - 1];
+		return size + 1;
+	}
+
+	/** keeps the first and last sample and the minimum and maximum of every bucket, in order of time */
+	private static int minMax(long[] x, double[] y, int n, int threshold) {
+		int buckets = (threshold - 2) / 2;
+		if (buckets == 0)
+			return largestTriangleThreeBuckets(x, y, n, threshold);
+		double bucketSize = (double) (n - 2) / buckets;
+		int size = 1;
+		for (int bucket = 0; bucket < buckets; bucket++) {
+			int start = (int) (bucket * bucketSize) + 1;
+			int end = (int) ((bucket + 1) * bucketSize) + 1;
+			if (start >= end)
+				continue;
+			int min = start, max = start;
+			for (int i = start + 1; i < end; i++) {
+				if (y[i] < y[min])
+					min = i;
+				if (y[i] > y[max])
+					max = i;
+			}
+			int first = Math.min(min, max), second = Math.max(min, max);
+			long secondX = x[second];
+			double secondY = y[second];
+			x[size] = x[first];
+			y[size] = y[first];
+			size++;
+			if (second != first) {
+				x[size] = secondX;
+				y[size] = secondY;
+				size++;
+			}
+		}
+		x[size] = x[n - 1];
+		y[size] = y[n - 1];
+		return size + 1;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.monitoring.TraceableResource;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Remembers the samples of resources, so that several reports of a finished simulation compute every sequence only once.
+ * <p/>
+ * Every sequence is computed by the first thread that asks for it, other threads wait for that result. Callers get a
+ * copy of the sequence and can modify it. The resources must not change while the cache is used.
+ */
+public class SampleCache {
+	private final Map<TraceableResource, CachedResource> resources = new IdentityHashMap<>();
+
+	/**
+	 * Returns a view of the resource whose samples are cached.
+	 *
+	 * @param resource the resource
+	 * @return cached view of the resource, the same for every call with the same resource
+	 */
+	public synchronized TraceableResource get(TraceableResource resource) {
+		CachedResource cached = resources.get(resource);
+		if (cached == null) {
+			cached = new CachedResource(resource);
+			resources.put(resource, cached);
+		}
+		return cached;
+	}
+
+	private static class CachedResource implements TraceableResource {
+		/** marks that the resource returned null for a key */
+		private static final TupleSequence<Double> NO_SAMPLES = new TupleSequence<>();
+
+		private final TraceableResource resource;
+		private final ConcurrentMap<String, FutureTask<TupleSequence<Double>>> samples = new ConcurrentHashMap<>();
+
+		CachedResource(TraceableResource resource) {
+			this.resource = resource;
+		}
+
+		@Override
+		public TupleSequence<Double> getSamples(final String key) {
+			FutureTask<TupleSequence<Double>> task = samples.get(key);
+			if (task == null) {
+				FutureTask<TupleSequence<Double>> newTask = new FutureTask<>(new java.util.concurrent.Callable<TupleSequence<Double>>() {
+					@Override
+					public TupleSequence<Double> call() throws Exception {
+						TupleSequence<Double> result = resource.getSamples(key);
+						return result == null ? NO_SAMPLES : result;
+					}
+				});
+				task = samples.putIfAbsent(key, newTask);
+				if (task == null) {
+					task = newTask;
+					task.run();
+				}
+			}
+
+			TupleSequence<Double> result;
+			try {
+				result = task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while waiting for samples of '" + key + "'", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException("could not compute samples of '" + key + "'", e.getCause());
+			}
+			return result == NO_SAMPLES ? null : new TupleSequence<>(result);
+		}
+
+		@Override
+		public String[] getAvailableTrackingKeys() {
+			return resource.getAvailableTrackingKeys();
+		}
+
+		@Override
+		public String toString() {
+			return resource.toString();
+		}
+	}
+}
@@ -20,7 +20,7 @@ public class Min extends SequenceValueOperation {
 
 	@Override
 	public void addSample(double val) {
-		val = Math.min(val, this.val);
+		this.val = Math.min(val, this.val);
 	}
 
 	@Override
@@ -9,13 +9,12 @@
  */
 package edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations;
 
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
 import edu.kit.cloudSimStorage.monitoring.Tuple;
 import edu.kit.cloudSimStorage.monitoring.TupleSequence;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleKeyUniquifyPolicies.*;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleValueOperations.Division;
-import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleValueOperations.Min;
 import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleValueOperations.SequenceValueOperation;
-import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SampleValueOperations.Sum;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,46 +30,78 @@ public class SequenceOperations {
 	 * Calculates the sum of each group of {@link edu.kit.cloudSimStorage.monitoring.Tuple}s that have the same X value in multiple {@link edu.kit.cloudSimStorage.monitoring.TupleSequence}s.
 	 *
 	 * If a sequence contains multiple samples with the same X value, the sum of these values will be taken into account.
+	 * This fits sequences whose samples are separate amounts. Sequences of levels, like the used storage of a server or a
+	 * running total of events, have to be summed with {@link #sumOfLevels(List)}.
+	 * The inputs must be sorted and are not modified.
 	 *
 	 * @param inputs
 	 * @return one sequence of tuples where each tuple is the sum  of all input sequences for it's index
 	 */
 	public static TupleSequence<Double> sum(List<TupleSequence<Double>> inputs) {
-		for(int i = 0; i < inputs.size(); i++)
-			inputs.set(i, UniquifyPolicy.uniquifyIndex(inputs.get(i), ValueSumPolicy.class));
-		return fold(TupleSequence.align(inputs, 0.0), new Sum());
+		return StepFunctionMerge.sum(inputs);
+	}
+
+	/**
+	 * Calculates the sum of sequences of levels, e.g. the used storage of several servers.
+	 *
+	 * If a sequence contains multiple samples with the same X value, only the last of these is taken into account.
+	 * The inputs must be sorted and are not modified.
+	 *
+	 * @param inputs the sequences
+	 * @return one sequence with the sum of the levels of all input sequences for every distinct X value
+	 */
+	public static TupleSequence<Double> sumOfLevels(List<TupleSequence<Double>> inputs) {
+		return StepFunctionMerge.sumOfLevels(inputs);
 	}
 
 	/**
 	 * Selects the min of each group of {@link edu.kit.cloudSimStorage.monitoring.Tuple}s that have the same X value in multiple {@link edu.kit.cloudSimStorage.monitoring.TupleSequence}s.
 	 *
 	 * If a sequence contains multiple samples with the minimum of these will be taken into account
+	 * A sequence takes part in the minimum from its first sample on, empty sequences are ignored.
+	 * The inputs must be sorted and are not modified.
 	 *
 	 * @param inputs set of input sequences
 	 * @return one sequence of tuples where each tuple is the minimum of all input sequences for it's index
 	 */
 	public static TupleSequence<Double> min(List<TupleSequence<Double>> inputs) {
-		for(int i = 0; i < inputs.size(); i++)
-			inputs.set(i, uniquifyIndex_takeMinValue(inputs.get(i)));
-		return fold(TupleSequence.align(inputs, 0.0), new Min());
+		return StepFunctionMerge.min(inputs);
 	}
 
 	/**
 	 * Divides one tuple sequence from another.
 	 *
-	 * If a sequence contains multiple samples for one X value, the last will be chosen.
+	 * If a sequence contains multiple samples for one X value, the last will be chosen. Before the first sample of a
+	 * sequence its value is 1. The inputs must be sorted and are not modified.
 	 *
 	 * @param dividend the dividend
 	 * @param divisor the divisor
 	 * @return tuple-wise division of the two inputs
 	 */
 	public static TupleSequence<Double> divide(TupleSequence<Double> dividend, TupleSequence<Double> divisor) {
-		List<TupleSequence<Double>> list = new ArrayList<>();
-
-		list.add(uniquifyIndex_takeLast(dividend));
-		list.add(uniquifyIndex_takeLast(divisor));
+		TupleSequence<Double> result = new TupleSequence<>();
+		Division division = new Division();
+		double a = 1.0, b = 1.0;
+		int ia = 0, ib = 0;
+		int na = dividend == null ? 0 : dividend.size(), nb = divisor == null ? 0 : divisor.size();
+		while (ia < na || ib < nb) {
+			long t;
+			if (ib == nb || ia < na && dividend.get(ia).x <= divisor.get(ib).x)
+				t = dividend.get(ia).x;
+			else
+				t = divisor.get(ib).x;
+			//take the last sample of each input at t
+			while (ia < na && dividend.get(ia).x == t)
+				a = dividend.get(ia++).y;
+			while (ib < nb && divisor.get(ib).x == t)
+				b = divisor.get(ib++).y;
 
-		return fold(TupleSequence.align(list, 1.0), new Division());
+			division.addSample(a);
+			division.addSample(b);
+			result.add(t, division.getResult());
+			division.reset();
+		}
+		return result;
 	}
 
 	public static TupleSequence<Double> fold(List<TupleSequence<Double>> inputs, SequenceValueOperation combinator) {
@@ -118,6 +149,51 @@ public class SequenceOperations {
 		return result;
 	}
 
+	/**
+	 * Same as {@link #getTotalNumOfEvents(TupleSequence)}, for a series.
+	 *
+	 * @param samples the sorted events
+	 * @return number of events that occurred until each event
+	 */
+	public static TupleSequence<Double> getTotalNumOfEvents(SampleSeries samples) {
+		TupleSequence<Double> result = new TupleSequence<>();
+		result.ensureCapacity(samples.size());
+		for (int i = 0; i < samples.size(); i++)
+			result.add(samples.getTimestamp(i), (double) (i + 1));
+		return result;
+	}
+
+	/**
+	 * Same as {@link #samplesPerTime(long, TupleSequence)}, for a series.
+	 *
+	 * @param timeDistance equidistant size of time buckets.
+	 * @param samples      the sorted events
+	 * @return list of samples, each in given distance, contains the number of events that occurred inside that time slot
+	 */
+	public static TupleSequence<Double> samplesPerTime(long timeDistance, SampleSeries samples) {
+		assert timeDistance > 0;
+		TupleSequence<Double> result = new TupleSequence<>();
+		if (samples.isEmpty())
+			return result;
+
+		double currentTimeBucket = 0;
+		long sweepLine = samples.getTimestamp(0);
+		for (int i = 0; i < samples.size(); i++) {
+			while (samples.getTimestamp(i) - sweepLine > timeDistance) {
+				result.add(sweepLine, currentTimeBucket);
+				sweepLine += timeDistance;
+				currentTimeBucket = 0;
+			}
+			currentTimeBucket++;
+		}
+
+		//add last bucket
+		if (currentTimeBucket > 0)
+			result.add(sweepLine, currentTimeBucket);
+
+		return result;
+	}
+
 		/**
 		 * Counts events per time and creates a list of samples from that data.
 		 *
@@ -0,0 +1,177 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations;
+
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+
+import java.util.List;
+
+/**
+ * Combines k sorted sample sequences into one step function in a single pass.
+ * <p/>
+ * Every input is read as step function: its value at time t is the value of its last sample at or before t. Before its
+ * first sample an input counts as 0 for the sum and does not take part in the minimum. Samples of one input with the same timestamp are combined first (summed up resp. the minimum is
+ * taken), or only the last of them is taken if the inputs are levels like the used storage of a server. The result
+ * contains one sample for every distinct timestamp of all inputs, with the sum resp. minimum of the values of all
+ * inputs at that time - the same as aligning and folding the inputs, without creating aligned copies.
+ * <p/>
+ * The next input to read is taken from a heap of the next timestamps of all inputs, the combined value is kept in a
+ * segment tree over the current values of all inputs. Runtime is O(n log k) for n samples in k inputs.
+ */
+class StepFunctionMerge {
+	private final List<TupleSequence<Double>> inputs;
+	private final boolean takeMin;
+	/** take the last sample of an input for a timestamp instead of combining all samples with that timestamp */
+	private final boolean levels;
+
+	/** position of the next unread sample per input */
+	private final int[] positions;
+
+	/** binary min-heap of inputs with unread samples, ordered by the timestamp of their next sample */
+	private final int[] heap;
+	private final long[] nextTimestamp;
+	private int heapSize;
+
+	/** segment tree over the current values of all inputs. Leaf of input i is at {@code leaves + i}, the root at 1 */
+	private final double[] tree;
+	private final int leaves;
+
+	private StepFunctionMerge(List<TupleSequence<Double>> inputs, boolean takeMin, boolean levels) {
+		this.inputs = inputs;
+		this.takeMin = takeMin;
+		this.levels = levels;
+		int k = inputs.size();
+		positions = new int[k];
+		heap = new int[k];
+		nextTimestamp = new long[k];
+
+		int n = 1;
+		while (n < k)
+			n <<= 1;
+		leaves = n;
+		tree = new double[2 * n];
+		for (int i = 0; i < n; i++)
+			tree[n + i] = identity();
+		for (int i = n - 1; i > 0; i--)
+			tree[i] = combine(tree[2 * i], tree[2 * i + 1]);
+
+		for (int i = 0; i < k; i++) {
+			TupleSequence<Double> in = inputs.get(i);
+			if (in != null && !in.isEmpty()) {
+				nextTimestamp[i] = in.get(0).x;
+				push(i);
+			}
+		}
+	}
+
+	/**
+	 * Sums up the step functions of all inputs.
+	 *
+	 * @param inputs sorted sequences, null or empty sequences are treated as constantly 0
+	 * @return sum of the inputs for every distinct timestamp
+	 */
+	static TupleSequence<Double> sum(List<TupleSequence<Double>> inputs) {
+		return new StepFunctionMerge(inputs, false, false).run();
+	}
+
+	/**
+	 * Sums up the step functions of inputs whose samples are levels: the last sample of an input for a timestamp is the
+	 * value of that input, earlier samples with the same timestamp are intermediate values.
+	 *
+	 * @param inputs sorted sequences, null or empty sequences are treated as constantly 0
+	 * @return sum of the inputs for every distinct timestamp
+	 */
+	static TupleSequence<Double> sumOfLevels(List<TupleSequence<Double>> inputs) {
+		return new StepFunctionMerge(inputs, false, true).run();
+	}
+
+	/**
+	 * Takes the minimum of the step functions of all inputs. Only inputs that already have a sample at or before a
+	 * timestamp are taken into account.
+	 *
+	 * @param inputs sorted sequences, null or empty sequences are ignored
+	 * @return minimum of the inputs for every distinct timestamp
+	 */
+	static TupleSequence<Double> min(List<TupleSequence<Double>> inputs) {
+		return new StepFunctionMerge(inputs, true, false).run();
+	}
+
+	private TupleSequence<Double> run() {
+		TupleSequence<Double> result = new TupleSequence<>();
+		while (heapSize > 0) {
+			long t = nextTimestamp[heap[0]];
+			while (heapSize > 0 && nextTimestamp[heap[0]] == t) {
+				int i = pop();
+				TupleSequence<Double> in = inputs.get(i);
+				int p = positions[i];
+				double value = in.get(p++).y;
+				while (p < in.size() && in.get(p).x == t) {
+					double next = in.get(p++).y;
+					value = levels ? next : combine(value, next);
+				}
+				assert p == in.size() || in.get(p).x > t : "input " + i + " is not sorted";
+				positions[i] = p;
+				update(i, value);
+				if (p < in.size()) {
+					nextTimestamp[i] = in.get(p).x;
+					push(i);
+				}
+			}
+			result.add(t, tree[1]);
+		}
+		return result;
+	}
+
+	private double identity() {
+		return takeMin ? Double.POSITIVE_INFINITY : 0.0;
+	}
+
+	private double combine(double a, double b) {
+		return takeMin ? Math.min(a, b) : a + b;
+	}
+
+	private void update(int input, double value) {
+		int node = leaves + input;
+		tree[node] = value;
+		for (node >>= 1; node > 0; node >>= 1)
+			tree[node] = combine(tree[2 * node], tree[2 * node + 1]);
+	}
+
+	private void push(int input) {
+		int child = heapSize++;
+		while (child > 0) {
+			int parent = (child - 1) >> 1;
+			if (nextTimestamp[heap[parent]] <= nextTimestamp[input])
+				break;
+			heap[child] = heap[parent];
+			child = parent;
+		}
+		heap[child] = input;
+	}
+
+	private int pop() {
+		int top = heap[0];
+		int last = heap[--heapSize];
+		int parent = 0;
+		while (true) {
+			int child = 2 * parent + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && nextTimestamp[heap[child + 1]] < nextTimestamp[heap[child]])
+				child++;
+			if (nextTimestamp[last] <= nextTimestamp[heap[child]])
+				break;
+			heap[parent] = heap[child];
+			parent = child;
+		}
+		heap[parent] = last;
+		return top;
+	}
+}
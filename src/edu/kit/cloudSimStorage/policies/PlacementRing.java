@@ -0,0 +1,261 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consistent hashing ring that maps objects to drives.
+ * <p/>
+ * Every drive owns a number of tokens on the ring proportional to its capacity (at least one). An object is hashed onto
+ * the ring and stored on the drives owning the next tokens clockwise, replicas are spread over different servers as long
+ * as possible. Adding a server only inserts its tokens, so only objects whose position is taken over by the new
+ * server's drives would move.
+ * <p/>
+ * A ring is immutable, {@link #withServer(ObjectStorageServer)} and {@link #withoutServer(ObjectStorageServer)} return a
+ * new ring. Rings can therefore be shared by containers. The drives of a server are read when the server is added.
+ */
+public class PlacementRing {
+	/** 64 tokens per TB */
+	public static final long DEFAULT_BYTES_PER_TOKEN = 16l * 1024 * 1024 * 1024;
+
+	private final long bytesPerToken;
+
+	/** positions of the tokens, sorted */
+	private final long[] tokens;
+	/** owning drive of every token, index into {@link #driveServers} and {@link #driveNames} */
+	private final int[] owners;
+	private final ObjectStorageServer[] driveServers;
+	private final String[] driveNames;
+	private final List<ObjectStorageServer> servers;
+	private final Set<ObjectStorageServer> serverSet;
+
+	/** creates an empty ring with {@link #DEFAULT_BYTES_PER_TOKEN} */
+	public PlacementRing() {
+		this(DEFAULT_BYTES_PER_TOKEN);
+	}
+
+	/**
+	 * Creates an empty ring.
+	 *
+	 * @param bytesPerToken capacity of a drive per token on the ring
+	 */
+	public PlacementRing(long bytesPerToken) {
+		this(bytesPerToken, new long[0], new int[0], new ObjectStorageServer[0], new String[0], new ArrayList<ObjectStorageServer>());
+		if (bytesPerToken <= 0)
+			throw new IllegalArgumentException("bytes per token must be positive, but was " + bytesPerToken);
+	}
+
+	private PlacementRing(long bytesPerToken, long[] tokens, int[] owners, ObjectStorageServer[] driveServers, String[] driveNames, List<ObjectStorageServer> servers) {
+		this.bytesPerToken = bytesPerToken;
+		this.tokens = tokens;
+		this.owners = owners;
+		this.driveServers = driveServers;
+		this.driveNames = driveNames;
+		this.servers = Collections.unmodifiableList(servers);
+		this.serverSet = new HashSet<>(servers);
+	}
+
+	/**
+	 * Returns a ring that contains the drives of a server as well.
+	 *
+	 * @param server the server to add
+	 * @return new ring, or this ring if the server is part of it already
+	 */
+	public PlacementRing withServer(ObjectStorageServer server) {
+		if (contains(server))
+			return this;
+
+		List<String> labels = server.getAvailableDiskLabels();
+		Collections.sort(labels);
+		int numDrives = driveNames.length + labels.size();
+		ObjectStorageServer[] newDriveServers = Arrays.copyOf(driveServers, numDrives);
+		String[] newDriveNames = Arrays.copyOf(driveNames, numDrives);
+
+		//tokens of the new drives
+		List<Long> addedTokens = new ArrayList<>();
+		List<Integer> addedOwners = new ArrayList<>();
+		for (int i = 0; i < labels.size(); i++) {
+			int drive = driveNames.length + i;
+			newDriveServers[drive] = server;
+			newDriveNames[drive] = labels.get(i);
+			long numTokens = Math.max(1, server.getDriveCapacity(labels.get(i)) / bytesPerToken);
+			for (long t = 0; t < numTokens; t++) {
+				addedTokens.add(hash(server.getId() + "/" + labels.get(i) + "#" + t));
+				addedOwners.add(drive);
+			}
+		}
+		Integer[] order = sortedOrder(addedTokens);
+
+		//merge the sorted new tokens into the existing ones
+		long[] newTokens = new long[tokens.length + order.length];
+		int[] newOwners = new int[newTokens.length];
+		int i = 0, j = 0;
+		for (int k = 0; k < newTokens.length; k++) {
+			if (j == order.length || (i < tokens.length && tokens[i] <= addedTokens.get(order[j]))) {
+				newTokens[k] = tokens[i];
+				newOwners[k] = owners[i++];
+			} else {
+				newTokens[k] = addedTokens.get(order[j]);
+				newOwners[k] = addedOwners.get(order[j++]);
+			}
+		}
+
+		List<ObjectStorageServer> newServers = new ArrayList<>(servers);
+		newServers.add(server);
+		return new PlacementRing(bytesPerToken, newTokens, newOwners, newDriveServers, newDriveNames, newServers);
+	}
+
+	private static Integer[] sortedOrder(final List<Long> values) {
+		Integer[] order = new Integer[values.size()];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(values.get(o1), values.get(o2));
+			}
+		});
+		return order;
+	}
+
+	/**
+	 * Returns a ring without the drives of a server.
+	 *
+	 * @param server the server to remove
+	 * @return new ring, or this ring if the server is not part of it
+	 */
+	public PlacementRing withoutServer(ObjectStorageServer server) {
+		if (!contains(server))
+			return this;
+
+		int[] newDriveIndex = new int[driveNames.length];
+		List<ObjectStorageServer> newDriveServers = new ArrayList<>();
+		List<String> newDriveNames = new ArrayList<>();
+		for (int d = 0; d < driveNames.length; d++) {
+			if (driveServers[d] == server) {
+				newDriveIndex[d] = -1;
+			} else {
+				newDriveIndex[d] = newDriveNames.size();
+				newDriveServers.add(driveServers[d]);
+				newDriveNames.add(driveNames[d]);
+			}
+		}
+
+		int size = 0;
+		long[] newTokens = new long[tokens.length];
+		int[] newOwners = new int[tokens.length];
+		for (int k = 0; k < tokens.length; k++) {
+			if (newDriveIndex[owners[k]] >= 0) {
+				newTokens[size] = tokens[k];
+				newOwners[size++] = newDriveIndex[owners[k]];
+			}
+		}
+
+		List<ObjectStorageServer> newServers = new ArrayList<>(servers);
+		newServers.remove(server);
+		return new PlacementRing(bytesPerToken, Arrays.copyOf(newTokens, size), Arrays.copyOf(newOwners, size),
+				newDriveServers.toArray(new ObjectStorageServer[newDriveServers.size()]), newDriveNames.toArray(new String[newDriveNames.size()]), newServers);
+	}
+
+	public boolean contains(ObjectStorageServer server) {
+		return serverSet.contains(server);
+	}
+
+	/** @return all servers of the ring, in the order they have been added */
+	public List<ObjectStorageServer> getServers() {
+		return servers;
+	}
+
+	/** @return number of tokens on the ring */
+	public int getNumTokens() {
+		return tokens.length;
+	}
+
+	/**
+	 * Returns the locations for the replicas of an object.
+	 * <p/>
+	 * Walks the ring clockwise from the position of the object and takes every drive that has enough space left and does
+	 * not hold the object yet. Drives on servers that already have a replica are only taken, if there are not enough
+	 * servers. The walk ends as soon as enough locations have been found, usually after a few tokens.
+	 *
+	 * @param objectID     the object
+	 * @param numLocations number of locations (replicas)
+	 * @param size         physical size of the object in bytes
+	 * @param exclude      locations that hold the object already, can be null
+	 * @return at most numLocations locations, less if there are not enough drives with space left
+	 */
+	public List<StorageBlobLocation> getLocations(CdmiId objectID, int numLocations, long size, List<StorageBlobLocation> exclude) {
+		List<StorageBlobLocation> result = new ArrayList<>(numLocations);
+		if (tokens.length == 0 || numLocations <= 0)
+			return result;
+
+		Set<Integer> visitedDrives = new HashSet<>();
+		Set<ObjectStorageServer> usedServers = new HashSet<>();
+		List<Integer> sameServerDrives = new ArrayList<>();
+		int start = ceilingIndex(hash(objectID.toString()));
+		for (int k = 0; k < tokens.length && result.size() < numLocations; k++) {
+			int drive = owners[(start + k) % tokens.length];
+			if (!visitedDrives.add(drive) || isExcluded(drive, exclude) || !driveServers[drive].probeDisk(driveNames[drive], size))
+				continue;
+			if (usedServers.add(driveServers[drive]))
+				result.add(new StorageBlobLocation(objectID, driveServers[drive], driveNames[drive]));
+			else
+				sameServerDrives.add(drive);
+			if (usedServers.size() == servers.size() && result.size() + sameServerDrives.size() >= numLocations)
+				break;
+		}
+		for (int i = 0; i < sameServerDrives.size() && result.size() < numLocations; i++)
+			result.add(new StorageBlobLocation(objectID, driveServers[sameServerDrives.get(i)], driveNames[sameServerDrives.get(i)]));
+		return result;
+	}
+
+	private boolean isExcluded(int drive, List<StorageBlobLocation> exclude) {
+		if (exclude == null)
+			return false;
+		for (StorageBlobLocation location : exclude)
+			if (location.getServer() == driveServers[drive] && location.getDriveName().equals(driveNames[drive]))
+				return true;
+		return false;
+	}
+
+	/** @return index of the first token at or after the position, wraps around */
+	private int ceilingIndex(long position) {
+		int index = Arrays.binarySearch(tokens, position);
+		if (index < 0)
+			index = -index - 1;
+		return index == tokens.length ? 0 : index;
+	}
+
+	/** FNV-1a, followed by the finalizer of MurmurHash3 to spread the bits */
+	static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import edu.kit.cloudSimStorage.helper.TimeHelper;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Chooses the replica of an object that is read.
+ * <p/>
+ * The load of every candidate is computed at most once per request and the list of candidates is never modified. The
+ * scheduler counts the reads that are running on every server: {@link #readScheduled} has to be called with the end of
+ * every read that has been started on a chosen location.
+ */
+public class ReadScheduler {
+	public static enum Policy {
+		/** the server with the lowest workload ({@link ObjectStorageServer#getTotalWorkload()}) */
+		LOWEST_UTILIZATION,
+		/** two random candidates, the one with the lower workload */
+		POWER_OF_TWO_CHOICES,
+		/** the server with the least running reads, ties are broken by the workload */
+		LEAST_OUTSTANDING_REQUESTS
+	}
+
+	private final Policy policy;
+	private final Random rnd;
+
+	/** server ID -> end times of the reads that have been scheduled on that server */
+	private final HashMap<String, PriorityQueue<Long>> runningReads = new HashMap<>();
+
+	public ReadScheduler() {
+		this(Policy.LOWEST_UTILIZATION, 0);
+	}
+
+	/**
+	 * @param policy the policy
+	 * @param seed   seed of the random choices of {@link Policy#POWER_OF_TWO_CHOICES}, so that simulations can be repeated
+	 */
+	public ReadScheduler(Policy policy, long seed) {
+		if (policy == null)
+			throw new IllegalArgumentException("policy must not be null");
+		this.policy = policy;
+		this.rnd = new Random(seed);
+	}
+
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Chooses the location to read from.
+	 *
+	 * @param candidates locations of the replicas, not modified
+	 * @return the chosen location, null if there is no candidate
+	 */
+	public StorageBlobLocation choose(List<StorageBlobLocation> candidates) {
+		if (candidates.isEmpty())
+			return null;
+		if (candidates.size() == 1)
+			return candidates.get(0);
+
+		switch (policy) {
+			case POWER_OF_TWO_CHOICES:
+				int first = rnd.nextInt(candidates.size());
+				int second = rnd.nextInt(candidates.size() - 1);
+				if (second >= first)
+					second++;
+				StorageBlobLocation a = candidates.get(Math.min(first, second));
+				StorageBlobLocation b = candidates.get(Math.max(first, second));
+				return b.getServer().getTotalWorkload() < a.getServer().getTotalWorkload() ? b : a;
+			case LEAST_OUTSTANDING_REQUESTS:
+				long now = TimeHelper.getInstance().now();
+				StorageBlobLocation best = null;
+				int bestReads = Integer.MAX_VALUE;
+				double bestWorkload = Double.MAX_VALUE;
+				for (StorageBlobLocation candidate : candidates) {
+					int reads = getNumRunningReads(candidate.getServer(), now);
+					if (reads > bestReads)
+						continue;
+					double workload = candidate.getServer().getTotalWorkload();
+					if (reads < bestReads || workload < bestWorkload) {
+						best = candidate;
+						bestReads = reads;
+						bestWorkload = workload;
+					}
+				}
+				return best;
+			default:
+				best = candidates.get(0);
+				bestWorkload = best.getServer().getTotalWorkload();
+				for (int i = 1; i < candidates.size(); i++) {
+					double workload = candidates.get(i).getServer().getTotalWorkload();
+					if (workload < bestWorkload) {
+						best = candidates.get(i);
+						bestWorkload = workload;
+					}
+				}
+				return best;
+		}
+	}
+
+	/**
+	 * Books a read on the server of a location. Reads on that server that have been finished are forgotten, so that the
+	 * bookings do not grow with the number of reads, whether or not the policy asks for the counts.
+	 *
+	 * @param location the location that is read
+	 * @param end      time in ms at which the read is finished
+	 */
+	public void readScheduled(StorageBlobLocation location, long end) {
+		String server = location.getServer().getId();
+		PriorityQueue<Long> reads = runningReads.get(server);
+		if (reads == null) {
+			reads = new PriorityQueue<>();
+			runningReads.put(server, reads);
+		}
+		removeFinished(reads, TimeHelper.getInstance().now());
+		reads.add(end);
+	}
+
+	/**
+	 * @param server the server
+	 * @return number of reads on the server that have not been finished yet
+	 */
+	public int getNumRunningReads(ObjectStorageServer server) {
+		return getNumRunningReads(server, TimeHelper.getInstance().now());
+	}
+
+	private int getNumRunningReads(ObjectStorageServer server, long now) {
+		PriorityQueue<Long> reads = runningReads.get(server.getId());
+		if (reads == null)
+			return 0;
+		removeFinished(reads, now);
+		return reads.size();
+	}
+
+	private static void removeFinished(PriorityQueue<Long> reads, long now) {
+		while (!reads.isEmpty() && reads.peek() <= now)
+			reads.poll();
+	}
+}
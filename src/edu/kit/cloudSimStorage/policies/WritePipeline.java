@@ -0,0 +1,130 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import java.util.Arrays;
+
+/**
+ * Models how the replicas of an object are written and when the write is acknowledged to the client.
+ * <p/>
+ * The client uploads the object to the primary, which is the first replica. The other replicas receive the data while
+ * it arrives, either all directly from the primary ({@link Mode#FAN_OUT}) or each from its predecessor
+ * ({@link Mode#CHAIN}). Every forwarding hop adds a fixed latency. A replica can neither start before its source has
+ * started nor finish before its source has finished. The write is acknowledged as soon as the write quorum of replicas
+ * has finished. The remaining replicas are still written afterwards, the I/O of all replicas has to be booked by the
+ * caller.
+ */
+public class WritePipeline {
+	public static enum Mode {
+		/** the primary sends the data to all other replicas in parallel */
+		FAN_OUT,
+		/** every replica sends the data to the next one */
+		CHAIN
+	}
+
+	private final Mode mode;
+	private final int writeQuorum;
+	private final int hopLatency;
+
+	/**
+	 * @param mode        how the data is sent to the replicas
+	 * @param writeQuorum number of replicas that have to be written before the write is acknowledged, 0 for all
+	 * @param hopLatency  latency in ms of forwarding the data from one replica to another
+	 */
+	public WritePipeline(Mode mode, int writeQuorum, int hopLatency) {
+		if (mode == null)
+			throw new IllegalArgumentException("mode must not be null");
+		if (writeQuorum < 0)
+			throw new IllegalArgumentException("write quorum must not be negative, but was " + writeQuorum);
+		if (hopLatency < 0)
+			throw new IllegalArgumentException("hop latency must not be negative, but was " + hopLatency);
+		this.mode = mode;
+		this.writeQuorum = writeQuorum;
+		this.hopLatency = hopLatency;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public int getWriteQuorum() {
+		return writeQuorum;
+	}
+
+	public int getHopLatency() {
+		return hopLatency;
+	}
+
+	/**
+	 * Calculates when every replica has been written. All times are in ms from now.
+	 *
+	 * @param uploadDelay    start of the upload to the primary
+	 * @param uploadDuration duration of the upload to the primary
+	 * @param delays         start of the write on the drive of each replica, primary first
+	 * @param durations      duration of the write on the drive of each replica
+	 * @return end of the write of each replica
+	 */
+	public int[] getFinishTimes(int uploadDelay, int uploadDuration, int[] delays, int[] durations) {
+		if (delays.length != durations.length)
+			throw new IllegalArgumentException("need one delay and one duration per replica");
+		int[] finished = new int[delays.length];
+		int sourceStart = uploadDelay, sourceEnd = uploadDelay + uploadDuration;
+		for (int i = 0; i < delays.length; i++) {
+			int hop = i == 0 ? 0 : hopLatency;
+			int start = Math.max(sourceStart + hop, delays[i]);
+			finished[i] = Math.max(sourceEnd + hop, start + durations[i]);
+			if (mode == Mode.CHAIN || i == 0) {
+				sourceStart = start;
+				sourceEnd = finished[i];
+			}
+		}
+		return finished;
+	}
+
+	/**
+	 * Calculates when the write is acknowledged to the client. All times are in ms from now.
+	 *
+	 * @param uploadDelay    start of the upload to the primary
+	 * @param uploadDuration duration of the upload to the primary
+	 * @param delays         start of the write on the drive of each replica, primary first
+	 * @param durations      duration of the write on the drive of each replica
+	 * @return time at which the write quorum of replicas has been written, the end of the upload if there are no replicas
+	 */
+	public int getAcknowledgeTime(int uploadDelay, int uploadDuration, int[] delays, int[] durations) {
+		int[] finished = getFinishTimes(uploadDelay, uploadDuration, delays, durations);
+		if (finished.length == 0)
+			return uploadDelay + uploadDuration;
+		Arrays.sort(finished);
+		int quorum = writeQuorum == 0 ? finished.length : Math.min(writeQuorum, finished.length);
+		return finished[quorum - 1];
+	}
+
+	/**
+	 * Parses a pipeline of the form {@code <mode>[:<write quorum>[:<hop latency>]]}, e.g. {@code chain:2:1}.
+	 *
+	 * @param s the string
+	 * @return the pipeline
+	 * @throws IllegalArgumentException if the string is malformed
+	 */
+	public static WritePipeline parse(String s) {
+		String[] parts = s.split(":");
+		if (parts.length > 3)
+			throw new IllegalArgumentException("expected <mode>[:<write quorum>[:<hop latency>]], but was '" + s + "'");
+		Mode mode = Mode.valueOf(parts[0].toUpperCase());
+		int quorum = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+		int hop = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+		return new WritePipeline(mode, quorum, hop);
+	}
+
+	@Override
+	public String toString() {
+		return mode + ":" + writeQuorum + ":" + hopLatency;
+	}
+}
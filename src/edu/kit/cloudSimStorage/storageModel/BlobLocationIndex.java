@@ -0,0 +1,157 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.storageModel;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Knows where the blobs of a set of objects are stored, in both directions: object -> locations and
+ * server -> drive -> blobs.
+ * <p/>
+ * The blobs of an object have the ID of the object, or IDs of their own if the object has been stored in several parts
+ * ({@link edu.kit.cloudSimStorage.cdmi.MultipartLayout}).
+ * <p/>
+ * All lookups cost time in the number of replicas of one object or the number of blobs on one server, but not in the
+ * total number of objects. Lists that are returned are copies and can be modified by the caller.
+ */
+public class BlobLocationIndex {
+	/** locations per object */
+	private final HashMap<CdmiId, List<StorageBlobLocation>> locations = new HashMap<>();
+
+	/** server ID -> drive name -> blob ID -> location. Empty maps are removed */
+	private final HashMap<String, HashMap<String, LinkedHashMap<CdmiId, StorageBlobLocation>>> serverIndex = new HashMap<>();
+
+	/**
+	 * Sets the locations of an object. Previous locations of the object are replaced.
+	 *
+	 * @param id        ID of the object
+	 * @param locations the locations of the blobs of the object, in order of the parts if there are several
+	 */
+	public void put(CdmiId id, List<StorageBlobLocation> locations) {
+		remove(id);
+		List<StorageBlobLocation> copy = new ArrayList<>(locations);
+		for (StorageBlobLocation location : copy) {
+			String serverId = location.getServer().getId();
+			HashMap<String, LinkedHashMap<CdmiId, StorageBlobLocation>> drives = serverIndex.get(serverId);
+			if (drives == null) {
+				drives = new HashMap<>();
+				serverIndex.put(serverId, drives);
+			}
+			LinkedHashMap<CdmiId, StorageBlobLocation> blobs = drives.get(location.getDriveName());
+			if (blobs == null) {
+				blobs = new LinkedHashMap<>();
+				drives.put(location.getDriveName(), blobs);
+			}
+			blobs.put(location.getContentID(), location);
+		}
+		this.locations.put(id, copy);
+	}
+
+	/**
+	 * Removes all locations of an object.
+	 *
+	 * @param id ID of the object
+	 * @return the locations the object had, empty if it was unknown
+	 */
+	public List<StorageBlobLocation> remove(CdmiId id) {
+		List<StorageBlobLocation> removed = locations.remove(id);
+		if (removed == null)
+			return new ArrayList<>();
+		for (StorageBlobLocation location : removed) {
+			HashMap<String, LinkedHashMap<CdmiId, StorageBlobLocation>> drives = serverIndex.get(location.getServer().getId());
+			LinkedHashMap<CdmiId, StorageBlobLocation> blobs = drives == null ? null : drives.get(location.getDriveName());
+			if (blobs == null)
+				continue; //same blob listed twice
+			blobs.remove(location.getContentID());
+			if (blobs.isEmpty()) {
+				drives.remove(location.getDriveName());
+				if (drives.isEmpty())
+					serverIndex.remove(location.getServer().getId());
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * @param id ID of the object
+	 * @return copy of the locations of the object, empty if it is unknown
+	 */
+	public List<StorageBlobLocation> get(CdmiId id) {
+		List<StorageBlobLocation> result = locations.get(id);
+		return result == null ? new ArrayList<StorageBlobLocation>() : new ArrayList<>(result);
+	}
+
+	public boolean contains(CdmiId id) {
+		return locations.containsKey(id);
+	}
+
+	/**
+	 * @param server the server
+	 * @return all locations on the server
+	 */
+	public List<StorageBlobLocation> getLocationsOnServer(ObjectStorageServer server) {
+		List<StorageBlobLocation> result = new ArrayList<>();
+		HashMap<String, LinkedHashMap<CdmiId, StorageBlobLocation>> drives = serverIndex.get(server.getId());
+		if (drives != null)
+			for (Map<CdmiId, StorageBlobLocation> blobs : drives.values())
+				result.addAll(blobs.values());
+		return result;
+	}
+
+	/**
+	 * @param server the server
+	 * @param drive  name of the drive
+	 * @return all locations on one drive of the server
+	 */
+	public List<StorageBlobLocation> getLocationsOnDrive(ObjectStorageServer server, String drive) {
+		HashMap<String, LinkedHashMap<CdmiId, StorageBlobLocation>> drives = serverIndex.get(server.getId());
+		if (drives == null || !drives.containsKey(drive))
+			return new ArrayList<>();
+		return new ArrayList<>(drives.get(drive).values());
+	}
+
+	/**
+	 * @param server the server
+	 * @return true if any blob is on that server
+	 */
+	public boolean hasBlobsOnServer(ObjectStorageServer server) {
+		return serverIndex.containsKey(server.getId());
+	}
+
+	/**
+	 * @param server the server
+	 * @param id     ID of the object
+	 * @return number of blobs (of all parts) of the object on that server
+	 */
+	public int getNumOccurrencesOnServer(ObjectStorageServer server, CdmiId id) {
+		return getUsedDrivesOnServer(server, id).size();
+	}
+
+	/**
+	 * @param server the server
+	 * @param id     ID of the object
+	 * @return names of the drives of the server that hold a blob of the object
+	 */
+	public List<String> getUsedDrivesOnServer(ObjectStorageServer server, CdmiId id) {
+		List<String> result = new ArrayList<>();
+		List<StorageBlobLocation> objectLocations = locations.get(id);
+		if (objectLocations != null)
+			for (StorageBlobLocation location : objectLocations)
+				if (location.getServer().getId().equals(server.getId()))
+					result.add(location.getDriveName());
+		return result;
+	}
+}
@@ -15,6 +15,7 @@ import edu.kit.cloudSimStorage.helper.TimeHelper;
 import edu.kit.cloudSimStorage.monitoring.TraceableResource;
 import edu.kit.cloudSimStorage.monitoring.TraceableResourceAliasing;
 import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import edu.kit.cloudSimStorage.monitoring.Versioned;
 import edu.kit.cloudSimStorage.monitoring.StorageUsageHistory;
 import edu.kit.cloudSimStorage.storageModel.resourceUtilization.TimeawareResourceLimitation;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -41,7 +42,7 @@ import static edu.kit.cloudSimStorage.helper.FileSizeHelper.Magnitude.BYTE;
  * Date: 4/26/13
  * Time: 2:24 PM
  */
-public class ObjectStorageServer implements TraceableResource {
+public class ObjectStorageServer implements TraceableResource, Versioned {
 	/**
 	 * The system-wide unique simulation intern id
 	 * <p/>
@@ -57,6 +58,9 @@ public class ObjectStorageServer implements TraceableResource {
 	private TraceableResourceAliasing trackableSubResources;
 
 	private HashMap<CdmiId, List<IObjectStorageDrive>> objectDriveMapping;
+	/** sum of the capacities of all drives */
+	private long totalCapacity;
+	/** sum of the remaining capacities of all drives, updated on every blob operation */
 	private long currentCapacity;
 	private int ioLimitationsGarbageCounter;
 
@@ -97,6 +101,8 @@ public class ObjectStorageServer implements TraceableResource {
 		for (CdmiId id : drive.getStoredObjectsIDs())
 			drive.deleteObject(id);
 
+		totalCapacity += drive.getCapacity();
+		currentCapacity += drive.getCapacity() - drive.getCurrentSize();
 		return true;
 	}
 
@@ -109,6 +115,17 @@ public class ObjectStorageServer implements TraceableResource {
 		return new ArrayList<>(harddrives.keySet());
 	}
 
+	/**
+	 * Returns the capacity of a drive.
+	 *
+	 * @param name the name of the drive
+	 * @return capacity in bytes, 0 if there is no such drive
+	 */
+	public long getDriveCapacity(String name) {
+		IObjectStorageDrive drive = harddrives.get(name);
+		return drive == null ? 0 : drive.getCapacity();
+	}
+
 	/**
 	 * Checks if there is a disk that has enough space to store a file of the {@code requestedSize}
 	 * <p/>
@@ -178,7 +195,9 @@ public class ObjectStorageServer implements TraceableResource {
 		long size = drive.getStoredObject(location.getContentID()).getPhysicalSize();
 		totalUsage.addUsedStorageDiff(size * -1);
 
+		long usedBefore = drive.getCurrentSize();
 		drive.deleteObject(location.getContentID());
+		currentCapacity -= drive.getCurrentSize() - usedBefore;
 
 		//remove object->drive mapping
 		objectDriveMapping.get(location.getContentID()).remove(drive);
@@ -227,7 +246,10 @@ public class ObjectStorageServer implements TraceableResource {
 				if (!harddrives.containsKey(data.getEntityId())) {
 
 					//store object
-					harddrives.get(drive).addObject(data);
+					IObjectStorageDrive target = harddrives.get(drive);
+					long usedBefore = target.getCurrentSize();
+					target.addObject(data);
+					currentCapacity -= target.getCurrentSize() - usedBefore;
 
 					//track size
 					long size = data.getPhysicalSize();
@@ -236,10 +258,10 @@ public class ObjectStorageServer implements TraceableResource {
 					//add physical location of file to mapping
 					if (!objectDriveMapping.containsKey(data.getEntityId())) {
 						ArrayList<IObjectStorageDrive> tmp = new ArrayList<>();
-						tmp.add(harddrives.get(drive));
+						tmp.add(target);
 						objectDriveMapping.put(data.getEntityId(), tmp);
 					} else
-						objectDriveMapping.get(data.getEntityId()).add(harddrives.get(drive));
+						objectDriveMapping.get(data.getEntityId()).add(target);
 
 					//create blob
 					return new ObjectStorageBlob(new StorageBlobLocation(data.getEntityId(), this, drive), data);
@@ -301,8 +323,8 @@ public class ObjectStorageServer implements TraceableResource {
 		double rate = Math.min(maxRate, harddrives.get(drive).getMaxWriteTransferRate());
 		long amount = blob.getData().getPhysicalSize();
 
-		double hddDuration = harddrives.get(drive).getIOLimitation().use(delay + time(), amount, rate).getDuration() + harddrives.get(drive).getWriteLatency();
-		double serverDuration = ioLimitations.use(delay, amount, maxRate).getDuration();
+		double hddDuration = harddrives.get(drive).getIOLimitation().reserve(delay + time(), amount, rate) + harddrives.get(drive).getWriteLatency();
+		double serverDuration = ioLimitations.reserve(delay, amount, maxRate);
 
 		if(ioLimitationsGarbageCounter++ > 100) {
 			ioLimitationsGarbageCounter = 0;
@@ -340,14 +362,32 @@ public class ObjectStorageServer implements TraceableResource {
 	 * @return duration in ms
 	 */
 	public int calculateReadDuration(ObjectStorageBlob blob, int delay, double maxRate) {
+		return calculateRangeReadDuration(blob, blob.getData().getPhysicalSize(), delay, maxRate);
+	}
+
+	/**
+	 * Calculates the duration of reading a part of a blob at maximum possible rate.
+	 *
+	 * @param blob   the blob to read
+	 * @param amount number of bytes that are read from the blob
+	 * @param delay  the delay before the operation is sent to the drive ({@link #calculateDelay(String)}
+	 * @return duration in ms
+	 */
+	public int calculateRangeReadDuration(ObjectStorageBlob blob, long amount, int delay) {
+		String drive = blob.getLocation().getDriveName();
+		assert harddrives.containsKey(drive);
+		return calculateRangeReadDuration(blob, amount, delay, harddrives.get(drive).getMaxReadTransferRate());
+	}
+
+	private int calculateRangeReadDuration(ObjectStorageBlob blob, long amount, int delay, double maxRate) {
 		String drive = blob.getLocation().getDriveName();
 		assert harddrives.containsKey(drive);
+		assert amount <= blob.getData().getPhysicalSize();
 
 		double rate = Math.min(maxRate, harddrives.get(drive).getMaxReadTransferRate());
-		long amount = blob.getData().getPhysicalSize();
 
-		double hddDuration = harddrives.get(drive).getIOLimitation().use(delay + time(), amount, rate).getDuration() + harddrives.get(drive).getReadLatency();
-		double serverDuration = ioLimitations.use(delay, amount, maxRate).getDuration();
+		double hddDuration = harddrives.get(drive).getIOLimitation().reserve(delay + time(), amount, rate) + harddrives.get(drive).getReadLatency();
+		double serverDuration = ioLimitations.reserve(delay, amount, maxRate);
 		return (int) Math.max(hddDuration, serverDuration);
 	}
 
@@ -357,14 +397,14 @@ public class ObjectStorageServer implements TraceableResource {
 
 		double rate = Math.min(Math.min(harddrives.get(fromDisk).getMaxReadTransferRate(), harddrives.get(toDisk).getMaxWriteTransferRate()), maxRate);
 
-		double hddReadDuration = harddrives.get(fromDisk).getIOLimitation().use(delay + time(), blobSize, rate).getDuration();
+		double hddReadDuration = harddrives.get(fromDisk).getIOLimitation().reserve(delay + time(), blobSize, rate);
 		double avgReadRate = blobSize / hddReadDuration;
 
-		double hddWriteDuration = harddrives.get(toDisk).getIOLimitation().use(delay + time(), blobSize, avgReadRate).getDuration();
+		double hddWriteDuration = harddrives.get(toDisk).getIOLimitation().reserve(delay + time(), blobSize, avgReadRate);
 		double avgTransferRate = blobSize / hddWriteDuration;
 
 		//this includes the two other transfers, because the used max. rate is the min of the avg. read/write operaton
-		double serverDuration = ioLimitations.use(delay + time(), blobSize, avgTransferRate).getDuration();
+		double serverDuration = ioLimitations.reserve(delay + time(), blobSize, avgTransferRate);
 
 
 		return (int) serverDuration;
@@ -402,25 +442,26 @@ public class ObjectStorageServer implements TraceableResource {
 		return trackableSubResources.getAvailableTrackingKeys();
 	}
 
+	@Override
+	public long getVersion() {
+		return trackableSubResources.getVersion();
+	}
+
 	/**
 	 * Sum of capacities of all installed disks in this server
 	 * @return capacity in bytes
 	 */
 	public long getTotalCapacity() {
-		long sum = 0;
-		for(IObjectStorageDrive disk : harddrives.values())
-			sum += disk.getCapacity();
-		return sum;
+		return totalCapacity;
 	}
 
 	/**
 	 * Sum of remaining capacity of all installed disks in this server
+	 * <p/>
+	 * The value is maintained by the blob operations of this server, drives must not be modified directly once installed.
 	 * @return capacity in bytes
 	 */
 	public long getCurrentCapacity() {
-		long sum = 0;
-		for(IObjectStorageDrive disk : harddrives.values())
-			sum += (disk.getCapacity() - disk.getCurrentSize());
-		return sum;
+		return currentCapacity;
 	}
 }
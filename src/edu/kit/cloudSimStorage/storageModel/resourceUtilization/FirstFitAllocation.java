@@ -63,8 +63,27 @@ public class FirstFitAllocation implements TimeawareResourceLimitation {
 	@Override
 	public UtilizationSequence use(long start, double amount, double maxRate) {
 		UtilizationSequence result = new UtilizationSequence();
+		allocate(start, amount, maxRate, result);
+		return result;
+	}
+
+	@Override
+	public long reserve(long start, double amount, double maxRate) {
+		return allocate(start, amount, maxRate, null);
+	}
 
+	/**
+	 * Books the amount in the first free slots after start.
+	 *
+	 * @param start   start timestamp of use (ms of simulation time)
+	 * @param amount  amount of units of the use
+	 * @param maxRate max possible rate of the resource utilization [amount/ms^-1]
+	 * @param result  sequence that receives all produced samples, or null if they are not of interest
+	 * @return duration from the beginning of the first until the end of the last produced sample
+	 */
+	private long allocate(long start, double amount, double maxRate, UtilizationSequence result) {
 		long from = start;
+		long firstBegin = -1, lastEnd = -1;
 		double remainingAmount = amount;
 		double rate = Math.min(maxRate, maxAmountPerTime);
 
@@ -79,9 +98,12 @@ public class FirstFitAllocation implements TimeawareResourceLimitation {
 			if (sampleDuration > 0 && remainingResourceRate > 0) {
 				remainingAmount -= sampleDuration * remainingResourceRate;
 
-				UtilizationSequenceSample use = new UtilizationSequenceSample(from, from + sampleDuration, remainingResourceRate);
-				utilization.insertSample(use);
-				result.insertSample(use);
+				utilization.insertSample(from, from + sampleDuration, remainingResourceRate);
+				if (result != null)
+					result.insertSample(from, from + sampleDuration, remainingResourceRate);
+				if (firstBegin < 0)
+					firstBegin = from;
+				lastEnd = from + sampleDuration;
 			}
 			from = to;
 		}
@@ -89,13 +111,16 @@ public class FirstFitAllocation implements TimeawareResourceLimitation {
 		if (remainingAmount > rate) {
 			long duration = (long) (remainingAmount / rate);
 			remainingAmount -= duration * rate;
-			UtilizationSequenceSample use = new UtilizationSequenceSample(from, from + duration, rate);
-			utilization.insertSample(use);
-			result.insertSample(use);
+			utilization.insertSample(from, from + duration, rate);
+			if (result != null)
+				result.insertSample(from, from + duration, rate);
+			if (firstBegin < 0)
+				firstBegin = from;
+			lastEnd = from + duration;
 		}
 
 		assert remainingAmount < maxRate;
-		return result;
+		return firstBegin < 0 ? 0 : lastEnd - firstBegin;
 	}
 
 	@Override
@@ -121,4 +146,9 @@ public class FirstFitAllocation implements TimeawareResourceLimitation {
 	public double getMaxPossible() {
 		return maxAmountPerTime;
 	}
+
+	@Override
+	public TimeawareResourceLimitation clone() {
+		return new FirstFitAllocation(maxAmountPerTime);
+	}
 }
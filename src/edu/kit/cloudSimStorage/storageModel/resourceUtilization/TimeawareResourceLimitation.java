@@ -47,6 +47,18 @@ public interface TimeawareResourceLimitation {
 	 */
 	UtilizationSequence use(long start, double amount, double maxRate);
 
+	/**
+	 * Use the resource without materializing the produced samples.
+	 * <p/>
+	 * Books the same capacity as {@link #use(long, double, double)}, but only returns the duration of the use.
+	 *
+	 * @param start   start timestamp of use (ms of simulation time)
+	 * @param amount  amount of units of the use
+	 * @param maxRate max possible rate of the resource utilization [amount/ms^-1]
+	 * @return duration from the beginning of the first until the end of the last produced sample in ms
+	 */
+	long reserve(long start, double amount, double maxRate);
+
 	long getFirstFreeTimeslot(long time);
 
 	/**
@@ -58,4 +70,11 @@ public interface TimeawareResourceLimitation {
 	double getValueAt(long now);
 
 	double getMaxPossible();
+
+	/**
+	 * Creates a new instance with the same limitations, but without any utilization.
+	 *
+	 * @return unused copy of this resource
+	 */
+	TimeawareResourceLimitation clone();
 }
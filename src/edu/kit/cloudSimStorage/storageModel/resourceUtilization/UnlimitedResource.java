@@ -42,6 +42,11 @@ public class UnlimitedResource implements TimeawareResourceLimitation {
 		return seq;
 	}
 
+	@Override
+	public long reserve(long start, double amount, double maxRate) {
+		return (long) (amount / maxRate);
+	}
+
 	@Override
 	public long getFirstFreeTimeslot(long time) {
 		return time;
@@ -59,4 +64,9 @@ public class UnlimitedResource implements TimeawareResourceLimitation {
 	public double getMaxPossible() {
 		return 1;
 	}
+
+	@Override
+	public TimeawareResourceLimitation clone() {
+		return new UnlimitedResource();
+	}
 }
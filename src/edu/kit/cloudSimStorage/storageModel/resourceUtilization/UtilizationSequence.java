@@ -11,35 +11,80 @@ package edu.kit.cloudSimStorage.storageModel.resourceUtilization;
 
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
-/** @author Tobias Sturm, 6/21/13 3:04 PM */
+/**
+ * Sum of multiple {@link UtilizationSequenceSample}s, stored as step function.
+ * <p/>
+ * The step function is kept in two sorted primitive arrays: {@code stepBegin[i]} is the timestamp where the i-th step
+ * begins and {@code stepValue[i]} is the value until the next step begins. A sample [begin, end] adds its value to all
+ * steps in [begin, end + 1), since the end of a sample is inclusive. Point queries and lookups of the next sample point
+ * are binary searches; inserts shift the arrays but never sort.
+ *
+ * @author Tobias Sturm, 6/21/13 3:04 PM
+ */
 public class UtilizationSequence {
 	private static final int GARBAGE_THRESH = 25;
-	private LinkedList<UtilizationSequenceSample> samples;
-	private LinkedList<UtilizationSequenceSample> pastSamples;
-	private List<Long> timestamps;
+	private static final int INITIAL_CAPACITY = 16;
+
+	//raw samples in insertion order, required for optimize() and getDuration()
+	private long[] sampleBegin;
+	private long[] sampleEnd;
+	private double[] sampleValue;
+	private int numSamples;
+
+	//step function
+	private long[] stepBegin;
+	private double[] stepValue;
+	private int numSteps;
+
+	//distinct begin & end timestamps of all samples, ascending
+	private long[] timestamps;
+	private int numTimestamps;
+
 	private int garbageCount;
 
 
 	public UtilizationSequence() {
-		this.samples = new LinkedList<>();
-		this.pastSamples = new LinkedList<>();
-		timestamps = new ArrayList<>();
+		sampleBegin = new long[INITIAL_CAPACITY];
+		sampleEnd = new long[INITIAL_CAPACITY];
+		sampleValue = new double[INITIAL_CAPACITY];
+		stepBegin = new long[INITIAL_CAPACITY];
+		stepValue = new double[INITIAL_CAPACITY];
+		timestamps = new long[INITIAL_CAPACITY];
 	}
 
 	public void insertSample(UtilizationSequenceSample sample) {
-		int index = 0;
-		while (index < samples.size() && samples.get(index).compareTo(sample) < 0) {
-			index++;
+		insertSample(sample.getBeginTimestamp(), sample.getEndTimestamp(), sample.getValue());
+	}
+
+	/**
+	 * Adds a sample to the sequence without creating a {@link UtilizationSequenceSample} instance.
+	 *
+	 * @param begin begin timestamp in ms
+	 * @param end   end timestamp in ms (inclusive)
+	 * @param value value that is constant over given duration
+	 */
+	public void insertSample(long begin, long end, double value) {
+		assert begin <= end;
+
+		if (numSamples == sampleBegin.length) {
+			int capacity = numSamples * 2;
+			sampleBegin = Arrays.copyOf(sampleBegin, capacity);
+			sampleEnd = Arrays.copyOf(sampleEnd, capacity);
+			sampleValue = Arrays.copyOf(sampleValue, capacity);
 		}
-		samples.add(index, sample);
-		timestamps.add(sample.getBeginTimestamp());
-		timestamps.add(sample.getEndTimestamp());
-		Collections.sort(timestamps);
-		if(garbageCount++ > GARBAGE_THRESH) {
+		sampleBegin[numSamples] = begin;
+		sampleEnd[numSamples] = end;
+		sampleValue[numSamples] = value;
+		numSamples++;
+
+		addToSteps(begin, end, value);
+		addTimestamp(begin);
+		addTimestamp(end);
+
+		if (garbageCount++ > GARBAGE_THRESH) {
 			optimize(edu.kit.cloudSimStorage.helper.TimeHelper.getInstance().now());
 			garbageCount = 0;
 		}
@@ -52,16 +97,12 @@ public class UtilizationSequence {
 	 * @return
 	 */
 	public double getValuesAt(long timestamp) {
-		double result = 0;
-		for (UtilizationSequenceSample s : samples) {
-			if (s.during(timestamp))
-				result += s.getValue();
-
-			if (s.getBeginTimestamp() > timestamp) //abort if no event can be during given timestamp (ordered list)
-				break;
-		}
-
-		return result;
+		int index = Arrays.binarySearch(stepBegin, 0, numSteps, timestamp);
+		if (index < 0)
+			index = -index - 2; //step that begins before timestamp
+		if (index < 0)
+			return 0;
+		return stepValue[index];
 	}
 
 	/**
@@ -71,10 +112,10 @@ public class UtilizationSequence {
 	 * @return
 	 */
 	public long getNextSamplePointFrom(long timestamp) {
-		for (long current : timestamps) {
-			if (current > timestamp)
-				return current;
-		}
+		int index = Arrays.binarySearch(timestamps, 0, numTimestamps, timestamp);
+		index = index < 0 ? -index - 1 : index + 1;
+		if (index < numTimestamps)
+			return timestamps[index];
 
 		return -1;
 	}
@@ -86,7 +127,7 @@ public class UtilizationSequence {
 	 * @return true if the value will change after the timestamp.
 	 */
 	public boolean hasSamplePointBeyond(long timestamp) {
-		return getNextSamplePointFrom(timestamp) != -1;
+		return numTimestamps > 0 && timestamps[numTimestamps - 1] > timestamp;
 	}
 
 
@@ -96,7 +137,7 @@ public class UtilizationSequence {
 	 * @return
 	 */
 	public int getNumSamples() {
-		return samples.size();
+		return numSamples;
 	}
 
 	/**
@@ -108,7 +149,7 @@ public class UtilizationSequence {
 		if (getNumSamples() == 0)
 			return 0;
 		if (getNumSamples() == 1)
-			return samples.get(0).getDuration();
+			return sampleEnd[0] - sampleBegin[0];
 		return getLastSamplePoint() - getFirstSamplePoint();
 	}
 
@@ -121,19 +162,26 @@ public class UtilizationSequence {
 	 */
 	public List<UtilizationSequenceSample> optimize(long currentTime) {
 		List<UtilizationSequenceSample> move = new ArrayList<>();
-		for (UtilizationSequenceSample s : samples) {
-			if (s.getEndTimestamp() <= currentTime)
-				move.add(s);
+		int kept = 0;
+		for (int i = 0; i < numSamples; i++) {
+			if (sampleEnd[i] <= currentTime) {
+				move.add(new UtilizationSequenceSample(sampleBegin[i], sampleEnd[i], sampleValue[i]));
+			} else {
+				sampleBegin[kept] = sampleBegin[i];
+				sampleEnd[kept] = sampleEnd[i];
+				sampleValue[kept] = sampleValue[i];
+				kept++;
+			}
 		}
+		numSamples = kept;
 
-		List<Long> oldTimestamps = new ArrayList<>();
-		for (long ts : timestamps) {
-			if (ts <= currentTime)
-				oldTimestamps.add(ts);
-		}
+		int firstKeptTimestamp = Arrays.binarySearch(timestamps, 0, numTimestamps, currentTime);
+		firstKeptTimestamp = firstKeptTimestamp < 0 ? -firstKeptTimestamp - 1 : firstKeptTimestamp + 1;
+		numTimestamps -= firstKeptTimestamp;
+		System.arraycopy(timestamps, firstKeptTimestamp, timestamps, 0, numTimestamps);
 
-		timestamps.removeAll(oldTimestamps);
-		samples.removeAll(move);
+		if (!move.isEmpty())
+			rebuildSteps();
 		return move;
 	}
 
@@ -143,8 +191,8 @@ public class UtilizationSequence {
 	 * @return timestamp of last sample or -1
 	 */
 	public long getLastSamplePoint() {
-		if (timestamps.size() > 0)
-			return timestamps.get(timestamps.size() - 1);
+		if (numTimestamps > 0)
+			return timestamps[numTimestamps - 1];
 		return 1;
 	}
 
@@ -154,8 +202,60 @@ public class UtilizationSequence {
 	 * @return timestamp of first sample or -1
 	 */
 	public long getFirstSamplePoint() {
-		if (timestamps.size() > 0)
-			return timestamps.get(0);
+		if (numTimestamps > 0)
+			return timestamps[0];
 		return -1;
 	}
+
+	/** Adds the value to all steps between begin and end (inclusive). Creates new steps at the borders if needed. */
+	private void addToSteps(long begin, long end, double value) {
+		int from = ensureStepAt(begin);
+		int to = ensureStepAt(end + 1);
+		for (int i = from; i < to; i++)
+			stepValue[i] += value;
+	}
+
+	/**
+	 * Splits the step that contains the given timestamp, so that a step begins exactly at the timestamp.
+	 *
+	 * @return index of the step that begins at the timestamp
+	 */
+	private int ensureStepAt(long timestamp) {
+		int index = Arrays.binarySearch(stepBegin, 0, numSteps, timestamp);
+		if (index >= 0)
+			return index;
+
+		index = -index - 1;
+		if (numSteps == stepBegin.length) {
+			stepBegin = Arrays.copyOf(stepBegin, numSteps * 2);
+			stepValue = Arrays.copyOf(stepValue, numSteps * 2);
+		}
+		System.arraycopy(stepBegin, index, stepBegin, index + 1, numSteps - index);
+		System.arraycopy(stepValue, index, stepValue, index + 1, numSteps - index);
+		stepBegin[index] = timestamp;
+		stepValue[index] = index > 0 ? stepValue[index - 1] : 0;
+		numSteps++;
+		return index;
+	}
+
+	/** Inserts the timestamp into the sorted timestamp array, if it is not present yet */
+	private void addTimestamp(long timestamp) {
+		int index = Arrays.binarySearch(timestamps, 0, numTimestamps, timestamp);
+		if (index >= 0)
+			return;
+
+		index = -index - 1;
+		if (numTimestamps == timestamps.length)
+			timestamps = Arrays.copyOf(timestamps, numTimestamps * 2);
+		System.arraycopy(timestamps, index, timestamps, index + 1, numTimestamps - index);
+		timestamps[index] = timestamp;
+		numTimestamps++;
+	}
+
+	/** Recreates the step function from the remaining samples. Avoids accumulating rounding errors of removed samples. */
+	private void rebuildSteps() {
+		numSteps = 0;
+		for (int i = 0; i < numSamples; i++)
+			addToSteps(sampleBegin[i], sampleEnd[i], sampleValue[i]);
+	}
 }
@@ -0,0 +1,103 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage;
+
+import edu.kit.cloudSimStorage.ObjectStorageSLAs.StorageCloudSLARequirements;
+import edu.kit.cloudSimStorage.cloudBroker.UserRequest;
+import edu.kit.cloudSimStorage.cloudScenarioModels.CloudModel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestMain {
+
+	List<UsageSequence> sequences;
+
+	@Before
+	public void setUp() throws Exception {
+		sequences = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			sequences.add(new UsageSequence(i, new StorageCloudSLARequirements(), Collections.<UserRequest>emptyList()));
+	}
+
+	@Test
+	public void testReadBatchFile() throws Exception {
+		File f = File.createTempFile("batch", ".txt");
+		f.deleteOnExit();
+		Files.write(f.toPath(), Arrays.asList("# name clouds sequences", "", "all * *", "  first2\tRainyCloud   2  ", "missingSequences *"), StandardCharsets.UTF_8);
+
+		List<String[]> runs = Main.readBatchFile(f);
+		assertEquals(2, runs.size());
+		assertArrayEquals(new String[]{"all", "*", "*"}, runs.get(0));
+		assertArrayEquals(new String[]{"first2", "RainyCloud", "2"}, runs.get(1));
+	}
+
+	@Test
+	public void testSelectSequences() throws Exception {
+		assertEquals(sequences, Main.selectSequences(sequences, "*"));
+		assertEquals(sequences.subList(0, 2), Main.selectSequences(sequences, "2"));
+		assertEquals(sequences, Main.selectSequences(sequences, "5"));
+		assertEquals(sequences.subList(1, 4), Main.selectSequences(sequences, "1-3"));
+		assertEquals(sequences.subList(4, 5), Main.selectSequences(sequences, "4-4"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectSequences_reversedRange() throws Exception {
+		Main.selectSequences(sequences, "3-1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectSequences_rangeOutsideOfSequences() throws Exception {
+		Main.selectSequences(sequences, "2-5");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectSequences_tooManySequences() throws Exception {
+		Main.selectSequences(sequences, "6");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectSequences_noSequences() throws Exception {
+		Main.selectSequences(sequences, "0");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectSequences_malformed() throws Exception {
+		Main.selectSequences(sequences, "1-x");
+	}
+
+	@Test
+	public void testSelectClouds() throws Exception {
+		CloudModel a = new CloudModel(), b = new CloudModel();
+		a.name = "a";
+		b.name = "b";
+		List<CloudModel> models = Arrays.asList(a, b);
+		assertEquals(models, Main.selectClouds(models, "*"));
+		assertEquals(Arrays.asList(b), Main.selectClouds(models, "b"));
+		assertEquals(Arrays.asList(b, a), Main.selectClouds(models, "b,a"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectClouds_unknownCloud() throws Exception {
+		CloudModel a = new CloudModel();
+		a.name = "a";
+		Main.selectClouds(Arrays.asList(a), "c");
+	}
+}
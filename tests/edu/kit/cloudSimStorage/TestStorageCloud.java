@@ -0,0 +1,63 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiDataObject;
+import edu.kit.cloudSimStorage.cdmi.CdmiMetadata;
+import edu.kit.cloudSimStorage.cloudScenarioModels.GenericDrive;
+import edu.kit.cloudSimStorage.helper.FileSizeHelper;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+import edu.kit.cloudSimStorage.storageModel.resourceUtilization.UnlimitedResource;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestStorageCloud {
+	private static final String ROOT = "http://testStorageCloud";
+	private static final String DRIVE = "/dev/sda";
+
+	ObjectStorageServer a, b;
+	GenericDrive driveA, driveB;
+
+	@Before
+	public void setUp() throws Exception {
+		CloudSim.init(0, Calendar.getInstance(), false);
+		TimeHelperMock.init();
+		a = new ObjectStorageServer(ROOT, "a", new UnlimitedResource());
+		b = new ObjectStorageServer(ROOT, "b", new UnlimitedResource());
+		driveA = new GenericDrive(DRIVE);
+		driveB = new GenericDrive(DRIVE);
+		driveA.init(FileSizeHelper.toBytes(1, FileSizeHelper.Magnitude.TERA_BYTE), 1, 1, 1, 1, new UnlimitedResource());
+		driveB.init(FileSizeHelper.toBytes(1, FileSizeHelper.Magnitude.TERA_BYTE), 1, 1, 1, 1, new UnlimitedResource());
+		a.installHarddrive(driveA);
+		b.installHarddrive(driveB);
+	}
+
+	@Test
+	public void testDeleteBlobsFromTheirServers() throws Exception {
+		//an update wrote the new blob to b and deletes the old blob, which is on a
+		CdmiDataObject object = new CdmiDataObject(250, new CdmiMetadata(), ROOT, "object");
+		a.saveBlob(object, DRIVE);
+		b.saveBlob(object, DRIVE);
+
+		StorageCloud.deleteBlobs(Arrays.asList(new StorageBlobLocation(object.getEntityId(), a, DRIVE)));
+		assertFalse(driveA.containsObject(object.getEntityId()));
+		assertTrue(driveB.containsObject(object.getEntityId()));
+		assertEquals(0, driveA.getCurrentSize());
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestCdmiChildIndex {
+	CdmiChildIndex<CdmiDataObject> index;
+	CdmiDataObject a, b;
+
+	@Before
+	public void setUp() throws Exception {
+		index = new CdmiChildIndex<>();
+		a = new CdmiDataObject(10, new CdmiMetadata(), "http://testCdmiChildIndex", "a");
+		b = new CdmiDataObject(20, new CdmiMetadata(), "http://testCdmiChildIndex", "b");
+		index.put(a);
+		index.link("a", a.getEntityId());
+		index.put(b);
+		index.link("b", b.getEntityId());
+	}
+
+	@Test
+	public void testLookup() throws Exception {
+		assertEquals(2, index.size());
+		assertSame(a, index.get(a.getEntityId()));
+		assertEquals(b.getEntityId(), index.getId("b"));
+		assertFalse(index.containsName("c"));
+	}
+
+	@Test
+	public void testRemoveDropsAllNames() throws Exception {
+		index.link("alias", a.getEntityId());
+		assertEquals(2, index.getNames(a.getEntityId()).size());
+
+		assertSame(a, index.remove(a.getEntityId()));
+		assertFalse(index.contains(a.getEntityId()));
+		assertFalse(index.containsName("a"));
+		assertFalse(index.containsName("alias"));
+		assertTrue(index.containsName("b"));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	public void testRelinkName() throws Exception {
+		index.link("a", b.getEntityId());
+		assertEquals(b.getEntityId(), index.getId("a"));
+		assertTrue(index.getNames(a.getEntityId()).isEmpty());
+		assertEquals(2, index.getNames(b.getEntityId()).size());
+
+		index.unlink("a");
+		assertFalse(index.containsName("a"));
+		assertTrue(index.contains(a.getEntityId()));
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestCdmiId {
+
+	@Test
+	public void testStringRoundTrip() throws Exception {
+		String[] ids = {"A", "AAAA", "9", "Z0", "ABCDEFGHIJKL", "999999999999", "ABCDEFGHIJKLMNOPQRSTUVWXYZ"};
+		for (String id : ids)
+			assertEquals(id, new CdmiId(id).toString());
+	}
+
+	@Test
+	public void testEqualsAndHashCode() throws Exception {
+		assertEquals(new CdmiId("ABC123"), new CdmiId("ABC123"));
+		assertEquals(new CdmiId("ABC123").hashCode(), new CdmiId("ABC123").hashCode());
+		assertFalse(new CdmiId("A").equals(new CdmiId("AA")));
+		assertFalse(new CdmiId("ABC").equals(new CdmiId("ABCD")));
+		assertEquals(new CdmiId("ABCDEFGHIJKLMNOP"), new CdmiId("ABCDEFGHIJKLMNOP"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalCharacter() throws Exception {
+		new CdmiId("abc");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknown() throws Exception {
+		new CdmiId("UNKNOWN");
+	}
+
+	@Test
+	public void testGeneratedIdsAreUnique() throws Exception {
+		Set<CdmiId> ids = new HashSet<>();
+		for (int i = 0; i < 10000; i++) {
+			CdmiId id = CdmiId.generateId("http://testGeneratedIdsAreUnique");
+			assertEquals(10, id.toString().length());
+			assertTrue(ids.add(id));
+			assertEquals(id, new CdmiId(id.toString()));
+		}
+	}
+
+	@Test
+	public void testGeneratedIdsAreReproducible() throws Exception {
+		CdmiId.reset();
+		CdmiId a1 = CdmiId.generateId("http://a"), a2 = CdmiId.generateId("http://a");
+		CdmiId b1 = CdmiId.generateId("http://b");
+
+		//other order, interleaved with another rootURI
+		CdmiId.reset();
+		assertEquals(b1, CdmiId.generateId("http://b"));
+		CdmiId.generateId("http://c");
+		assertEquals(a1, CdmiId.generateId("http://A"));
+		assertEquals(a2, CdmiId.generateId("http://a"));
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.simpleframework.xml.core.Persister;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestCdmiMetadata {
+	private static final double DELTA = 0.00001;
+	CdmiMetadata root, container;
+
+	@Before
+	public void setUp() throws Exception {
+		root = new CdmiMetadata();
+		root.set(CdmiMetadata.LOCATION, "EU");
+		root.set(CdmiMetadata.NUM_REPLICA, "3");
+		root.set("custom", "root");
+
+		container = new CdmiMetadata();
+		container.set(CdmiMetadata.MAX_CONTAINER_SIZE, "1000");
+		container.set("custom", "container");
+	}
+
+	@Test
+	public void testInheritEqualsMerge() throws Exception {
+		CdmiMetadata inherited = new CdmiMetadata();
+		inherited.inheritFrom(root, CdmiMetadata.doNotInheritFromRootContainerToObject);
+		inherited.inheritFrom(container, CdmiMetadata.doNotInheritFromObjectContainer);
+		inherited.set(CdmiMetadata.SIZE, "42");
+
+		CdmiMetadata merged = new CdmiMetadata();
+		merged.mergeWith(root, Arrays.asList(CdmiMetadata.doNotInheritFromRootContainerToObject));
+		merged.mergeWith(container, Arrays.asList(CdmiMetadata.doNotInheritFromObjectContainer));
+		merged.set(CdmiMetadata.SIZE, "42");
+
+		assertEquals(merged, inherited);
+		assertEquals(merged.getMetadataSize(), inherited.getMetadataSize(), DELTA);
+		assertEquals("container", inherited.get("custom"));
+		assertFalse(inherited.contains(CdmiMetadata.LOCATION));
+		assertFalse(inherited.contains(CdmiMetadata.MAX_CONTAINER_SIZE));
+	}
+
+	@Test
+	public void testParentChangesAreNotVisible() throws Exception {
+		CdmiMetadata child = new CdmiMetadata();
+		child.inheritFrom(container, new String[0]);
+		double size = child.getMetadataSize();
+
+		container.set("custom", "changed");
+		container.set("new", "value");
+
+		assertEquals("container", child.get("custom"));
+		assertFalse(child.contains("new"));
+		assertEquals(size, child.getMetadataSize(), DELTA);
+		assertEquals("changed", container.get("custom"));
+	}
+
+	@Test
+	public void testTypedValues() throws Exception {
+		assertEquals(1000, container.getLong(CdmiMetadata.MAX_CONTAINER_SIZE));
+		container.set(CdmiMetadata.MAX_CONTAINER_SIZE, "2000");
+		assertEquals(2000, container.getLong(CdmiMetadata.MAX_CONTAINER_SIZE));
+		assertEquals(3, root.getInt(CdmiMetadata.NUM_REPLICA));
+
+		CdmiMetadata child = new CdmiMetadata();
+		child.inheritFrom(root, new String[0]);
+		assertEquals(3, child.getInt(CdmiMetadata.NUM_REPLICA));
+		child.set(CdmiMetadata.NUM_REPLICA, "1");
+		assertEquals(1, child.getInt(CdmiMetadata.NUM_REPLICA));
+		assertEquals(3, root.getInt(CdmiMetadata.NUM_REPLICA));
+	}
+
+	@Test
+	public void testSerializationIncludesInheritedEntries() throws Exception {
+		CdmiMetadata child = new CdmiMetadata();
+		child.inheritFrom(root, CdmiMetadata.doNotInheritFromRootContainerToContainer);
+		child.set("own", "value");
+
+		StringWriter writer = new StringWriter();
+		new Persister().write(child, writer);
+		CdmiMetadata read = new Persister().read(CdmiMetadata.class, writer.toString());
+
+		assertEquals(child, read);
+		assertEquals("root", read.get("custom"));
+		assertFalse(read.contains(CdmiMetadata.LOCATION));
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import edu.kit.cloudSimStorage.TimeHelperMock;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+import edu.kit.cloudSimStorage.storageModel.resourceUtilization.UnlimitedResource;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static edu.kit.cloudSimStorage.monitoring.TraceableResource.USED_STORAGE_ABS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCdmiObjectContainer {
+	private static final double DELTA = 0.00001;
+	private static final int REPLICAS = 2;
+
+	CdmiObjectContainer container;
+	ObjectStorageServer a, b;
+
+	@Before
+	public void setUp() throws Exception {
+		CloudSim.init(0, Calendar.getInstance(), false);
+		TimeHelperMock.init();
+		CdmiRootContainer root = new CdmiRootContainer("http://testCdmiObjectContainer", 0);
+		container = new CdmiObjectContainer(root, "container", new CdmiMetadata());
+		a = new ObjectStorageServer("http://testCdmiObjectContainer", "a", new UnlimitedResource());
+		b = new ObjectStorageServer("http://testCdmiObjectContainer", "b", new UnlimitedResource());
+	}
+
+	/** stores the object like the cloud does: every part (or the object) on every server */
+	private CdmiDataObject store(CdmiDataObject object) {
+		MultipartLayout layout = MultipartLayout.of(object);
+		List<StorageBlobLocation> locations = new ArrayList<>();
+		for (CdmiDataObject part : layout.isMultipart() ? layout.split(object) : Collections.singletonList(object)) {
+			locations.add(new StorageBlobLocation(part.getEntityId(), a, "/dev/sda"));
+			locations.add(new StorageBlobLocation(part.getEntityId(), b, "/dev/sda"));
+		}
+		container.assignPhysicalLocations(object.getEntityId(), locations);
+		container.putChild(object);
+		return object;
+	}
+
+	private double usedPhysical() {
+		TupleSequence<Double> samples = container.physicalStorageHistory.getSamples(USED_STORAGE_ABS);
+		return samples.get(samples.size() - 1).y;
+	}
+
+	@Test
+	public void testPhysicalUsageOfMultipartObject() throws Exception {
+		CdmiMetadata metadata = new CdmiMetadata();
+		metadata.set(CdmiMetadata.PART_SIZE, "100");
+		CdmiDataObject object = store(new CdmiDataObject(250, metadata, "http://testCdmiObjectContainer", "multipart"));
+		assertEquals(REPLICAS * object.getPhysicalSize(), usedPhysical(), DELTA);
+
+		container.deleteChild(object.getEntityId());
+		assertEquals(0.0, usedPhysical(), DELTA);
+	}
+
+	@Test
+	public void testPhysicalUsageOfSinglePartObject() throws Exception {
+		CdmiDataObject object = store(new CdmiDataObject(250, new CdmiMetadata(), "http://testCdmiObjectContainer", "single"));
+		assertEquals(REPLICAS * object.getPhysicalSize(), usedPhysical(), DELTA);
+
+		container.deleteChild(object.getEntityId());
+		assertEquals(0.0, usedPhysical(), DELTA);
+	}
+
+	@Test
+	public void testPutsDoNotCopyInheritedMetadata() throws Exception {
+		CdmiMetadata rootMetadata = new CdmiMetadata();
+		rootMetadata.set(CdmiMetadata.NUM_REPLICA, String.valueOf(REPLICAS));
+		container.getMetadata().inheritFrom(rootMetadata, CdmiMetadata.doNotInheritFromRootContainerToContainer);
+		container.getMetadata().set("custom", "container");
+		HashMap<String, String> containerEntries = container.getMetadata().metadata;
+
+		for (int i = 0; i < 100; i++) {
+			CdmiMetadata metadata = new CdmiMetadata();
+			metadata.inheritFrom(container.getMetadata(), CdmiMetadata.doNotInheritFromObjectContainer);
+			metadata.set(CdmiMetadata.SIZE, "250");
+			store(new CdmiDataObject(250, metadata, "http://testCdmiObjectContainer", "object" + i));
+		}
+
+		//every put updated the timestamp of the container, but none copied the map that the objects inherit from
+		assertSame(containerEntries, container.getMetadata().metadata);
+		assertEquals("container", container.getMetadata().get("custom"));
+		assertEquals(REPLICAS, container.getMetadata().getInt(CdmiMetadata.NUM_REPLICA));
+		assertTrue(container.getMetadata().contains(CdmiMetadata.LAST_WRITE_ACCESS));
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import edu.kit.cloudSimStorage.TimeHelperMock;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.kit.cloudSimStorage.monitoring.TraceableResource.AVAILABLE_STORAGE_VIRTUAL;
+import static edu.kit.cloudSimStorage.monitoring.TraceableResource.USED_STORAGE_VIRTUAL_ABS;
+import static org.junit.Assert.assertEquals;
+
+public class TestCdmiRootContainer {
+	private static final double DELTA = 0.00001;
+
+	CdmiRootContainer root;
+
+	@Before
+	public void setUp() throws Exception {
+		TimeHelperMock.init();
+		root = new CdmiRootContainer("http://testCdmiRootContainer", 0);
+	}
+
+	@Test
+	public void testAvailableVirtualStorageWithoutChildren() throws Exception {
+		TupleSequence<Double> available = root.getSamples(AVAILABLE_STORAGE_VIRTUAL);
+		assertEquals(1, available.size());
+		assertEquals(0l, (long) available.get(0).x);
+		assertEquals((double) Long.MAX_VALUE, available.get(0).y, DELTA);
+	}
+
+	@Test
+	public void testUsedVirtualStoragePercentageAtStart() throws Exception {
+		//same aggregation as the cloud's USED_STORAGE_PERCENTAGE_VIRTUAL
+		List<TupleSequence<Double>> used = new ArrayList<>(), available = new ArrayList<>();
+		used.add(root.getSamples(USED_STORAGE_VIRTUAL_ABS));
+		available.add(root.getSamples(AVAILABLE_STORAGE_VIRTUAL));
+		TupleSequence<Double> percentage = SequenceOperations.divide(SequenceOperations.sum(used), SequenceOperations.sum(available));
+
+		assertEquals(0l, (long) percentage.get(0).x);
+		assertEquals(0.0, percentage.get(0).y, DELTA);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.cdmi;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestMultipartLayout {
+
+	@Test
+	public void testParts() throws Exception {
+		MultipartLayout layout = new MultipartLayout(250, 100);
+		assertTrue(layout.isMultipart());
+		assertEquals(3, layout.getNumParts());
+		assertEquals(200, layout.getOffset(2));
+		assertEquals(100, layout.getSize(1));
+		assertEquals(50, layout.getSize(2));
+	}
+
+	@Test
+	public void testSinglePart() throws Exception {
+		assertFalse(new MultipartLayout(250, 0).isMultipart());
+		assertEquals(250, new MultipartLayout(250, 300).getSize(0));
+		assertEquals(1, new MultipartLayout(0, 10).getNumParts());
+		assertEquals(0, new MultipartLayout(0, 10).getSize(0));
+	}
+
+	@Test
+	public void testOverlap() throws Exception {
+		MultipartLayout layout = new MultipartLayout(250, 100);
+		assertEquals(20, layout.getOverlap(0, 80, 40));
+		assertEquals(20, layout.getOverlap(1, 80, 40));
+		assertEquals(0, layout.getOverlap(2, 80, 40));
+		assertEquals(50, layout.getOverlap(2, 0, 1000));
+	}
+
+	@Test
+	public void testSplit() throws Exception {
+		CdmiMetadata metadata = new CdmiMetadata();
+		metadata.set(CdmiMetadata.PART_SIZE, "100");
+		CdmiDataObject object = new CdmiDataObject(250, metadata, "http://testMultipartLayout", "object");
+		MultipartLayout layout = MultipartLayout.of(object);
+		assertEquals(3, layout.getNumParts());
+
+		List<CdmiDataObject> parts = layout.split(object);
+		long physicalSize = 0;
+		for (CdmiDataObject part : parts) {
+			assertNotEquals(object.getEntityId(), part.getEntityId());
+			physicalSize += part.getPhysicalSize();
+		}
+		assertEquals(object.getPhysicalSize(), physicalSize);
+		assertEquals(50, parts.get(2).getSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoSuchPart() throws Exception {
+		new MultipartLayout(250, 100).getSize(3);
+	}
+}
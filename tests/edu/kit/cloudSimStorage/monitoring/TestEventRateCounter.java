@@ -0,0 +1,118 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestEventRateCounter {
+
+	@After
+	public void tearDown() throws Exception {
+		EventTracker.setAggregateOnline(false);
+	}
+
+	@Test
+	public void testEventsPerSecond() throws Exception {
+		EventRateCounter c = new EventRateCounter();
+		c.add(1500);
+		c.add(1999);
+		c.add(4000);
+		c.add(1000); //out of order, existing bucket
+		c.add(3100); //out of order, new bucket
+
+		TupleSequence<Double> expected = new TupleSequence<>();
+		expected.add(1000l, 3.0);
+		expected.add(2000l, 0.0);
+		expected.add(3000l, 1.0);
+		expected.add(4000l, 1.0);
+		assertEquals(expected, c.getEventsPerTime(1000));
+		assertEquals(5, c.getTotal());
+
+		expected = new TupleSequence<>();
+		expected.add(1000l, 3.0);
+		expected.add(3000l, 4.0);
+		expected.add(4000l, 5.0);
+		assertEquals(expected, c.getTotalNumOfEvents());
+	}
+
+	@Test
+	public void testEventsPerMinute() throws Exception {
+		EventRateCounter c = new EventRateCounter();
+		c.add(59 * 1000);
+		c.add(60 * 1000);
+		c.add(61 * 1000);
+		c.add(200 * 1000);
+
+		TupleSequence<Double> expected = new TupleSequence<>();
+		expected.add(0l, 1.0);
+		expected.add(60 * 1000l, 2.0);
+		expected.add(120 * 1000l, 0.0);
+		expected.add(180 * 1000l, 1.0);
+		assertEquals(expected, c.getEventsPerTime(60 * 1000));
+	}
+
+	@Test
+	public void testCombineCounters() throws Exception {
+		EventRateCounter a = new EventRateCounter(), b = new EventRateCounter();
+		a.add(0);
+		a.add(2000);
+		b.add(2500);
+		b.add(5000);
+		List<EventRateCounter> counters = new ArrayList<>();
+		counters.add(a);
+		counters.add(b);
+
+		TupleSequence<Double> expected = new TupleSequence<>();
+		expected.add(0l, 1.0);
+		expected.add(2000l, 2.0);
+		expected.add(4000l, 1.0);
+		assertEquals(expected, EventRateCounter.getEventsPerTime(2000, counters));
+		assertEquals(new TupleSequence<Double>(), EventRateCounter.getEventsPerTime(1000, new ArrayList<EventRateCounter>()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeDistanceBelowResolution() throws Exception {
+		new EventRateCounter().getEventsPerTime(500);
+	}
+
+	@Test
+	public void testOnlineTracker() throws Exception {
+		EventTracker.setAggregateOnline(true);
+		EventTracker<String> retaining = new EventTracker<>("events", "retaining", true);
+		EventTracker<String> counting = new EventTracker<>("events", "counting");
+		retaining.addEvent(1200, "a");
+		retaining.addEvent(100, "b");
+		counting.addEvent(3000, "c");
+
+		assertEquals(2, retaining.getTraces().size());
+		assertEquals("b", retaining.getTraces().get(0));
+		assertEquals(2, retaining.getSamples(TraceableResource.NUM_EVENTS_PER_SECOND).size());
+		assertEquals(1, counting.getSamples(TraceableResource.NUM_EVENTS_TOTAL).size());
+
+		List<EventTracker<String>> trackers = new ArrayList<>();
+		trackers.add(retaining);
+		trackers.add(counting);
+		assertEquals(4, EventTracker.getEventsPerTime(1000, trackers).size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testOnlineTrackerDropsEvents() throws Exception {
+		EventTracker.setAggregateOnline(true);
+		EventTracker<String> t = new EventTracker<>("events", "counting");
+		t.addEvent(0, "a");
+		t.getTraces();
+	}
+}
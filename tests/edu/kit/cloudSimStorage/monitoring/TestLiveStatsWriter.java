@@ -0,0 +1,80 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLiveStatsWriter {
+
+	@Test
+	public void testWritesSnapshots() throws Exception {
+		File f = File.createTempFile("liveStats", ".csv");
+		f.deleteOnExit();
+
+		LiveStatsWriter writer = new LiveStatsWriter(f, 10);
+		writer.start();
+		Thread.sleep(100);
+		writer.close();
+		writer.close();
+
+		List<String> lines = Files.readAllLines(f.toPath(), StandardCharsets.UTF_8);
+		//at least the snapshot that is written on close
+		assertTrue(lines.size() >= 2);
+		assertTrue(lines.get(0).startsWith("wall clock (ms)\tsimulated clock"));
+		for (String line : lines)
+			assertEquals(8, line.split("\t").length);
+	}
+
+	@Test
+	public void testKeepsRunningAfterFailedSnapshot() throws Exception {
+		File f = File.createTempFile("liveStats", ".csv");
+		f.deleteOnExit();
+
+		final AtomicInteger calls = new AtomicInteger();
+		LiveStatsWriter writer = new LiveStatsWriter(f, 10) {
+			@Override
+			synchronized String snapshot() {
+				if (calls.incrementAndGet() == 1)
+					throw new IllegalStateException("state changed while reading it");
+				return super.snapshot();
+			}
+		};
+		writer.start();
+		Thread.sleep(200);
+		int scheduledCalls = calls.get();
+		writer.close();
+
+		assertTrue("snapshots stopped after the failure", scheduledCalls >= 3);
+		List<String> lines = Files.readAllLines(f.toPath(), StandardCharsets.UTF_8);
+		assertEquals(calls.get(), lines.size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterStart() throws Exception {
+		File f = File.createTempFile("liveStats", ".csv");
+		f.deleteOnExit();
+		LiveStatsWriter writer = new LiveStatsWriter(f, 1000);
+		writer.start();
+		try {
+			writer.addCloud(null);
+		} finally {
+			writer.close();
+		}
+	}
+}
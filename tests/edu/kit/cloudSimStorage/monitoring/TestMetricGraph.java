@@ -0,0 +1,130 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import edu.kit.cloudSimStorage.helper.FileSizeHelper;
+import edu.kit.cloudSimStorage.monitoring.sampleSequenceOperatorations.SequenceOperations;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestMetricGraph {
+	private static final double DELTA = 0.00001;
+
+	private ResourceUsageHistory used, available;
+	private MetricGraph graph;
+	private int usedComputations, percentageComputations;
+
+	@Before
+	public void setUp() {
+		used = new ResourceUsageHistory("used", "used", "used", "Byte");
+		available = new ResourceUsageHistory("available", "available", "available", "Byte");
+		used.addSample(0, 1);
+		available.addSample(0, 4);
+		graph = new MetricGraph();
+		graph.define("used", source(used, true));
+		graph.define("available", source(available, false));
+		graph.derive("percentage", new MetricGraph.Derivation() {
+			@Override
+			public TupleSequence<Double> compute(List<TupleSequence<Double>> inputs) {
+				percentageComputations++;
+				return SequenceOperations.divide(inputs.get(0), inputs.get(1));
+			}
+		}, "used", "available");
+	}
+
+	private MetricGraph.Source source(final ResourceUsageHistory history, final boolean count) {
+		return new MetricGraph.Source() {
+			@Override
+			public long getVersion() {
+				return history.getVersion();
+			}
+
+			@Override
+			public TupleSequence<Double> compute() {
+				if (count)
+					usedComputations++;
+				return history.getSamples();
+			}
+		};
+	}
+
+	@Test
+	public void testCachedUntilInputChanges() throws Exception {
+		assertEquals(0.25, graph.getSamples("percentage").get(0).y, DELTA);
+		graph.getSamples("percentage");
+		graph.getSamples("used");
+		assertEquals(1, percentageComputations);
+		assertEquals(1, usedComputations);
+
+		long version = graph.getVersion("percentage");
+		available.addSample(1, 2);
+		assertEquals(true, graph.getVersion("percentage") > version);
+		TupleSequence<Double> percentage = graph.getSamples("percentage");
+		assertEquals(2, percentage.size());
+		assertEquals(0.5, percentage.get(1).y, DELTA);
+		assertEquals(2, percentageComputations);
+		//the unchanged input is not computed again
+		assertEquals(1, usedComputations);
+	}
+
+	@Test
+	public void testCallersGetCopies() throws Exception {
+		graph.getSamples("used").clear();
+		assertEquals(1, graph.getSamples("used").size());
+		assertEquals(1, usedComputations);
+		assertNull(graph.getSamples("unknown"));
+	}
+
+	@Test
+	public void testUnversionedSourceIsNotCached() throws Exception {
+		final int[] computations = {0};
+		graph.define("random", new MetricGraph.Source() {
+			@Override
+			public long getVersion() {
+				return VersionClock.versionOf(new Object());
+			}
+
+			@Override
+			public TupleSequence<Double> compute() {
+				computations[0]++;
+				return null;
+			}
+		});
+		assertNull(graph.getSamples("random"));
+		assertNull(graph.getSamples("random"));
+		assertEquals(2, computations[0]);
+	}
+
+	@Test
+	public void testCompositeVersion() throws Exception {
+		StorageUsageHistory history = new StorageUsageHistory("test", FileSizeHelper.Magnitude.BYTE);
+		TraceableResourceAliasing aliasing = new TraceableResourceAliasing();
+		aliasing.addMapping("a", TraceableResource.AVAILABLE_STORAGE, history);
+		long version = aliasing.getVersion();
+		assertEquals(version, aliasing.getVersion());
+		history.setAvailableStorage(0, 10);
+		assertEquals(true, aliasing.getVersion() > version);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUndefinedInput() throws Exception {
+		graph.derive("x", null, "undefined");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDuplicateKey() throws Exception {
+		graph.define("used", source(used, false));
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestRequestTraceWriter {
+
+	@Test
+	public void testWritesAllRecords() throws Exception {
+		File f = File.createTempFile("requestTrace", ".csv");
+		f.deleteOnExit();
+
+		RequestTraceWriter writer = new RequestTraceWriter(f);
+		//more records than fit into the buffer
+		for (int i = 0; i < 5000; i++)
+			writer.trace(i, "GET /container/object " + i, 1024l * i, 10, 2, "cloud", 3);
+		writer.close();
+		writer.close();
+
+		List<String> lines = Files.readAllLines(f.toPath(), StandardCharsets.UTF_8);
+		assertEquals(5001, lines.size());
+		assertEquals(RequestTraceWriter.HEADER.trim(), lines.get(0));
+		assertEquals("4999\tGET /container/object 4999\t" + (1024l * 4999) + "\t10\t2\tcloud\t3", lines.get(5000));
+		assertEquals(5000, writer.getNumRecords());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTraceAfterClose() throws Exception {
+		File f = File.createTempFile("requestTrace", ".csv");
+		f.deleteOnExit();
+
+		RequestTraceWriter writer = new RequestTraceWriter(f);
+		writer.close();
+		writer.trace(0, "GET", 0, 0, 0, "cloud", 0);
+	}
+}
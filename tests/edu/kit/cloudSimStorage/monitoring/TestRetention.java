@@ -0,0 +1,107 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRetention {
+	private static final double DELTA = 0.00001;
+
+	@After
+	public void tearDown() {
+		Monitoring.clearRetentions();
+	}
+
+	@Test
+	public void testRollup() throws Exception {
+		SampleRollup rollup = new SampleRollup(new RetentionPolicy(0, 10));
+		rollup.add(12, 4);
+		rollup.add(15, 1);
+		rollup.add(3, 7);
+		rollup.add(11, 2); //older than the last value of its bucket
+		assertEquals(2, rollup.size());
+		assertEquals(0, rollup.getStart(0));
+		assertEquals(10, rollup.getStart(1));
+		assertEquals(1, rollup.getMin(1), DELTA);
+		assertEquals(4, rollup.getMax(1), DELTA);
+		assertEquals(7.0 / 3, rollup.getAverage(1), DELTA);
+		assertEquals(1, rollup.getLast(1), DELTA);
+		assertEquals(15, rollup.getLastTimestamp(1));
+		assertEquals(3, rollup.getCount(1));
+	}
+
+	@Test
+	public void testRawWindowIsBounded() throws Exception {
+		Monitoring.setRetention("key", new RetentionPolicy(100, 10));
+		ResourceUsageHistory h = new ResourceUsageHistory("key", "test", "y", "units");
+		for (int t = 0; t < 10000; t++)
+			h.addSample(t, t % 10);
+
+		assertTrue(h.getSeries().size() <= 1000 + 110);
+		assertTrue(h.samples.size() <= 110);
+		assertEquals(9999, h.samples.getTimestamp(h.samples.size() - 1));
+		assertTrue(h.samples.getTimestamp(0) <= 9999 - 100);
+
+		SampleRollup rollup = h.getRollup();
+		assertEquals(0, rollup.getStart(0));
+		assertEquals(0, rollup.getMin(0), DELTA);
+		assertEquals(9, rollup.getMax(0), DELTA);
+		assertEquals(4.5, rollup.getAverage(0), DELTA);
+
+		TupleSequence<Double> samples = h.getSamples();
+		assertEquals(rollup.size() + h.samples.size(), samples.size());
+		assertEquals(9, samples.get(0).x.longValue());
+		assertEquals(9, samples.get(0).y, DELTA);
+		for (int i = 1; i < samples.size(); i++)
+			assertTrue(samples.get(i - 1).x < samples.get(i).x);
+	}
+
+	@Test
+	public void testLateSampleIsRolledUp() throws Exception {
+		ResourceUsageHistory h = new ResourceUsageHistory("key", "test", "y", "units");
+		assertNull(h.getRetention());
+		h.addSample(500, 1);
+		h.setRetention(new RetentionPolicy(100, 100));
+		h.addSample(5, 3);
+		assertEquals(1, h.samples.size());
+		assertEquals(1, h.getRollup().size());
+		assertEquals(3, h.getRollup().getLast(0), DELTA);
+	}
+
+	@Test
+	public void testDefaultRetention() throws Exception {
+		RetentionPolicy policy = new RetentionPolicy(10, 10);
+		Monitoring.setDefaultRetention(policy);
+		Monitoring.setRetention("other", null);
+		assertSame(policy, new ResourceUsageHistory("key", "test", "y", "units").getRetention());
+		Monitoring.clearRetentions();
+		assertNull(new ResourceUsageHistory("key", "test", "y", "units").getRetention());
+	}
+
+	@Test
+	public void testRegistry() throws Exception {
+		ResourceUsageHistory h = new ResourceUsageHistory("key", "test", "y", "units");
+		boolean found = false;
+		for (ResourceUsageHistory registered : Monitoring.getHistories())
+			found |= registered == h;
+		assertTrue(found);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidResolution() throws Exception {
+		new RetentionPolicy(10, 0);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestSampleSeries {
+	private static final double DELTA = 0.00001;
+
+	@Test
+	public void testAppendAndGrow() throws Exception {
+		SampleSeries s = new SampleSeries();
+		for (int i = 0; i < 100; i++)
+			assertEquals(i, s.add(i * 10, i));
+		assertEquals(100, s.size());
+		assertEquals(990, s.getTimestamp(99));
+		assertEquals(99, s.getValue(99), DELTA);
+	}
+
+	@Test
+	public void testOutOfOrderInsertIsStable() throws Exception {
+		long[] x = {5, 1, 5, 3, 1, 7, 0};
+		SampleSeries s = new SampleSeries();
+		TupleSequence<Double> expected = new TupleSequence<>();
+		for (int i = 0; i < x.length; i++) {
+			s.add(x[i], i);
+			expected.add(x[i], (double) i);
+		}
+		Collections.sort(expected);
+
+		assertEquals(expected.toString(), s.toTupleSequence().toString());
+		assertEquals(expected.toString(), new SampleSeries(expected).toTupleSequence().toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testIndexOutOfBounds() throws Exception {
+		SampleSeries s = new SampleSeries();
+		s.add(1, 1);
+		s.getValue(1);
+	}
+}
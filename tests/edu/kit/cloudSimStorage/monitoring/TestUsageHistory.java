@@ -0,0 +1,50 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring;
+
+import edu.kit.cloudSimStorage.TimeHelperMock;
+import edu.kit.cloudSimStorage.cdmi.CdmiOperationVerbs;
+import edu.kit.cloudSimStorage.pricing.SimplePricing;
+import org.junit.Before;
+import org.junit.Test;
+
+import static edu.kit.cloudSimStorage.monitoring.TraceableResource.*;
+import static org.junit.Assert.assertEquals;
+
+public class TestUsageHistory {
+	private static final double DELTA = 0.00001;
+
+	UsageHistory history;
+
+	@Before
+	public void setUp() throws Exception {
+		TimeHelperMock.init();
+		history = new SimplePricing(1, 1, 1, 1);
+	}
+
+	@Test
+	public void testRequestsPerMinuteFollowTrackers() throws Exception {
+		history.query(CdmiOperationVerbs.GET);
+		history.query(CdmiOperationVerbs.PUT);
+		TupleSequence<Double> perMinute = history.getSamples(NUM_REQUESTS_PER_MINUTE);
+		assertEquals(1, perMinute.size());
+		assertEquals(2.0, perMinute.get(0).y, DELTA);
+
+		//cached result, callers get copies
+		perMinute.clear();
+		assertEquals(perMinute.size() + 1, history.getSamples(NUM_REQUESTS_PER_MINUTE).size());
+
+		//a new request invalidates the keys that count it
+		history.query(CdmiOperationVerbs.DELETE);
+		assertEquals(3.0, history.getSamples(NUM_REQUESTS_PER_MINUTE).get(0).y, DELTA);
+		assertEquals(3.0, history.getSamples(NUM_REQUESTS_OTHER_PER_SECOND).get(0).y, DELTA);
+		assertEquals(0, history.getSamples(NUM_REQUESTS_LIST).size());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.helper.FileSizeHelper;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReportPipelineTest {
+	private static final double DELTA = 0.00001;
+
+	@Test
+	public void testRoundLikeFormat() throws Exception {
+		Random rnd = new Random(42);
+		double[] special = {0.125, 1.005, 2.675, -0.001, -0.0, -2.5, 0.5, 1e20, -1e-20, Double.NaN, Double.POSITIVE_INFINITY};
+		for (int digits = 0; digits < 5; digits++) {
+			for (double v : special)
+				assertEquals(v + " to " + digits, formatted(v, digits), (Double) ReportPipeline.round(v, digits));
+			for (int i = 0; i < 100000; i++) {
+				double v = (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(16));
+				assertEquals(v + " to " + digits, formatted(v, digits), (Double) ReportPipeline.round(v, digits));
+			}
+		}
+	}
+
+	private static Double formatted(double v, int digits) {
+		return Double.valueOf(String.format(Locale.US, "%1$." + digits + "f", v));
+	}
+
+	@Test
+	public void testSameAsChainedCalls() throws Exception {
+		TupleSequence<Double> in = new TupleSequence<>();
+		Random rnd = new Random(7);
+		for (int i = 0; i < 1000; i++)
+			in.add((long) (i / 3), (double) rnd.nextInt(1 << 30) * 4);
+
+		long gb = FileSizeHelper.toBytes(1, FileSizeHelper.Magnitude.GIGA_BYTE);
+		TupleSequence<Double> chained = ReportGenerator.roundTo(ReportGenerator.changeFileMagnitude(ReportGenerator.removeDoublicateValues(in, gb), FileSizeHelper.Magnitude.GIGA_BYTE), 2);
+		TupleSequence<Double> fused = new ReportPipeline().removeDuplicates(gb).toFileMagnitude(FileSizeHelper.Magnitude.GIGA_BYTE).roundTo(2).apply(in);
+		assertEquals(chained, fused);
+		assertEquals(1000, in.size());
+	}
+
+	@Test
+	public void testLTTB() throws Exception {
+		TupleSequence<Double> in = new TupleSequence<>();
+		for (int i = 0; i < 1000; i++)
+			in.add((long) i, i == 500 ? 100.0 : Math.sin(i / 100.0));
+
+		TupleSequence<Double> out = new ReportPipeline().downsample(ReportPipeline.Downsampling.LTTB, 50).apply(in);
+		assertEquals(50, out.size());
+		assertEquals(in.get(0), out.get(0));
+		assertEquals(in.get(999), out.get(49));
+		boolean peak = false;
+		for (int i = 1; i < out.size(); i++) {
+			assertTrue(out.get(i - 1).x < out.get(i).x);
+			peak |= out.get(i).y == 100.0;
+		}
+		assertTrue("peak has been dropped", peak);
+	}
+
+	@Test
+	public void testMinMax() throws Exception {
+		TupleSequence<Double> in = new TupleSequence<>();
+		for (int i = 0; i < 1000; i++)
+			in.add((long) i, (double) (i % 7));
+		in.set(123, new edu.kit.cloudSimStorage.monitoring.Tuple<>(123l, -5.0));
+
+		TupleSequence<Double> out = new ReportPipeline().downsample(ReportPipeline.Downsampling.MIN_MAX, 20).apply(in);
+		assertTrue(out.size() <= 20);
+		assertEquals(in.get(0), out.get(0));
+		assertEquals(in.get(999), out.get(out.size() - 1));
+		double min = Double.MAX_VALUE;
+		for (int i = 1; i < out.size(); i++) {
+			assertTrue(out.get(i - 1).x < out.get(i).x);
+			min = Math.min(min, out.get(i).y);
+		}
+		assertEquals(-5.0, min, DELTA);
+	}
+
+	@Test
+	public void testNoDownsamplingOfShortSequences() throws Exception {
+		TupleSequence<Double> in = new TupleSequence<>();
+		in.add(1l, 1.0);
+		in.add(2l, 2.0);
+		assertEquals(in, new ReportPipeline().downsample(ReportPipeline.Downsampling.LTTB, 3).apply(in));
+		assertEquals(0, new ReportPipeline().scale(2).apply((TupleSequence<Double>) null).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooFewSamples() throws Exception {
+		new ReportPipeline().downsample(ReportPipeline.Downsampling.MIN_MAX, 2);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.monitoring.SampleSeries;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestBinaryTrace {
+	private static final double DELTA = 0.00001;
+
+	private static File tempFile() throws IOException {
+		File f = File.createTempFile("binaryTrace", BinaryTraceGenerator.FILE_EXTENTION);
+		f.deleteOnExit();
+		return f;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		File f = tempFile();
+		TupleSequence<Double> a = new TupleSequence<>();
+		a.add(0l, 1.5);
+		a.add(10l, -2.0);
+		a.add(10l, 3.0);
+		SampleSeries b = new SampleSeries();
+		for (int i = 0; i < 10000; i++)
+			b.add(i * 7, i / 2.0);
+
+		try (BinaryTraceWriter writer = new BinaryTraceWriter(f)) {
+			writer.writeSeries("a", a);
+			writer.writeSeries("empty", new TupleSequence<Double>());
+			writer.writeSeries("b (ä)", b);
+		}
+
+		try (BinaryTraceReader reader = new BinaryTraceReader(f)) {
+			assertArrayEquals(new String[]{"a", "empty", "b (ä)"}, reader.getAvailableTrackingKeys());
+			assertEquals(a, reader.getSamples("a"));
+			assertEquals(0, reader.getSamples("empty").size());
+			assertNull(reader.getSamples("unknown"));
+
+			assertEquals(10000, reader.getSize("b (ä)"));
+			LongBuffer timestamps = reader.getTimestamps("b (ä)");
+			DoubleBuffer values = reader.getValues("b (ä)");
+			assertEquals(9999 * 7, timestamps.get(9999));
+			assertEquals(9999 / 2.0, values.get(9999), DELTA);
+			assertEquals(b.toTupleSequence(), reader.getSeries("b (ä)").toTupleSequence());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateName() throws Exception {
+		try (BinaryTraceWriter writer = new BinaryTraceWriter(tempFile())) {
+			writer.writeSeries("a", new TupleSequence<Double>());
+			writer.writeSeries("a", new TupleSequence<Double>());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoTraceFile() throws Exception {
+		File f = tempFile();
+		try (FileOutputStream out = new FileOutputStream(f)) {
+			out.write("timestamp;value\n".getBytes("UTF-8"));
+		}
+		new BinaryTraceReader(f);
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedFile() throws Exception {
+		File f = tempFile();
+		SampleSeries s = new SampleSeries();
+		s.add(1, 1);
+		s.add(2, 2);
+		try (BinaryTraceWriter writer = new BinaryTraceWriter(f)) {
+			writer.writeSeries("s", s);
+		}
+		try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(f, "rw")) {
+			raf.setLength(raf.length() - 8);
+		}
+		new BinaryTraceReader(f);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.monitoring.report;
+
+import edu.kit.cloudSimStorage.monitoring.TraceableResource;
+import edu.kit.cloudSimStorage.monitoring.TupleSequence;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestSampleCache {
+
+	private static class CountingResource implements TraceableResource {
+		final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public TupleSequence<Double> getSamples(String key) {
+			calls.incrementAndGet();
+			if (!key.equals("a"))
+				return null;
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			TupleSequence<Double> result = new TupleSequence<>();
+			result.add(1l, 1.0);
+			return result;
+		}
+
+		@Override
+		public String[] getAvailableTrackingKeys() {
+			return new String[]{"a", "b"};
+		}
+	}
+
+	@Test
+	public void testComputesOnce() throws Exception {
+		final CountingResource resource = new CountingResource();
+		SampleCache cache = new SampleCache();
+		final TraceableResource cached = cache.get(resource);
+		assertSame(cached, cache.get(resource));
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Callable<TupleSequence<Double>>> tasks = new ArrayList<>();
+		for (int i = 0; i < 32; i++) {
+			tasks.add(new Callable<TupleSequence<Double>>() {
+				@Override
+				public TupleSequence<Double> call() throws Exception {
+					return cached.getSamples("a");
+				}
+			});
+		}
+		for (Future<TupleSequence<Double>> f : pool.invokeAll(tasks))
+			assertEquals(1, f.get().size());
+		pool.shutdown();
+		assertEquals(1, resource.calls.get());
+
+		//callers get copies
+		cached.getSamples("a").clear();
+		assertEquals(1, cached.getSamples("a").size());
+
+		assertNull(cached.getSamples("b"));
+		assertNull(cached.getSamples("b"));
+		assertEquals(2, resource.calls.get());
+	}
+}
@@ -93,6 +93,84 @@ public class TestSampleCombinator {
 		assertEquals(expected, SequenceOperations.sum(in));
 	}
 
+	@Test
+	public void testSumOfLevels() throws Exception {
+		TupleSequence<Double> expected = new TupleSequence<>();
+		List<TupleSequence<Double>> in = new ArrayList<>();
+		in.add(a);
+		in.add(b);
+		in.add(c);
+
+		expected.add(new Tuple<>(0l, 1.0));
+		expected.add(new Tuple<>(1l, 1.0));
+		expected.add(new Tuple<>(3l, 2.0));
+		expected.add(new Tuple<>(4l, 4.0));
+		expected.add(new Tuple<>(5l, 7.0));
+		expected.add(new Tuple<>(6l, 10.0));
+		assertEquals(expected, SequenceOperations.sumOfLevels(in));
+	}
+
+	@Test
+	public void testSum_doesNotModifyInput() {
+		List<TupleSequence<Double>> in = new ArrayList<>();
+		in.add(a);
+		in.add(b);
+		SequenceOperations.sum(in);
+
+		assertEquals(3, in.get(0).size());
+		assertEquals(5, in.get(1).size());
+	}
+
+	@Test
+	public void testMin() {
+		TupleSequence<Double> expected = new TupleSequence<>();
+		List<TupleSequence<Double>> in = new ArrayList<>();
+		in.add(b);
+		in.add(c);
+
+		//c has no sample before 6 and does not take part in the minimum until then
+		expected.add(new Tuple<>(1l, 0.0));
+		expected.add(new Tuple<>(3l, 1.0));
+		expected.add(new Tuple<>(4l, 3.0));
+		expected.add(new Tuple<>(5l, 4.0));
+		expected.add(new Tuple<>(6l, 0.0));
+		assertEquals(expected, SequenceOperations.min(in));
+
+		in.clear();
+		in.add(a);
+		in.add(b);
+		in.add(c);
+		c.add(new Tuple<>(7l, 5.0));
+		b.add(new Tuple<>(7l, 6.0));
+		a.add(new Tuple<>(7l, 2.0));
+		assertEquals(new Tuple<>(7l, 2.0), SequenceOperations.min(in).get(6));
+	}
+
+	@Test
+	public void testMin_emptyInput() {
+		TupleSequence<Double> expected = new TupleSequence<>();
+		expected.add(new Tuple<>(0l, 8.0));
+		List<TupleSequence<Double>> in = new ArrayList<>();
+		in.add(empty);
+		in.add(null);
+		TupleSequence<Double> limit = new TupleSequence<>();
+		limit.add(new Tuple<>(0l, 8.0));
+		in.add(limit);
+
+		assertEquals(expected, SequenceOperations.min(in));
+	}
+
+	@Test
+	public void testDivide() {
+		TupleSequence<Double> expected = new TupleSequence<>();
+		expected.add(new Tuple<>(0l, 1.0));
+		expected.add(new Tuple<>(1l, Double.POSITIVE_INFINITY));
+		expected.add(new Tuple<>(3l, 1.0));
+		expected.add(new Tuple<>(4l, 1.0 / 3.0));
+		expected.add(new Tuple<>(5l, 3.0 / 4.0));
+		assertEquals(expected, SequenceOperations.divide(a, b));
+	}
+
 	@Test
 	public void testUniquifyTimestamps_takeMin() {
 		TupleSequence<Double> expectedA = new TupleSequence<>();
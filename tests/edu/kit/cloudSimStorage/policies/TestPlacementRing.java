@@ -0,0 +1,125 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
+import edu.kit.cloudSimStorage.cloudScenarioModels.GenericDrive;
+import edu.kit.cloudSimStorage.helper.FileSizeHelper;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+import edu.kit.cloudSimStorage.storageModel.resourceUtilization.UnlimitedResource;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestPlacementRing {
+
+	private static ObjectStorageServer server(String id, int numDrives, long terabytesPerDrive) {
+		ObjectStorageServer server = new ObjectStorageServer("cloud", id, new UnlimitedResource());
+		for (int i = 0; i < numDrives; i++) {
+			GenericDrive drive = new GenericDrive("/dev/sda" + i);
+			drive.init(FileSizeHelper.toBytes(terabytesPerDrive, FileSizeHelper.Magnitude.TERA_BYTE), 1, 1, 1, 1, new UnlimitedResource());
+			server.installHarddrive(drive);
+		}
+		return server;
+	}
+
+	private static PlacementRing ring(int numServers) {
+		PlacementRing ring = new PlacementRing();
+		for (int i = 0; i < numServers; i++)
+			ring = ring.withServer(server("server" + i, 3, 1));
+		return ring;
+	}
+
+	@Test
+	public void testReplicasOnDifferentServers() throws Exception {
+		PlacementRing ring = ring(5);
+		for (int i = 0; i < 100; i++) {
+			CdmiId id = new CdmiId("OBJECT" + i);
+			List<StorageBlobLocation> locations = ring.getLocations(id, 3, 1024, null);
+			assertEquals(3, locations.size());
+			Set<ObjectStorageServer> servers = new HashSet<>();
+			for (StorageBlobLocation l : locations)
+				servers.add(l.getServer());
+			assertEquals(3, servers.size());
+
+			//deterministic
+			List<StorageBlobLocation> again = ring.getLocations(id, 3, 1024, null);
+			for (int j = 0; j < 3; j++) {
+				assertSame(locations.get(j).getServer(), again.get(j).getServer());
+				assertEquals(locations.get(j).getDriveName(), again.get(j).getDriveName());
+			}
+		}
+	}
+
+	@Test
+	public void testLessServersThanReplicas() throws Exception {
+		PlacementRing ring = ring(1);
+		CdmiId id = new CdmiId("OBJECT");
+		List<StorageBlobLocation> locations = ring.getLocations(id, 3, 1024, null);
+		Set<String> drives = new HashSet<>();
+		for (StorageBlobLocation l : locations)
+			drives.add(l.getDriveName());
+		assertEquals(3, drives.size());
+
+		//drives that hold the object already are not used again
+		assertEquals(2, ring.getLocations(id, 3, 1024, locations.subList(0, 1)).size());
+		assertEquals(0, ring.getLocations(id, 3, 1024, locations).size());
+	}
+
+	@Test
+	public void testSkipsFullDrives() throws Exception {
+		PlacementRing ring = ring(3);
+		long tooLarge = FileSizeHelper.toBytes(2, FileSizeHelper.Magnitude.TERA_BYTE);
+		assertEquals(0, ring.getLocations(new CdmiId("OBJECT"), 3, tooLarge, null).size());
+	}
+
+	@Test
+	public void testMinimalMovementWhenAddingServer() throws Exception {
+		PlacementRing before = ring(10);
+		ObjectStorageServer added = server("server10", 3, 1);
+		PlacementRing after = before.withServer(added);
+		assertEquals(10, before.getServers().size());
+		assertEquals(11, after.getServers().size());
+
+		int moved = 0, n = 2000;
+		for (int i = 0; i < n; i++) {
+			CdmiId id = new CdmiId("OBJECT" + i);
+			StorageBlobLocation a = before.getLocations(id, 1, 1024, null).get(0);
+			StorageBlobLocation b = after.getLocations(id, 1, 1024, null).get(0);
+			if (a.getServer() != b.getServer() || !a.getDriveName().equals(b.getDriveName())) {
+				moved++;
+				//objects only move to the new server
+				assertSame(added, b.getServer());
+			}
+		}
+		//about 1/11 of the objects move
+		assertTrue("moved " + moved, moved > n / 22 && moved < n / 5);
+
+		assertEquals(before.getNumTokens(), after.withoutServer(added).getNumTokens());
+	}
+
+	@Test
+	public void testWeightedByCapacity() throws Exception {
+		ObjectStorageServer small = server("small", 1, 1), large = server("large", 1, 4);
+		PlacementRing ring = new PlacementRing().withServer(small).withServer(large);
+		int onLarge = 0, n = 5000;
+		for (int i = 0; i < n; i++)
+			if (ring.getLocations(new CdmiId("OBJECT" + i), 1, 1024, null).get(0).getServer() == large)
+				onLarge++;
+		assertTrue("on large " + onLarge, onLarge > n * 0.7 && onLarge < n * 0.9);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
+import edu.kit.cloudSimStorage.storageModel.ObjectStorageServer;
+import edu.kit.cloudSimStorage.storageModel.StorageBlobLocation;
+import edu.kit.cloudSimStorage.storageModel.resourceUtilization.UnlimitedResource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestReadScheduler {
+	private static final CdmiId ID = new CdmiId("OBJECT");
+
+	private static StorageBlobLocation location(String server, final double workload) {
+		return new StorageBlobLocation(ID, new ObjectStorageServer("cloud", server, new UnlimitedResource() {
+			@Override
+			public double getValueAt(long now) {
+				return workload;
+			}
+		}), "/dev/sda");
+	}
+
+	private final StorageBlobLocation busy = location("busy", 0.9);
+	private final StorageBlobLocation idle = location("idle", 0.1);
+	private final StorageBlobLocation medium = location("medium", 0.5);
+
+	@Test
+	public void testLowestUtilization() throws Exception {
+		List<StorageBlobLocation> candidates = Arrays.asList(busy, medium, idle);
+		List<StorageBlobLocation> before = new ArrayList<>(candidates);
+		assertSame(idle, new ReadScheduler().choose(candidates));
+		assertEquals(before, candidates);
+		assertNull(new ReadScheduler().choose(new ArrayList<StorageBlobLocation>()));
+	}
+
+	@Test
+	public void testPowerOfTwoChoices() throws Exception {
+		ReadScheduler scheduler = new ReadScheduler(ReadScheduler.Policy.POWER_OF_TWO_CHOICES, 42);
+		assertSame(idle, scheduler.choose(Arrays.asList(busy, idle)));
+
+		//the busiest server can never win against another candidate
+		int idleChosen = 0;
+		for (int i = 0; i < 1000; i++) {
+			StorageBlobLocation chosen = scheduler.choose(Arrays.asList(busy, medium, idle));
+			assertNotSame(busy, chosen);
+			if (chosen == idle)
+				idleChosen++;
+		}
+		//idle wins every pair it is part of (2 of 3 pairs)
+		assertEquals(667, idleChosen, 60);
+	}
+
+	@Test
+	public void testLeastOutstandingRequests() throws Exception {
+		ReadScheduler scheduler = new ReadScheduler(ReadScheduler.Policy.LEAST_OUTSTANDING_REQUESTS, 0);
+		List<StorageBlobLocation> candidates = Arrays.asList(busy, idle);
+		assertSame(idle, scheduler.choose(candidates));
+
+		scheduler.readScheduled(idle, 100);
+		assertEquals(1, scheduler.getNumRunningReads(idle.getServer()));
+		assertSame(busy, scheduler.choose(candidates));
+
+		scheduler.readScheduled(busy, 100);
+		assertSame(idle, scheduler.choose(candidates));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoPolicy() throws Exception {
+		new ReadScheduler(null, 0);
+	}
+}
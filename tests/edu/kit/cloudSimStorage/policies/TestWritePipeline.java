@@ -0,0 +1,62 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.policies;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestWritePipeline {
+	private static final int[] DELAYS = {0, 5, 0};
+	private static final int[] DURATIONS = {10, 10, 40};
+
+	@Test
+	public void testFanOut() throws Exception {
+		WritePipeline pipeline = new WritePipeline(WritePipeline.Mode.FAN_OUT, 0, 1);
+		//upload 2 + 20: the primary is limited by the upload, the replicas start one hop after the primary
+		assertArrayEquals(new int[]{22, 23, 43}, pipeline.getFinishTimes(2, 20, DELAYS, DURATIONS));
+		assertEquals(43, pipeline.getAcknowledgeTime(2, 20, DELAYS, DURATIONS));
+		assertEquals(23, new WritePipeline(WritePipeline.Mode.FAN_OUT, 2, 1).getAcknowledgeTime(2, 20, DELAYS, DURATIONS));
+		assertEquals(22, new WritePipeline(WritePipeline.Mode.FAN_OUT, 1, 1).getAcknowledgeTime(2, 20, DELAYS, DURATIONS));
+	}
+
+	@Test
+	public void testChain() throws Exception {
+		WritePipeline pipeline = new WritePipeline(WritePipeline.Mode.CHAIN, 0, 1);
+		//every replica starts and finishes at least one hop after its predecessor, the last one starts at 6 instead of 3
+		assertArrayEquals(new int[]{22, 23, 46}, pipeline.getFinishTimes(2, 20, DELAYS, DURATIONS));
+		assertEquals(46, pipeline.getAcknowledgeTime(2, 20, DELAYS, DURATIONS));
+		assertEquals(23, new WritePipeline(WritePipeline.Mode.CHAIN, 2, 1).getAcknowledgeTime(2, 20, DELAYS, DURATIONS));
+	}
+
+	@Test
+	public void testQuorumLargerThanReplicas() throws Exception {
+		WritePipeline pipeline = new WritePipeline(WritePipeline.Mode.FAN_OUT, 5, 0);
+		assertEquals(40, pipeline.getAcknowledgeTime(0, 0, DELAYS, DURATIONS));
+		assertEquals(7, pipeline.getAcknowledgeTime(3, 4, new int[0], new int[0]));
+	}
+
+	@Test
+	public void testParse() throws Exception {
+		assertEquals("CHAIN:2:1", WritePipeline.parse("chain:2:1").toString());
+		assertEquals("FAN_OUT:0:0", WritePipeline.parse("fan_out").toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalid() throws Exception {
+		WritePipeline.parse("star:1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeQuorum() throws Exception {
+		new WritePipeline(WritePipeline.Mode.CHAIN, -1, 0);
+	}
+}
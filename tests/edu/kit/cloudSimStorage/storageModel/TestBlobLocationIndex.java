@@ -0,0 +1,85 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package edu.kit.cloudSimStorage.storageModel;
+
+import edu.kit.cloudSimStorage.cdmi.CdmiId;
+import edu.kit.cloudSimStorage.storageModel.resourceUtilization.UnlimitedResource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestBlobLocationIndex {
+	private final ObjectStorageServer s0 = new ObjectStorageServer("cloud", "server0", new UnlimitedResource());
+	private final ObjectStorageServer s1 = new ObjectStorageServer("cloud", "server1", new UnlimitedResource());
+	private final CdmiId a = new CdmiId("A"), b = new CdmiId("B");
+
+	@Test
+	public void testPutAndRemove() throws Exception {
+		BlobLocationIndex index = new BlobLocationIndex();
+		index.put(a, Arrays.asList(new StorageBlobLocation(a, s0, "sda"), new StorageBlobLocation(a, s0, "sdb"), new StorageBlobLocation(a, s1, "sda")));
+		index.put(b, Arrays.asList(new StorageBlobLocation(b, s0, "sda")));
+
+		assertEquals(3, index.getLocationsOnServer(s0).size());
+		assertEquals(2, index.getLocationsOnDrive(s0, "sda").size());
+		assertEquals(2, index.getNumOccurrencesOnServer(s0, a));
+		assertEquals(Arrays.asList("sda", "sdb"), index.getUsedDrivesOnServer(s0, a));
+		assertEquals(0, index.getNumOccurrencesOnServer(s1, b));
+
+		//replace
+		index.put(a, Arrays.asList(new StorageBlobLocation(a, s0, "sdc")));
+		assertFalse(index.hasBlobsOnServer(s1));
+		assertEquals(1, index.getLocationsOnDrive(s0, "sda").size());
+		assertEquals(1, index.getLocationsOnDrive(s0, "sdc").size());
+
+		assertEquals(1, index.remove(a).size());
+		assertEquals(0, index.getLocationsOnDrive(s0, "sdc").size());
+		assertTrue(index.hasBlobsOnServer(s0));
+		index.remove(b);
+		assertFalse(index.hasBlobsOnServer(s0));
+		assertFalse(index.contains(b));
+		assertEquals(0, index.remove(b).size());
+	}
+
+	@Test
+	public void testReturnsCopies() throws Exception {
+		BlobLocationIndex index = new BlobLocationIndex();
+		StorageBlobLocation location = new StorageBlobLocation(a, s0, "sda");
+		List<StorageBlobLocation> locations = new ArrayList<>(Arrays.asList(location));
+		index.put(a, locations);
+		locations.clear();
+		index.get(a).clear();
+
+		assertEquals(1, index.get(a).size());
+		assertSame(location, index.getLocationsOnServer(s0).get(0));
+		index.remove(a);
+		assertFalse(index.hasBlobsOnServer(s0));
+	}
+
+	@Test
+	public void testParts() throws Exception {
+		//two parts of object a with IDs of their own on the same drive
+		CdmiId part0 = new CdmiId("A0"), part1 = new CdmiId("A1");
+		BlobLocationIndex index = new BlobLocationIndex();
+		index.put(a, Arrays.asList(new StorageBlobLocation(part0, s0, "sda"), new StorageBlobLocation(part1, s0, "sda")));
+		assertEquals(2, index.getLocationsOnDrive(s0, "sda").size());
+		assertEquals(2, index.getNumOccurrencesOnServer(s0, a));
+		assertEquals(part1, index.get(a).get(1).getContentID());
+
+		index.remove(a);
+		assertFalse(index.hasBlobsOnServer(s0));
+	}
+}
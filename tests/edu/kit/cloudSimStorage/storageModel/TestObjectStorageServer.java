@@ -150,4 +150,21 @@ public class TestObjectStorageServer {
 		CdmiDataObject bigObject = new CdmiDataObject(driveA.getCapacity(), meta2, "cloudfront.net", "");
 		assertNull(candidate.saveBlob(bigObject));
 	}
+
+	@org.junit.Test
+	public void testCapacityCounters() throws Exception {
+		candidate.installHarddrive(driveA);
+		candidate.installHarddrive(driveB);
+		long total = driveA.getCapacity() + driveB.getCapacity();
+		assertEquals(total, candidate.getTotalCapacity());
+		assertEquals(total, candidate.getCurrentCapacity());
+
+		CdmiDataObject object = new CdmiDataObject(1024 * 4, new CdmiMetadata(), "cloudfront.net", "");
+		ObjectStorageBlob blob = candidate.saveBlob(object, driveB.getName());
+		assertEquals(total - object.getPhysicalSize(), candidate.getCurrentCapacity());
+		assertEquals(total, candidate.getTotalCapacity());
+
+		assertTrue(candidate.deleteBlob(blob.getLocation()));
+		assertEquals(total, candidate.getCurrentCapacity());
+	}
 }
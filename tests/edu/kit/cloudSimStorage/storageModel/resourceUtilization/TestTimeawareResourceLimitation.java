@@ -116,4 +116,15 @@ public class TestTimeawareResourceLimitation {
 		assertEquals(maxRate, seq4.getValuesAt(401), DELTA);
 
 	}
+
+	@Test
+	public void testReserveBooksLikeUse() throws Exception {
+		assertEquals(100, r.reserve(0, toBytes(5, MEGA_BYTE), maxRate / 2.0));
+		assertEquals(100, r.reserve(300, toBytes(5, MEGA_BYTE), maxRate / 2.0));
+		assertEquals(300, r.reserve(50, toBytes(15, MEGA_BYTE), maxRate / 2.0));
+
+		//same bookings as in testUseWithFourOperations, so the last operation has to be fragmented the same way
+		assertEquals(500, r.reserve(0, toBytes(25, MEGA_BYTE), maxRate));
+		assertEquals(maxRate, r.getValueAt(401), DELTA);
+	}
 }
@@ -99,4 +99,19 @@ public class TestUtilizationSequence {
 	public void testGetDuration() throws Exception {
 	 	assertEquals(50, s.getDuration());
 	}
+
+	@Test
+	public void testOptimize() throws Exception {
+		assertEquals(1, s.optimize(10).size());
+		assertEquals(3, s.getNumSamples());
+		assertEquals(1, s.getValuesAt(10), DELTA);
+		assertEquals(5, s.getValuesAt(25), DELTA);
+		assertEquals(20, s.getFirstSamplePoint());
+		assertEquals(50, s.getLastSamplePoint());
+
+		assertEquals(2, s.optimize(30).size());
+		assertEquals(0, s.getValuesAt(30), DELTA);
+		assertEquals(1, s.getValuesAt(45), DELTA);
+		assertEquals(40, s.getNextSamplePointFrom(30));
+	}
 }
@@ -0,0 +1,91 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package org.cloudbus.cloudsim.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCalendarQueue {
+
+	CalendarQueue candidate;
+	FutureQueue reference;
+
+	@Before
+	public void setUp() throws Exception {
+		candidate = new CalendarQueue();
+		reference = new FutureQueue();
+	}
+
+	@Test
+	public void testSameOrderAsFutureQueue() throws Exception {
+		Random rnd = new Random(42);
+		List<SimEvent> events = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			//many events at the same time and some far away from each other
+			double time = rnd.nextBoolean() ? rnd.nextInt(20) : rnd.nextDouble() * 100000;
+			events.add(new SimEvent(SimEvent.SEND, time, 0, 1, i, null));
+		}
+
+		for (SimEvent e : events) {
+			candidate.addEvent(e);
+		}
+		for (SimEvent e : events) {
+			reference.addEvent(e);
+		}
+
+		assertEquals(reference.size(), candidate.size());
+		while (reference.size() > 0) {
+			List<SimEvent> expected = reference.pollAllAtFirstTime();
+			List<SimEvent> actual = candidate.pollAllAtFirstTime();
+			assertEquals(expected, actual);
+			assertEquals(reference.size(), candidate.size());
+
+			//interleave inserts and removals
+			if (rnd.nextInt(10) == 0) {
+				SimEvent e = new SimEvent(SimEvent.SEND, expected.get(0).eventTime() + rnd.nextInt(50), 0, 1, -1, null);
+				reference.addEvent(e);
+				candidate.addEvent(e);
+			}
+		}
+		assertNull(candidate.peek());
+		assertTrue(candidate.pollAllAtFirstTime().isEmpty());
+	}
+
+	@Test
+	public void testPeekAndRemove() throws Exception {
+		SimEvent a = new SimEvent(SimEvent.SEND, 10, 0, 1, 0, null);
+		SimEvent b = new SimEvent(SimEvent.SEND, 5, 0, 1, 0, null);
+		SimEvent c = new SimEvent(SimEvent.SEND, 5, 0, 1, 0, null);
+		candidate.addEvent(a);
+		candidate.addEvent(b);
+		candidate.addEvent(c);
+
+		assertSame(b, candidate.peek());
+		assertTrue(candidate.remove(b));
+		assertSame(c, candidate.peek());
+
+		Iterator<SimEvent> it = candidate.iterator();
+		assertSame(c, it.next());
+		it.remove();
+		assertSame(a, it.next());
+		assertEquals(1, candidate.size());
+		assertSame(a, candidate.peek());
+	}
+}
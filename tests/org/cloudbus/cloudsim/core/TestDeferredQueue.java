@@ -0,0 +1,76 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestDeferredQueue {
+
+	DeferredQueue candidate;
+	SimEvent a, b, c, d, e;
+
+	@Before
+	public void setUp() throws Exception {
+		candidate = new DeferredQueue();
+		a = new SimEvent(SimEvent.SEND, 10, 0, 1, 100, null);
+		b = new SimEvent(SimEvent.SEND, 10, 2, 1, 101, null);
+		c = new SimEvent(SimEvent.SEND, 5, 0, 1, 101, null); //arrives late, but belongs before a and b
+		d = new SimEvent(SimEvent.SEND, 10, 0, 1, 100, null);
+		e = new SimEvent(SimEvent.SEND, 1, 0, 2, 100, null); //other destination
+		candidate.addEvent(a);
+		candidate.addEvent(b);
+		candidate.addEvent(c);
+		candidate.addEvent(d);
+		candidate.addEvent(e);
+	}
+
+	@Test
+	public void testCount() throws Exception {
+		assertEquals(5, candidate.size());
+		assertEquals(4, candidate.count(1, CloudSim.SIM_ANY));
+		assertEquals(1, candidate.count(2, CloudSim.SIM_ANY));
+		assertEquals(0, candidate.count(3, CloudSim.SIM_ANY));
+		assertEquals(0, candidate.count(1, CloudSim.SIM_NONE));
+		assertEquals(2, candidate.count(1, new PredicateType(100)));
+		assertEquals(4, candidate.count(1, new PredicateType(new int[] {100, 101, 100})));
+		assertEquals(3, candidate.count(1, new PredicateFrom(0)));
+	}
+
+	@Test
+	public void testRemoveInTemporalOrder() throws Exception {
+		assertSame(c, candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertSame(a, candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertSame(b, candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertSame(d, candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertNull(candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertEquals(1, candidate.size());
+	}
+
+	@Test
+	public void testRemoveByTag() throws Exception {
+		assertSame(a, candidate.findFirst(1, new PredicateType(100)));
+		assertSame(c, candidate.removeFirst(1, new PredicateType(new int[] {100, 101})));
+		assertSame(a, candidate.removeFirst(1, new PredicateType(new int[] {101, 100})));
+		assertSame(d, candidate.removeFirst(1, new PredicateType(100)));
+		assertNull(candidate.removeFirst(1, new PredicateType(100)));
+
+		assertSame(b, candidate.removeFirst(1, CloudSim.SIM_ANY));
+		assertEquals(0, candidate.count(1, new PredicateType(101)));
+		assertSame(e, candidate.removeFirst(2, new PredicateFrom(0)));
+		assertEquals(0, candidate.size());
+	}
+}
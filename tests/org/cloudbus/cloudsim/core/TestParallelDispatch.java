@@ -0,0 +1,102 @@
+/*
+ * Title:        StorageCloudSim
+ * Description:  StorageCloudSim (Storage as a Service Cloud Simulation), an extension for CloudSim
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2013, Karlsruhe Institute of Technology, Germany
+ * https://github.com/toebbel/StorageCloudSim
+ * http://www.tobiassturm.de/projects/storagecloudsim.html
+ */
+package org.cloudbus.cloudsim.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestParallelDispatch {
+
+	private static final int NUM_ENTITIES = 8;
+
+	@After
+	public void tearDown() throws Exception {
+		CloudSim.setParallelism(1);
+	}
+
+	@Test
+	public void testSameResultAsSequentialDispatch() throws Exception {
+		List<String> sequential = simulate(1);
+		List<String> parallel = simulate(4);
+
+		assertEquals(NUM_ENTITIES * 50, sequential.size());
+		assertEquals(sequential, parallel);
+	}
+
+	private List<String> simulate(int parallelism) {
+		CloudSim.setParallelism(parallelism);
+		CloudSim.init(0, Calendar.getInstance(), false);
+
+		List<String> log = new ArrayList<>();
+		List<PingEntity> pings = new ArrayList<>();
+		for (int i = 0; i < NUM_ENTITIES; i++) {
+			pings.add(new PingEntity("ping" + i, NUM_ENTITIES));
+		}
+		CloudSim.startSimulation();
+
+		//every entity logs into its own list, merge them by time in the end
+		for (int t = 0; t < 1000; t++) {
+			for (PingEntity p : pings) {
+				for (String entry : p.received) {
+					if (entry.startsWith(t + ":")) {
+						log.add(p.getName() + "@" + entry);
+					}
+				}
+			}
+		}
+		return log;
+	}
+
+	/** Sends a message to the next entity whenever it receives one, until it received 50 messages. */
+	private static class PingEntity extends SimEntity {
+
+		private final int numEntities;
+
+		private final List<String> received = new ArrayList<>();
+
+		private PingEntity(String name, int numEntities) {
+			super(name);
+			this.numEntities = numEntities;
+		}
+
+		@Override
+		public boolean isParallelSafe() {
+			return true;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), 0, 0);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			received.add((long) CloudSim.clock() + ":" + ev.getSource() + ":" + ev.getTag());
+			if (received.size() < 50) {
+				int next = getId() + 1 < getFirstId() + numEntities ? getId() + 1 : getFirstId();
+				schedule(next, (getId() + received.size()) % 3, received.size());
+			}
+		}
+
+		private int getFirstId() {
+			return CloudSim.getEntityId("ping0");
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+}